@@ -19,6 +19,15 @@ public class Commands {
   public static final String HELLO_WORLD_COMMAND = "org.eclipse.che.jdt.ls.extension.samplecommand";
   public static final String FILE_STRUCTURE_COMMAND =
       "org.eclipse.che.jdt.ls.extension.filestructure";
+  public static final String FILE_STRUCTURE_DELTA_COMMAND =
+      "org.eclipse.che.jdt.ls.extension.filestructure.delta";
+  public static final String FILE_STRUCTURE_EXPAND_COMMAND =
+      "org.eclipse.che.jdt.ls.extension.filestructure.expand";
+  public static final String FILE_STRUCTURES_COMMAND =
+      "org.eclipse.che.jdt.ls.extension.filestructures";
+  // sent to the client with every file structure of a streaming file structures request
+  public static final String FILE_STRUCTURE_RESULT_NOTIFICATION =
+      "org.eclipse.che.jdt.ls.extension.filestructures.result";
   public static final String TEST_DETECT_COMMAND = "che.jdt.ls.extension.detectTest";
   public static final String FIND_TEST_BY_CURSOR_COMMAND = "che.jdt.ls.extension.findTestByCursor";
   public static final String FIND_TESTS_FROM_PROJECT_COMMAND =
@@ -53,6 +62,12 @@ public class Commands {
   public static final String IDENTIFY_FQN_IN_RESOURCE =
       "che.jdt.ls.extension.debug.identifyFqnInResource";
   public static final String USAGES_COMMAND = "che.jdt.ls.extension.usages";
+  public static final String USAGES_STREAM_COMMAND = "che.jdt.ls.extension.usages.stream";
+  public static final String USAGES_COUNT_COMMAND = "che.jdt.ls.extension.usages.count";
+  public static final String USAGES_NEXT_PAGE_COMMAND = "che.jdt.ls.extension.usages.nextPage";
+  // sent to the client with batches of a streaming usages search
+  public static final String USAGES_PARTIAL_RESULT_NOTIFICATION =
+      "che.jdt.ls.extension.usages.partialResult";
 
   public static final String UPDATE_WORKSPACE = "che.jdt.ls.extension.updateWorkspace";
 
@@ -66,6 +81,7 @@ public class Commands {
   // navigation commands
 
   public static final String FIND_IMPLEMENTERS_COMMAND = "che.jdt.ls.extension.findImplementers";
+  public static final String RESOLVE_LABELS_COMMAND = "che.jdt.ls.extension.resolveLabels";
 
   // configuration
 
@@ -82,5 +98,13 @@ public class Commands {
 
   public static final String ORGANIZE_IMPORTS = "che.jdt.ls.extension.import.organizeImports";
 
+  // diagnostics of the extension itself
+
+  public static final String GET_METRICS_COMMAND = "che.jdt.ls.extension.metrics";
+
+  // executes several read-only commands in one request
+
+  public static final String BATCH_COMMAND = "che.jdt.ls.extension.batch";
+
   private Commands() {}
 }
@@ -0,0 +1,77 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.jdt.ls.extension.api;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.eclipse.che.jdt.ls.extension.api.dto.LinearRange;
+import org.eclipse.che.jdt.ls.extension.api.dto.SearchResult;
+
+/**
+ * Compact encoding of the matches of a {@link SearchResult}. The ranges are stored in a flat array
+ * of offset and length pairs, every offset is stored as the difference to the offset of the
+ * previous range, so the numbers stay small for the usual sorted matches of a file. The order of
+ * the ranges is kept.
+ */
+public final class RangeEncoding {
+
+  private RangeEncoding() {}
+
+  /** Encodes ranges into offset delta and length pairs. */
+  public static int[] encode(List<LinearRange> ranges) {
+    int[] packed = new int[ranges.size() * 2];
+    int previous = 0;
+    int i = 0;
+    for (LinearRange range : ranges) {
+      packed[i++] = range.getOffset() - previous;
+      packed[i++] = range.getLength();
+      previous = range.getOffset();
+    }
+    return packed;
+  }
+
+  /** Decodes ranges encoded by {@link #encode(List)}. */
+  public static List<LinearRange> decode(int[] packed) {
+    List<LinearRange> ranges = new ArrayList<>(packed.length / 2);
+    int offset = 0;
+    for (int i = 0; i + 1 < packed.length; i += 2) {
+      offset += packed[i];
+      ranges.add(new LinearRange(offset, packed[i + 1]));
+    }
+    return ranges;
+  }
+
+  /** Replaces the matches of the results and of all their descendants by packed matches. */
+  public static void pack(List<SearchResult> results) {
+    for (SearchResult result : results) {
+      if (result.getMatches() != null) {
+        result.setPackedMatches(encode(result.getMatches()));
+        result.setMatches(null);
+      }
+      if (result.getChildren() != null) {
+        pack(result.getChildren());
+      }
+    }
+  }
+
+  /** Replaces the packed matches of the results and of all their descendants by matches. */
+  public static void unpack(List<SearchResult> results) {
+    for (SearchResult result : results) {
+      if (result.getPackedMatches() != null) {
+        result.setMatches(decode(result.getPackedMatches()));
+        result.setPackedMatches(null);
+      }
+      if (result.getChildren() != null) {
+        unpack(result.getChildren());
+      }
+    }
+  }
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.jdt.ls.extension.api;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.eclipse.che.jdt.ls.extension.api.dto.SearchResult;
+
+/**
+ * String table of search results. Every distinct uri and name of a result tree is stored once in
+ * the table, the results refer to them by their index in the table.
+ */
+public final class StringTable {
+
+  private StringTable() {}
+
+  /**
+   * Replaces the uris and names of the results and of all their descendants by indexes into a
+   * string table.
+   *
+   * @return the string table
+   */
+  public static List<String> pack(List<SearchResult> results) {
+    List<String> strings = new ArrayList<>();
+    pack(results, strings, new HashMap<>());
+    return strings;
+  }
+
+  private static void pack(
+      List<SearchResult> results, List<String> strings, Map<String, Integer> indexes) {
+    for (SearchResult result : results) {
+      result.setUriIndex(indexOf(result.getUri(), strings, indexes));
+      result.setUri(null);
+      result.setNameIndex(indexOf(result.getName(), strings, indexes));
+      result.setName(null);
+      if (result.getChildren() != null) {
+        pack(result.getChildren(), strings, indexes);
+      }
+    }
+  }
+
+  private static Integer indexOf(
+      String string, List<String> strings, Map<String, Integer> indexes) {
+    if (string == null) {
+      return null;
+    }
+    Integer index = indexes.get(string);
+    if (index == null) {
+      index = strings.size();
+      strings.add(string);
+      indexes.put(string, index);
+    }
+    return index;
+  }
+
+  /** Replaces the string indexes of the results and of all their descendants by the strings. */
+  public static void unpack(List<SearchResult> results, List<String> strings) {
+    for (SearchResult result : results) {
+      if (result.getUriIndex() != null) {
+        result.setUri(strings.get(result.getUriIndex()));
+        result.setUriIndex(null);
+      }
+      if (result.getNameIndex() != null) {
+        result.setName(strings.get(result.getNameIndex()));
+        result.setNameIndex(null);
+      }
+      if (result.getChildren() != null) {
+        unpack(result.getChildren(), strings);
+      }
+    }
+  }
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.jdt.ls.extension.api.dto;
+
+/** Statistics of a cache, e.g. of command results or element labels. */
+public class CacheMetrics {
+  private int size;
+  private int capacity;
+  private long hits;
+  private long misses;
+  private long evictions;
+  private long invalidations;
+
+  public CacheMetrics() {}
+
+  /** Returns the number of cached entries. */
+  public int getSize() {
+    return size;
+  }
+
+  public void setSize(int size) {
+    this.size = size;
+  }
+
+  /** Returns the maximum number of cached entries. */
+  public int getCapacity() {
+    return capacity;
+  }
+
+  public void setCapacity(int capacity) {
+    this.capacity = capacity;
+  }
+
+  /** Returns the number of lookups answered from the cache. */
+  public long getHits() {
+    return hits;
+  }
+
+  public void setHits(long hits) {
+    this.hits = hits;
+  }
+
+  /** Returns the number of lookups which had to be computed. */
+  public long getMisses() {
+    return misses;
+  }
+
+  public void setMisses(long misses) {
+    this.misses = misses;
+  }
+
+  /** Returns the number of entries removed because the cache was full. */
+  public long getEvictions() {
+    return evictions;
+  }
+
+  public void setEvictions(long evictions) {
+    this.evictions = evictions;
+  }
+
+  /** Returns the number of entries removed because of changes in the workspace. */
+  public long getInvalidations() {
+    return invalidations;
+  }
+
+  public void setInvalidations(long invalidations) {
+    this.invalidations = invalidations;
+  }
+}
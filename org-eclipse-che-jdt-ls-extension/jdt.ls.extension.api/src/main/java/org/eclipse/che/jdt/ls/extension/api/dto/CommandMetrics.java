@@ -0,0 +1,105 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.jdt.ls.extension.api.dto;
+
+/** Execution statistics of a single extension command. Latencies are in milliseconds. */
+public class CommandMetrics {
+  private String commandId;
+  private long calls;
+  private long errors;
+  private long cancels;
+  private double latencyMean;
+  private double latencyP50;
+  private double latencyP95;
+  private double latencyP99;
+  private double latencyMax;
+
+  public CommandMetrics() {}
+
+  public CommandMetrics(String commandId) {
+    this.commandId = commandId;
+  }
+
+  public String getCommandId() {
+    return commandId;
+  }
+
+  public void setCommandId(String commandId) {
+    this.commandId = commandId;
+  }
+
+  /** Returns how many times the command was executed, including failed and cancelled runs. */
+  public long getCalls() {
+    return calls;
+  }
+
+  public void setCalls(long calls) {
+    this.calls = calls;
+  }
+
+  /** Returns how many executions failed with an exception. */
+  public long getErrors() {
+    return errors;
+  }
+
+  public void setErrors(long errors) {
+    this.errors = errors;
+  }
+
+  /** Returns how many executions were cancelled. */
+  public long getCancels() {
+    return cancels;
+  }
+
+  public void setCancels(long cancels) {
+    this.cancels = cancels;
+  }
+
+  public double getLatencyMean() {
+    return latencyMean;
+  }
+
+  public void setLatencyMean(double latencyMean) {
+    this.latencyMean = latencyMean;
+  }
+
+  public double getLatencyP50() {
+    return latencyP50;
+  }
+
+  public void setLatencyP50(double latencyP50) {
+    this.latencyP50 = latencyP50;
+  }
+
+  public double getLatencyP95() {
+    return latencyP95;
+  }
+
+  public void setLatencyP95(double latencyP95) {
+    this.latencyP95 = latencyP95;
+  }
+
+  public double getLatencyP99() {
+    return latencyP99;
+  }
+
+  public void setLatencyP99(double latencyP99) {
+    this.latencyP99 = latencyP99;
+  }
+
+  public double getLatencyMax() {
+    return latencyMax;
+  }
+
+  public void setLatencyMax(double latencyMax) {
+    this.latencyMax = latencyMax;
+  }
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.jdt.ls.extension.api.dto;
+
+import java.util.List;
+
+/** A single command of a batch, see {@code Commands.BATCH_COMMAND}. */
+public class CommandRequest {
+  private String commandId;
+  private List<Object> arguments;
+
+  public CommandRequest() {}
+
+  public CommandRequest(String commandId, List<Object> arguments) {
+    this.commandId = commandId;
+    this.arguments = arguments;
+  }
+
+  public String getCommandId() {
+    return commandId;
+  }
+
+  public void setCommandId(String commandId) {
+    this.commandId = commandId;
+  }
+
+  public List<Object> getArguments() {
+    return arguments;
+  }
+
+  public void setArguments(List<Object> arguments) {
+    this.arguments = arguments;
+  }
+}
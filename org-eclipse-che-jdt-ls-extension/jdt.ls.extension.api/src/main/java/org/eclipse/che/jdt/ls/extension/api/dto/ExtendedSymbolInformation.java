@@ -21,6 +21,8 @@ import org.eclipse.lsp4j.SymbolInformation;
 public class ExtendedSymbolInformation {
   private SymbolInformation info;
   private List<ExtendedSymbolInformation> children;
+  private String id;
+  private String parentId;
 
   public ExtendedSymbolInformation() {}
 
@@ -45,4 +47,28 @@ public class ExtendedSymbolInformation {
   public void setChildren(List<ExtendedSymbolInformation> children) {
     this.children = children;
   }
+
+  /**
+   * Returns the id of the symbol. Set in file structure deltas and on symbols whose children
+   * haven't been rendered, which have {@code null} children.
+   */
+  public String getId() {
+    return id;
+  }
+
+  public void setId(String id) {
+    this.id = id;
+  }
+
+  /**
+   * Returns the id of the parent of a symbol added by a file structure delta, or {@code null} for a
+   * top level symbol.
+   */
+  public String getParentId() {
+    return parentId;
+  }
+
+  public void setParentId(String parentId) {
+    this.parentId = parentId;
+  }
 }
@@ -18,6 +18,9 @@ package org.eclipse.che.jdt.ls.extension.api.dto;
 public class FileStructureCommandParameters {
   private String uri;
   private boolean showInherited;
+  private String version;
+  private int depth;
+  private String id;
 
   public FileStructureCommandParameters() {}
 
@@ -41,4 +44,38 @@ public class FileStructureCommandParameters {
   public void setShowInherited(boolean showInherited) {
     this.showInherited = showInherited;
   }
+
+  /**
+   * Returns the version of the file structure the client has, or {@code null} if it has none. Only
+   * used by the file structure delta command.
+   */
+  public String getVersion() {
+    return version;
+  }
+
+  public void setVersion(String version) {
+    this.version = version;
+  }
+
+  /**
+   * Returns the number of levels of symbols to render, {@code 0} renders all of them. Symbols whose
+   * children aren't rendered have an id to expand them by. Not used by the file structure delta
+   * command.
+   */
+  public int getDepth() {
+    return depth;
+  }
+
+  public void setDepth(int depth) {
+    this.depth = depth;
+  }
+
+  /** Returns the id of the symbol to expand. Only used by the file structure expand command. */
+  public String getId() {
+    return id;
+  }
+
+  public void setId(String id) {
+    this.id = id;
+  }
 }
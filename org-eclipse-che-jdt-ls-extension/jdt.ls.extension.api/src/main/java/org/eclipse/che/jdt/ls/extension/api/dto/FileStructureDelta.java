@@ -0,0 +1,81 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.jdt.ls.extension.api.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Changes of a file structure since the version the client has. If the server can't compute the
+ * changes, e.g. the client has no version yet, the complete file structure is sent instead.
+ *
+ * <p>The changes are applied in order: the removed symbols are removed with their descendants, the
+ * added symbols are inserted with their descendants under their parent, the changed symbols replace
+ * the name, kind and location of the symbol with the same id and keep its children. Siblings are
+ * ordered by their location.
+ */
+public class FileStructureDelta {
+  private String version;
+  private List<ExtendedSymbolInformation> symbols;
+  private List<String> removed = new ArrayList<>();
+  private List<ExtendedSymbolInformation> added = new ArrayList<>();
+  private List<ExtendedSymbolInformation> changed = new ArrayList<>();
+
+  public FileStructureDelta() {}
+
+  /** Returns the version of the file structure after the changes. */
+  public String getVersion() {
+    return version;
+  }
+
+  public void setVersion(String version) {
+    this.version = version;
+  }
+
+  /**
+   * Returns the complete file structure if the changes couldn't be computed, {@code null}
+   * otherwise.
+   */
+  public List<ExtendedSymbolInformation> getSymbols() {
+    return symbols;
+  }
+
+  public void setSymbols(List<ExtendedSymbolInformation> symbols) {
+    this.symbols = symbols;
+  }
+
+  /** Returns the ids of the removed symbols. */
+  public List<String> getRemoved() {
+    return removed;
+  }
+
+  public void setRemoved(List<String> removed) {
+    this.removed = removed;
+  }
+
+  /** Returns the added symbols with their descendants. */
+  public List<ExtendedSymbolInformation> getAdded() {
+    return added;
+  }
+
+  public void setAdded(List<ExtendedSymbolInformation> added) {
+    this.added = added;
+  }
+
+  /** Returns the symbols whose name, kind or location changed, without their children. */
+  public List<ExtendedSymbolInformation> getChanged() {
+    return changed;
+  }
+
+  public void setChanged(List<ExtendedSymbolInformation> changed) {
+    this.changed = changed;
+  }
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.jdt.ls.extension.api.dto;
+
+import java.util.List;
+
+/**
+ * The file structure of one document, pushed to the client as soon as it is computed by a streaming
+ * file structures request.
+ */
+public class FileStructureResult {
+  private String token;
+  private String uri;
+  private List<ExtendedSymbolInformation> symbols;
+
+  public FileStructureResult() {}
+
+  public FileStructureResult(String token, String uri, List<ExtendedSymbolInformation> symbols) {
+    this.token = token;
+    this.uri = uri;
+    this.symbols = symbols;
+  }
+
+  /** Returns the token the client has passed to identify the request. */
+  public String getToken() {
+    return token;
+  }
+
+  public void setToken(String token) {
+    this.token = token;
+  }
+
+  public String getUri() {
+    return uri;
+  }
+
+  public void setUri(String uri) {
+    this.uri = uri;
+  }
+
+  /** Returns the file structure, or {@code null} if the document isn't a Java file. */
+  public List<ExtendedSymbolInformation> getSymbols() {
+    return symbols;
+  }
+
+  public void setSymbols(List<ExtendedSymbolInformation> symbols) {
+    this.symbols = symbols;
+  }
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.jdt.ls.extension.api.dto;
+
+import java.util.List;
+
+/** Parameters to compute the file structures of several documents at once. */
+public class FileStructuresParameters {
+  private List<String> uris;
+  private boolean showInherited;
+  private String token;
+
+  public FileStructuresParameters() {}
+
+  public FileStructuresParameters(List<String> uris, boolean showInherited) {
+    this.uris = uris;
+    this.showInherited = showInherited;
+  }
+
+  public List<String> getUris() {
+    return uris;
+  }
+
+  public void setUris(List<String> uris) {
+    this.uris = uris;
+  }
+
+  public boolean getShowInherited() {
+    return showInherited;
+  }
+
+  public void setShowInherited(boolean showInherited) {
+    this.showInherited = showInherited;
+  }
+
+  /**
+   * Returns the token the client identifies the notifications of the request by, or {@code null} if
+   * the file structures are returned as the result of the request.
+   */
+  public String getToken() {
+    return token;
+  }
+
+  public void setToken(String token) {
+    this.token = token;
+  }
+}
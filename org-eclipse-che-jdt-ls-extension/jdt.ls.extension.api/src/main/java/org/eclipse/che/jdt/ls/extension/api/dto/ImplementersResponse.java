@@ -22,6 +22,7 @@ public class ImplementersResponse {
 
   private String searchedElement;
   private List<SymbolInformation> implementers;
+  private List<String> handles;
 
   public ImplementersResponse() {}
 
@@ -41,4 +42,17 @@ public class ImplementersResponse {
   public void setImplementers(List<SymbolInformation> implementers) {
     this.implementers = implementers;
   }
+
+  /**
+   * Returns the handles of the implementers, in the order of the implementers, if their labels are
+   * deferred. The names of the implementers are the plain element names then, the labels are
+   * composed by the resolve labels command. {@code null} if the implementers have labels.
+   */
+  public List<String> getHandles() {
+    return handles;
+  }
+
+  public void setHandles(List<String> handles) {
+    this.handles = handles;
+  }
 }
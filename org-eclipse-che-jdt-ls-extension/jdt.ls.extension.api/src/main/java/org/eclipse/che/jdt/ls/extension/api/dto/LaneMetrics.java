@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.jdt.ls.extension.api.dto;
+
+/** Statistics of an execution lane of the command scheduler. Wait times are in milliseconds. */
+public class LaneMetrics {
+  private String lane;
+  private int threads;
+  private int activeThreads;
+  private int queueDepth;
+  private int queueCapacity;
+  private long completed;
+  private long rejected;
+  private double waitMean;
+  private double waitP95;
+  private double waitMax;
+
+  public LaneMetrics() {}
+
+  public LaneMetrics(String lane) {
+    this.lane = lane;
+  }
+
+  public String getLane() {
+    return lane;
+  }
+
+  public void setLane(String lane) {
+    this.lane = lane;
+  }
+
+  /** Returns the maximum number of commands the lane executes in parallel. */
+  public int getThreads() {
+    return threads;
+  }
+
+  public void setThreads(int threads) {
+    this.threads = threads;
+  }
+
+  /** Returns the number of commands which are being executed right now. */
+  public int getActiveThreads() {
+    return activeThreads;
+  }
+
+  public void setActiveThreads(int activeThreads) {
+    this.activeThreads = activeThreads;
+  }
+
+  /** Returns the number of commands waiting for a free thread. */
+  public int getQueueDepth() {
+    return queueDepth;
+  }
+
+  public void setQueueDepth(int queueDepth) {
+    this.queueDepth = queueDepth;
+  }
+
+  /** Returns how many commands may wait in the queue before new ones are rejected. */
+  public int getQueueCapacity() {
+    return queueCapacity;
+  }
+
+  public void setQueueCapacity(int queueCapacity) {
+    this.queueCapacity = queueCapacity;
+  }
+
+  public long getCompleted() {
+    return completed;
+  }
+
+  public void setCompleted(long completed) {
+    this.completed = completed;
+  }
+
+  /** Returns the number of commands rejected because the queue was full. */
+  public long getRejected() {
+    return rejected;
+  }
+
+  public void setRejected(long rejected) {
+    this.rejected = rejected;
+  }
+
+  public double getWaitMean() {
+    return waitMean;
+  }
+
+  public void setWaitMean(double waitMean) {
+    this.waitMean = waitMean;
+  }
+
+  public double getWaitP95() {
+    return waitP95;
+  }
+
+  public void setWaitP95(double waitP95) {
+    this.waitP95 = waitP95;
+  }
+
+  public double getWaitMax() {
+    return waitMax;
+  }
+
+  public void setWaitMax(double waitMax) {
+    this.waitMax = waitMax;
+  }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.jdt.ls.extension.api.dto;
+
+import java.util.List;
+
+/** Snapshot of the runtime statistics collected by the extension command dispatcher. */
+public class MetricsReport {
+  private long uptime;
+  private List<CommandMetrics> commands;
+  private List<LaneMetrics> lanes;
+  private long coalesced;
+  private CacheMetrics cache;
+  private CacheMetrics labels;
+  private long superseded;
+
+  public MetricsReport() {}
+
+  public MetricsReport(long uptime, List<CommandMetrics> commands) {
+    this.uptime = uptime;
+    this.commands = commands;
+  }
+
+  /** Returns the time in milliseconds since the statistics have been collected. */
+  public long getUptime() {
+    return uptime;
+  }
+
+  public void setUptime(long uptime) {
+    this.uptime = uptime;
+  }
+
+  /** Returns statistics of every command which has been executed at least once. */
+  public List<CommandMetrics> getCommands() {
+    return commands;
+  }
+
+  public void setCommands(List<CommandMetrics> commands) {
+    this.commands = commands;
+  }
+
+  /** Returns statistics of the lanes commands are scheduled to. */
+  public List<LaneMetrics> getLanes() {
+    return lanes;
+  }
+
+  public void setLanes(List<LaneMetrics> lanes) {
+    this.lanes = lanes;
+  }
+
+  /** Returns the number of commands which have shared the result of an identical command. */
+  public long getCoalesced() {
+    return coalesced;
+  }
+
+  public void setCoalesced(long coalesced) {
+    this.coalesced = coalesced;
+  }
+
+  /** Returns statistics of the cache of command results. */
+  public CacheMetrics getCache() {
+    return cache;
+  }
+
+  public void setCache(CacheMetrics cache) {
+    this.cache = cache;
+  }
+
+  /** Returns statistics of the cache of element labels. */
+  public CacheMetrics getLabels() {
+    return labels;
+  }
+
+  public void setLabels(CacheMetrics labels) {
+    this.labels = labels;
+  }
+
+  /** Returns the number of requests which have been cancelled by newer requests. */
+  public long getSuperseded() {
+    return superseded;
+  }
+
+  public void setSuperseded(long superseded) {
+    this.superseded = superseded;
+  }
+}
@@ -0,0 +1,43 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.jdt.ls.extension.api.dto;
+
+import java.util.List;
+
+/** Parameters to compose the labels of the symbols a client displays. */
+public class ResolveLabelsParameters {
+  private List<String> handles;
+  private boolean postQualified;
+
+  public ResolveLabelsParameters() {}
+
+  public ResolveLabelsParameters(List<String> handles) {
+    this.handles = handles;
+  }
+
+  /** Returns the handles of the elements, as sent with symbols whose labels are deferred. */
+  public List<String> getHandles() {
+    return handles;
+  }
+
+  public void setHandles(List<String> handles) {
+    this.handles = handles;
+  }
+
+  /** Returns whether the labels are qualified by the declaring type, like inherited members. */
+  public boolean getPostQualified() {
+    return postQualified;
+  }
+
+  public void setPostQualified(boolean postQualified) {
+    this.postQualified = postQualified;
+  }
+}
@@ -19,6 +19,9 @@ public class SearchResult {
   private String uri;
   private List<SearchResult> children;
   private List<LinearRange> matches;
+  private int[] packedMatches;
+  private Integer uriIndex;
+  private Integer nameIndex;
 
   public SymbolKind getKind() {
     return kind;
@@ -59,4 +62,42 @@ public class SearchResult {
   public void setMatches(List<LinearRange> matches) {
     this.matches = matches;
   }
+
+  /**
+   * Returns the matches in the compact encoding, see {@link
+   * org.eclipse.che.jdt.ls.extension.api.RangeEncoding}. Only set if the client requested the
+   * compact encoding, {@link #getMatches()} is {@code null} then.
+   */
+  public int[] getPackedMatches() {
+    return packedMatches;
+  }
+
+  public void setPackedMatches(int[] packedMatches) {
+    this.packedMatches = packedMatches;
+  }
+
+  /**
+   * Returns the index of the uri in the string table of the response, see {@link
+   * org.eclipse.che.jdt.ls.extension.api.StringTable}. Only set if the client requested the compact
+   * encoding, {@link #getUri()} is {@code null} then.
+   */
+  public Integer getUriIndex() {
+    return uriIndex;
+  }
+
+  public void setUriIndex(Integer uriIndex) {
+    this.uriIndex = uriIndex;
+  }
+
+  /**
+   * Returns the index of the name in the string table of the response. Only set if the client
+   * requested the compact encoding, {@link #getName()} is {@code null} then.
+   */
+  public Integer getNameIndex() {
+    return nameIndex;
+  }
+
+  public void setNameIndex(Integer nameIndex) {
+    this.nameIndex = nameIndex;
+  }
 }
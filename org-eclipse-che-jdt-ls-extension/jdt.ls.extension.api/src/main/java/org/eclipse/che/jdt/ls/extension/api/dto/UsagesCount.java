@@ -0,0 +1,56 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.jdt.ls.extension.api.dto;
+
+import java.util.Map;
+import org.eclipse.lsp4j.Position;
+
+/** Number of references of the element at a position of a document. */
+public class UsagesCount {
+  private Position position;
+  private int count;
+  private Map<String, Integer> projects;
+
+  public UsagesCount() {}
+
+  public UsagesCount(Position position, int count, Map<String, Integer> projects) {
+    this.position = position;
+    this.count = count;
+    this.projects = projects;
+  }
+
+  /** Returns the position the count was requested for. */
+  public Position getPosition() {
+    return position;
+  }
+
+  public void setPosition(Position position) {
+    this.position = position;
+  }
+
+  /** Returns the total number of references, zero if there is no element at the position. */
+  public int getCount() {
+    return count;
+  }
+
+  public void setCount(int count) {
+    this.count = count;
+  }
+
+  /** Returns the number of references per name of the referencing project. */
+  public Map<String, Integer> getProjects() {
+    return projects;
+  }
+
+  public void setProjects(Map<String, Integer> projects) {
+    this.projects = projects;
+  }
+}
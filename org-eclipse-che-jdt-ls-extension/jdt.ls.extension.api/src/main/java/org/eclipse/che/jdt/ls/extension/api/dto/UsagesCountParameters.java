@@ -0,0 +1,45 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.jdt.ls.extension.api.dto;
+
+import java.util.List;
+import org.eclipse.lsp4j.Position;
+
+/** Parameters of the command which counts references of several elements of a document. */
+public class UsagesCountParameters {
+  private String uri;
+  private List<Position> positions;
+
+  public UsagesCountParameters() {}
+
+  public UsagesCountParameters(String uri, List<Position> positions) {
+    this.uri = uri;
+    this.positions = positions;
+  }
+
+  /** Returns uri of the document. */
+  public String getUri() {
+    return uri;
+  }
+
+  public void setUri(String uri) {
+    this.uri = uri;
+  }
+
+  /** Returns positions of the elements whose references are counted. */
+  public List<Position> getPositions() {
+    return positions;
+  }
+
+  public void setPositions(List<Position> positions) {
+    this.positions = positions;
+  }
+}
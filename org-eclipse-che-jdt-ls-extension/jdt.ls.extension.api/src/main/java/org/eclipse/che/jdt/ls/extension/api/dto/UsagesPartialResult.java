@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.jdt.ls.extension.api.dto;
+
+import java.util.List;
+import org.eclipse.lsp4j.SymbolKind;
+
+/**
+ * A batch of usages pushed to the client while a streaming usages search is running. Every batch
+ * holds package level trees of the matches found since the previous batch, nodes of different
+ * batches with the same uri and name denote the same element. The last batch of a search is marked
+ * as done and carries the totals of the search.
+ */
+public class UsagesPartialResult {
+  private String token;
+  private String searchedElement;
+  private SymbolKind elementKind;
+  private List<SearchResult> searchResults;
+  private boolean done;
+  private boolean canceled;
+  private int matches;
+  private List<String> strings;
+
+  public UsagesPartialResult() {}
+
+  public UsagesPartialResult(
+      String token,
+      String searchedElement,
+      SymbolKind elementKind,
+      List<SearchResult> searchResults) {
+    this.token = token;
+    this.searchedElement = searchedElement;
+    this.elementKind = elementKind;
+    this.searchResults = searchResults;
+  }
+
+  /** Returns the token the client has passed to identify the search. */
+  public String getToken() {
+    return token;
+  }
+
+  public void setToken(String token) {
+    this.token = token;
+  }
+
+  public String getSearchedElement() {
+    return searchedElement;
+  }
+
+  public void setSearchedElement(String searchedElement) {
+    this.searchedElement = searchedElement;
+  }
+
+  public SymbolKind getElementKind() {
+    return elementKind;
+  }
+
+  public void setElementKind(SymbolKind elementKind) {
+    this.elementKind = elementKind;
+  }
+
+  /** Returns the matches found since the previous batch. */
+  public List<SearchResult> getSearchResults() {
+    return searchResults;
+  }
+
+  public void setSearchResults(List<SearchResult> searchResults) {
+    this.searchResults = searchResults;
+  }
+
+  /** Returns true if this is the last batch of the search. */
+  public boolean isDone() {
+    return done;
+  }
+
+  public void setDone(boolean done) {
+    this.done = done;
+  }
+
+  /** Returns true if the search has been cancelled before it finished. */
+  public boolean isCanceled() {
+    return canceled;
+  }
+
+  public void setCanceled(boolean canceled) {
+    this.canceled = canceled;
+  }
+
+  /** Returns the number of matches found so far. */
+  public int getMatches() {
+    return matches;
+  }
+
+  public void setMatches(int matches) {
+    this.matches = matches;
+  }
+
+  /**
+   * Returns the string table the uris and names of the search results refer to, or {@code null} if
+   * the client didn't request the compact encoding.
+   */
+  public List<String> getStrings() {
+    return strings;
+  }
+
+  public void setStrings(List<String> strings) {
+    this.strings = strings;
+  }
+}
@@ -17,6 +17,9 @@ public class UsagesResponse {
   private String searchedElement;
   private SymbolKind elementKind;
   private List<SearchResult> searchResults;
+  private String cursor;
+  private int totalMatches;
+  private List<String> strings;
 
   public UsagesResponse() {}
 
@@ -50,4 +53,37 @@ public class UsagesResponse {
   public void setSearchResults(List<SearchResult> searchResults) {
     this.searchResults = searchResults;
   }
+
+  /**
+   * Returns the cursor of the next page of a paginated search, or {@code null} if this is the last
+   * page.
+   */
+  public String getCursor() {
+    return cursor;
+  }
+
+  public void setCursor(String cursor) {
+    this.cursor = cursor;
+  }
+
+  /** Returns the number of matches of all the pages of a paginated search. */
+  public int getTotalMatches() {
+    return totalMatches;
+  }
+
+  public void setTotalMatches(int totalMatches) {
+    this.totalMatches = totalMatches;
+  }
+
+  /**
+   * Returns the string table the uris and names of the search results refer to, or {@code null} if
+   * the client didn't request the compact encoding.
+   */
+  public List<String> getStrings() {
+    return strings;
+  }
+
+  public void setStrings(List<String> strings) {
+    this.strings = strings;
+  }
 }
@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.jdt.ls.extension.core.internal;
+
+import static java.util.Collections.emptyList;
+import static org.eclipse.che.jdt.ls.extension.core.internal.Utils.ensureNotCancelled;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.eclipse.che.jdt.ls.extension.api.dto.CommandRequest;
+import org.eclipse.che.jdt.ls.extension.api.dto.CommandResponse;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.ls.core.internal.JavaLanguageServerPlugin;
+
+/**
+ * A command which executes several read-only extension commands in one request. The commands are
+ * executed one after another in a single Java model operation. No scheduling rule is held,
+ * read-only commands don't need one and a workspace-wide search must not block builds and saves.
+ */
+public class BatchCommand {
+
+  /**
+   * Executes the given commands.
+   *
+   * @param parameters every parameter must be of type {@link CommandRequest}
+   * @param pm a progress monitor
+   * @return responses in the order of the requests, a failure of a command is reported in its
+   *     response and doesn't affect other commands
+   */
+  public static List<CommandResponse> execute(List<Object> parameters, IProgressMonitor pm) {
+    List<CommandRequest> requests = new ArrayList<>(parameters.size());
+    for (Object parameter : parameters) {
+      requests.add(JavaModelUtil.convertCommandParameter(parameter, CommandRequest.class));
+    }
+
+    List<CommandResponse> responses = new ArrayList<>(requests.size());
+    try {
+      JavaCore.run(
+          monitor -> {
+            for (CommandRequest request : requests) {
+              ensureNotCancelled(pm);
+              responses.add(execute(request, pm));
+            }
+          },
+          null,
+          pm);
+    } catch (CoreException e) {
+      throw new RuntimeException(e);
+    }
+    return responses;
+  }
+
+  private static CommandResponse execute(CommandRequest request, IProgressMonitor pm) {
+    CommandResponse response = new CommandResponse(request.getCommandId());
+    List<Object> arguments = request.getArguments() == null ? emptyList() : request.getArguments();
+    try {
+      response.setResult(
+          CheDelegateCommandHandler.executeBatched(request.getCommandId(), arguments, pm));
+    } catch (OperationCanceledException e) {
+      throw e;
+    } catch (RuntimeException e) {
+      JavaLanguageServerPlugin.logException(
+          "Batched command " + request.getCommandId() + " failed", e);
+      response.setError(e.getMessage() != null ? e.getMessage() : e.getClass().getName());
+    }
+    return response;
+  }
+}
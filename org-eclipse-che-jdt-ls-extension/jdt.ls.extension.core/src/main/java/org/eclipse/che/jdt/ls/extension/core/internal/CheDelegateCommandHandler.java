@@ -10,23 +10,41 @@
  */
 package org.eclipse.che.jdt.ls.extension.core.internal;
 
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.function.BiFunction;
+import java.util.function.Function;
 import org.eclipse.che.jdt.ls.extension.api.Commands;
+import org.eclipse.che.jdt.ls.extension.api.dto.CommandRequest;
+import org.eclipse.che.jdt.ls.extension.api.dto.FileStructureCommandParameters;
+import org.eclipse.che.jdt.ls.extension.api.dto.MetricsReport;
+import org.eclipse.che.jdt.ls.extension.api.dto.TestPositionParameters;
 import org.eclipse.che.jdt.ls.extension.core.internal.classpath.ResolveClassPathsHandler;
 import org.eclipse.che.jdt.ls.extension.core.internal.configuration.GetJavaCoreOptionsCommand;
 import org.eclipse.che.jdt.ls.extension.core.internal.configuration.GetPreferencesCommand;
 import org.eclipse.che.jdt.ls.extension.core.internal.configuration.UpdateJavaCoreOptionsCommand;
 import org.eclipse.che.jdt.ls.extension.core.internal.configuration.UpdatePreferencesCommand;
 import org.eclipse.che.jdt.ls.extension.core.internal.debug.FqnDiscover;
+import org.eclipse.che.jdt.ls.extension.core.internal.dispatch.CacheScope;
+import org.eclipse.che.jdt.ls.extension.core.internal.dispatch.CommandCoalescer;
+import org.eclipse.che.jdt.ls.extension.core.internal.dispatch.CommandKey;
+import org.eclipse.che.jdt.ls.extension.core.internal.dispatch.CommandMetricsCollector;
+import org.eclipse.che.jdt.ls.extension.core.internal.dispatch.CommandMetricsCollector.Outcome;
+import org.eclipse.che.jdt.ls.extension.core.internal.dispatch.CommandResultCache;
+import org.eclipse.che.jdt.ls.extension.core.internal.dispatch.CommandScheduler;
+import org.eclipse.che.jdt.ls.extension.core.internal.dispatch.CommandScheduler.Lane;
+import org.eclipse.che.jdt.ls.extension.core.internal.dispatch.RequestSupersession;
 import org.eclipse.che.jdt.ls.extension.core.internal.externallibrary.ExternalLibrariesChildrenCommand;
 import org.eclipse.che.jdt.ls.extension.core.internal.externallibrary.LibraryChildrenCommand;
 import org.eclipse.che.jdt.ls.extension.core.internal.externallibrary.LibraryEntryCommand;
 import org.eclipse.che.jdt.ls.extension.core.internal.externallibrary.ProjectExternalLibraryCommand;
 import org.eclipse.che.jdt.ls.extension.core.internal.imports.OrganizeImportsCommand;
 import org.eclipse.che.jdt.ls.extension.core.internal.navigation.FindImplementersHandler;
+import org.eclipse.che.jdt.ls.extension.core.internal.navigation.ResolveLabelsHandler;
 import org.eclipse.che.jdt.ls.extension.core.internal.plain.CreateSimpleProjectCommand;
 import org.eclipse.che.jdt.ls.extension.core.internal.plain.GetSourceFoldersCommand;
 import org.eclipse.che.jdt.ls.extension.core.internal.plain.UpdateProjectClasspathCommand;
@@ -37,6 +55,10 @@ import org.eclipse.che.jdt.ls.extension.core.internal.pom.RecomputePomDiagnostic
 import org.eclipse.che.jdt.ls.extension.core.internal.testdetection.TestDetectionHandler;
 import org.eclipse.che.jdt.ls.extension.core.internal.testdetection.TestFinderHandler;
 import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.ITypeRoot;
+import org.eclipse.jdt.core.JavaCore;
 import org.eclipse.jdt.ls.core.internal.IDelegateCommandHandler;
 
 /**
@@ -46,10 +68,127 @@ import org.eclipse.jdt.ls.core.internal.IDelegateCommandHandler;
 public class CheDelegateCommandHandler implements IDelegateCommandHandler {
   private static final Map<String, BiFunction<List<Object>, IProgressMonitor, ? extends Object>>
       commands;
+  private static final CommandMetricsCollector metrics = new CommandMetricsCollector();
+  private static final CommandScheduler scheduler =
+      new CommandScheduler(
+          Math.max(2, Runtime.getRuntime().availableProcessors()),
+          256,
+          Math.max(1, Runtime.getRuntime().availableProcessors() / 4),
+          32);
+  private static final CommandCoalescer coalescer = new CommandCoalescer(scheduler);
+  static final CommandResultCache resultCache = new CommandResultCache(512);
+  private static final RequestSupersession supersession = new RequestSupersession();
+
+  /**
+   * Commands which scan a whole project or workspace. They are executed in the bulk lane, so they
+   * never delay interactive commands.
+   */
+  private static final Set<String> BULK_COMMANDS =
+      new HashSet<>(
+          Arrays.asList(
+              Commands.REIMPORT_MAVEN_PROJECTS_COMMAND,
+              Commands.FIND_TESTS_FROM_PROJECT_COMMAND,
+              Commands.FIND_TESTS_FROM_FOLDER_COMMAND,
+              Commands.USAGES_COMMAND,
+              Commands.USAGES_STREAM_COMMAND,
+              Commands.USAGES_COUNT_COMMAND,
+              Commands.UPDATE_WORKSPACE,
+              Commands.GET_EFFECTIVE_POM_COMMAND,
+              Commands.CREATE_SIMPLE_PROJECT,
+              Commands.UPDATE_PROJECT_CLASSPATH));
+
+  /**
+   * Commands which don't modify the workspace and may be executed in a batch. Identical read-only
+   * commands executed at the same time share one computation.
+   */
+  private static final Set<String> READ_ONLY_COMMANDS =
+      new HashSet<>(
+          Arrays.asList(
+              Commands.FILE_STRUCTURE_COMMAND,
+              Commands.FILE_STRUCTURE_DELTA_COMMAND,
+              Commands.FILE_STRUCTURE_EXPAND_COMMAND,
+              Commands.FILE_STRUCTURES_COMMAND,
+              Commands.TEST_DETECT_COMMAND,
+              Commands.FIND_TEST_BY_CURSOR_COMMAND,
+              Commands.FIND_TESTS_FROM_PROJECT_COMMAND,
+              Commands.FIND_TESTS_FROM_FOLDER_COMMAND,
+              Commands.FIND_TESTS_FROM_ENTRY_COMMAND,
+              Commands.FIND_TESTS_IN_FILE_COMMAND,
+              Commands.RESOLVE_CLASSPATH_COMMAND,
+              Commands.GET_OUTPUT_DIR_COMMAND,
+              Commands.GET_EFFECTIVE_POM_COMMAND,
+              Commands.GET_MAVEN_PROJECTS_COMMAND,
+              Commands.GET_CLASS_PATH_TREE_COMMAND,
+              Commands.GET_EXTERNAL_LIBRARIES_COMMAND,
+              Commands.GET_EXTERNAL_LIBRARIES_CHILDREN_COMMAND,
+              Commands.GET_LIBRARY_CHILDREN_COMMAND,
+              Commands.GET_LIBRARY_ENTRY_COMMAND,
+              Commands.IDENTIFY_FQN_IN_RESOURCE,
+              Commands.FIND_RESOURCES_BY_FQN,
+              Commands.GET_SOURCE_FOLDERS,
+              Commands.FIND_IMPLEMENTERS_COMMAND,
+              Commands.RESOLVE_LABELS_COMMAND,
+              Commands.USAGES_COMMAND,
+              Commands.USAGES_COUNT_COMMAND,
+              Commands.USAGES_NEXT_PAGE_COMMAND,
+              Commands.GET_JAVA_CORE_OPTIONS_СOMMAND,
+              Commands.GET_PREFERENCES_СOMMAND,
+              Commands.GET_METRICS_COMMAND));
+
+  /**
+   * Read-only commands whose results are cached. Every command provides the scope of changes which
+   * invalidate its result, a {@code null} scope means the result mustn't be cached.
+   */
+  private static final Map<String, Function<List<Object>, CacheScope>> CACHEABLE_COMMANDS;
+
+  static {
+    CACHEABLE_COMMANDS = new HashMap<>();
+    CACHEABLE_COMMANDS.put(
+        Commands.GET_CLASS_PATH_TREE_COMMAND, arguments -> CacheScope.classpath());
+    CACHEABLE_COMMANDS.put(Commands.RESOLVE_CLASSPATH_COMMAND, arguments -> CacheScope.classpath());
+    CACHEABLE_COMMANDS.put(Commands.GET_OUTPUT_DIR_COMMAND, arguments -> CacheScope.classpath());
+    CACHEABLE_COMMANDS.put(Commands.GET_SOURCE_FOLDERS, arguments -> CacheScope.classpath());
+    CACHEABLE_COMMANDS.put(
+        Commands.GET_EXTERNAL_LIBRARIES_COMMAND, arguments -> CacheScope.classpath());
+    CACHEABLE_COMMANDS.put(
+        Commands.GET_LIBRARY_CHILDREN_COMMAND, arguments -> CacheScope.classpath());
+    CACHEABLE_COMMANDS.put(
+        Commands.FILE_STRUCTURE_EXPAND_COMMAND, CheDelegateCommandHandler::getExpandScope);
+    CACHEABLE_COMMANDS.put(Commands.FIND_IMPLEMENTERS_COMMAND, arguments -> CacheScope.workspace());
+    CACHEABLE_COMMANDS.put(Commands.USAGES_COUNT_COMMAND, arguments -> CacheScope.workspace());
+  }
+
+  /**
+   * Per-document commands for which only the newest request matters. A newer request for the same
+   * document cancels the older one. Every command provides the uri of its document, followed by the
+   * options which make requests for the same document return different results.
+   */
+  private static final Map<String, Function<List<Object>, String>> SUPERSEDED_COMMANDS;
+
+  static {
+    SUPERSEDED_COMMANDS = new HashMap<>();
+    SUPERSEDED_COMMANDS.put(
+        Commands.FILE_STRUCTURE_COMMAND,
+        arguments -> {
+          FileStructureCommandParameters params =
+              JavaModelUtil.convertCommandParameter(
+                  arguments.get(0), FileStructureCommandParameters.class);
+          // outlines with and without inherited members are both needed by the client
+          return params.getUri() + '#' + params.getShowInherited();
+        });
+    SUPERSEDED_COMMANDS.put(
+        Commands.TEST_DETECT_COMMAND,
+        arguments ->
+            JavaModelUtil.convertCommandParameter(arguments.get(0), TestPositionParameters.class)
+                .getFileUri());
+  }
 
   static {
     commands = new HashMap<String, BiFunction<List<Object>, IProgressMonitor, ? extends Object>>();
     commands.put(Commands.FILE_STRUCTURE_COMMAND, FileStructureCommand::execute);
+    commands.put(Commands.FILE_STRUCTURE_DELTA_COMMAND, FileStructureCommand::executeDelta);
+    commands.put(Commands.FILE_STRUCTURE_EXPAND_COMMAND, FileStructureCommand::expand);
+    commands.put(Commands.FILE_STRUCTURES_COMMAND, FileStructureCommand::executeAll);
     commands.put(Commands.TEST_DETECT_COMMAND, TestDetectionHandler::detect);
     commands.put(Commands.FIND_TEST_BY_CURSOR_COMMAND, TestFinderHandler::getTestByCursorPosition);
     commands.put(
@@ -80,21 +219,217 @@ public class CheDelegateCommandHandler implements IDelegateCommandHandler {
     commands.put(Commands.UPDATE_PROJECT_CLASSPATH, UpdateProjectClasspathCommand::execute);
     commands.put(Commands.GET_SOURCE_FOLDERS, GetSourceFoldersCommand::execute);
     commands.put(Commands.FIND_IMPLEMENTERS_COMMAND, FindImplementersHandler::getImplementers);
+    commands.put(Commands.RESOLVE_LABELS_COMMAND, ResolveLabelsHandler::resolveLabels);
     commands.put(Commands.USAGES_COMMAND, UsagesCommand::execute);
+    commands.put(Commands.USAGES_STREAM_COMMAND, UsagesCommand::executeStreaming);
+    commands.put(Commands.USAGES_COUNT_COMMAND, UsagesCommand::count);
+    commands.put(Commands.USAGES_NEXT_PAGE_COMMAND, UsagesCommand::nextPage);
     commands.put(Commands.GET_JAVA_CORE_OPTIONS_СOMMAND, GetJavaCoreOptionsCommand::execute);
     commands.put(Commands.UPDATE_JAVA_CORE_OPTIONS_СOMMAND, UpdateJavaCoreOptionsCommand::execute);
     commands.put(Commands.GET_PREFERENCES_СOMMAND, GetPreferencesCommand::execute);
     commands.put(Commands.UPDATE_PREFERENCES_СOMMAND, UpdatePreferencesCommand::execute);
     commands.put(Commands.ORGANIZE_IMPORTS, OrganizeImportsCommand::execute);
+    commands.put(Commands.GET_METRICS_COMMAND, (arguments, pm) -> getMetricsReport());
+    commands.put(Commands.BATCH_COMMAND, BatchCommand::execute);
+  }
+
+  /** Stops the worker threads executing the commands, called when the bundle is stopped. */
+  static void shutdown() {
+    scheduler.shutdown();
   }
 
   @Override
   public Object executeCommand(String commandId, List<Object> arguments, IProgressMonitor progress)
       throws Exception {
     BiFunction<List<Object>, IProgressMonitor, ? extends Object> command = commands.get(commandId);
-    if (command != null) {
-      return command.apply(arguments, progress);
+    if (command == null) {
+      throw new UnsupportedOperationException(
+          String.format("Unsupported command '%s'!", commandId));
+    }
+    if (Commands.GET_METRICS_COMMAND.equals(commandId)) {
+      // statistics must be available even if all the workers are busy
+      return executeInstrumented(commandId, command, arguments, progress);
+    }
+    Lane lane = getLane(commandId, arguments);
+    if (READ_ONLY_COMMANDS.contains(commandId)) {
+      return executeInstrumented(
+          commandId,
+          (args, pm) -> executeReadOnly(lane, commandId, command, args, pm),
+          arguments,
+          progress);
+    }
+    return executeInstrumented(
+        commandId,
+        (args, pm) -> scheduler.execute(lane, monitor -> command.apply(args, monitor), pm),
+        arguments,
+        progress);
+  }
+
+  /**
+   * Executes a read-only command. A cached result is returned without scheduling, otherwise the
+   * command joins an identical command in progress or starts a new computation. A request of a
+   * per-document command supersedes the previous request for the same document.
+   */
+  private static Object executeReadOnly(
+      Lane lane,
+      String commandId,
+      BiFunction<List<Object>, IProgressMonitor, ? extends Object> command,
+      List<Object> arguments,
+      IProgressMonitor progress) {
+    String document = getSupersededDocument(commandId, arguments);
+    if (document == null) {
+      return executeShared(lane, commandId, command, arguments, progress);
+    }
+    IProgressMonitor monitor = supersession.begin(commandId, document, progress);
+    try {
+      return executeShared(lane, commandId, command, arguments, monitor);
+    } finally {
+      supersession.end(commandId, document, monitor);
+    }
+  }
+
+  /**
+   * Returns the document a request supersedes older requests of the same command for.
+   *
+   * @param commandId id of the command
+   * @param arguments arguments of the request
+   * @return the uri of the document followed by the options of the request, or {@code null} if the
+   *     requests of the command aren't superseded
+   */
+  public static String getSupersededDocument(String commandId, List<Object> arguments) {
+    Function<List<Object>, String> document = SUPERSEDED_COMMANDS.get(commandId);
+    return document != null ? document.apply(arguments) : null;
+  }
+
+  private static Object executeShared(
+      Lane lane,
+      String commandId,
+      BiFunction<List<Object>, IProgressMonitor, ? extends Object> command,
+      List<Object> arguments,
+      IProgressMonitor progress) {
+    CommandKey key = new CommandKey(commandId, arguments);
+    CacheScope scope = getCacheScope(commandId, arguments);
+    if (scope != null) {
+      Object cached = resultCache.get(key);
+      if (cached != null) {
+        return cached;
+      }
+    }
+    return coalescer.execute(
+        lane,
+        key,
+        monitor ->
+            scope != null
+                ? resultCache.compute(key, scope, () -> command.apply(arguments, monitor))
+                : command.apply(arguments, monitor),
+        progress);
+  }
+
+  private static CacheScope getCacheScope(String commandId, List<Object> arguments) {
+    Function<List<Object>, CacheScope> scope = CACHEABLE_COMMANDS.get(commandId);
+    return scope != null ? scope.apply(arguments) : null;
+  }
+
+  /**
+   * Children of an expanded symbol depend on the document declaring the symbol, which is derived
+   * from the symbol id, unless inherited members are shown.
+   */
+  private static CacheScope getExpandScope(List<Object> arguments) {
+    FileStructureCommandParameters params =
+        JavaModelUtil.convertCommandParameter(
+            arguments.get(0), FileStructureCommandParameters.class);
+    if (params.getShowInherited()) {
+      return CacheScope.workspace();
+    }
+    IJavaElement element = JavaCore.create(params.getId());
+    if (element == null || !(element.getOpenable() instanceof ITypeRoot)) {
+      return null;
+    }
+    return CacheScope.document(((ITypeRoot) element.getOpenable()).getPath());
+  }
+
+  /**
+   * Returns the lane the command is executed in. A batch is executed in the bulk lane if any of its
+   * items is a bulk command.
+   */
+  private static Lane getLane(String commandId, List<Object> arguments) {
+    if (BULK_COMMANDS.contains(commandId)) {
+      return Lane.BULK;
+    }
+    if (Commands.BATCH_COMMAND.equals(commandId) && arguments != null) {
+      for (Object argument : arguments) {
+        CommandRequest request =
+            JavaModelUtil.convertCommandParameter(argument, CommandRequest.class);
+        if (request != null && BULK_COMMANDS.contains(request.getCommandId())) {
+          return Lane.BULK;
+        }
+      }
+    }
+    return Lane.INTERACTIVE;
+  }
+
+  private static MetricsReport getMetricsReport() {
+    MetricsReport report = metrics.getReport();
+    report.setLanes(scheduler.getStatistics());
+    report.setCoalesced(coalescer.getCoalesced());
+    report.setCache(resultCache.getStatistics());
+    report.setLabels(LabelCache.getInstance().getStatistics());
+    report.setSuperseded(supersession.getSuperseded());
+    return report;
+  }
+
+  /**
+   * Executes a command which is a part of a batch, see {@link BatchCommand}.
+   *
+   * @param commandId id of a read-only command
+   * @param arguments arguments of the command
+   * @param progress a progress monitor
+   * @return result of the command
+   */
+  static Object executeBatched(
+      String commandId, List<Object> arguments, IProgressMonitor progress) {
+    if (!commands.containsKey(commandId)) {
+      throw new UnsupportedOperationException(
+          String.format("Unsupported command '%s'!", commandId));
+    }
+    if (!READ_ONLY_COMMANDS.contains(commandId)) {
+      throw new UnsupportedOperationException(
+          String.format("Command '%s' can't be executed in a batch!", commandId));
+    }
+    BiFunction<List<Object>, IProgressMonitor, ? extends Object> command = commands.get(commandId);
+    CacheScope scope = getCacheScope(commandId, arguments);
+    if (scope == null) {
+      return executeInstrumented(commandId, command, arguments, progress);
+    }
+    CommandKey key = new CommandKey(commandId, arguments);
+    return executeInstrumented(
+        commandId,
+        (args, pm) -> resultCache.compute(key, scope, () -> command.apply(args, pm)),
+        arguments,
+        progress);
+  }
+
+  private static Object executeInstrumented(
+      String commandId,
+      BiFunction<List<Object>, IProgressMonitor, ? extends Object> command,
+      List<Object> arguments,
+      IProgressMonitor progress) {
+    Outcome outcome = Outcome.ERROR;
+    long start = System.nanoTime();
+    try {
+      Object result = command.apply(arguments, progress);
+      outcome = Outcome.SUCCESS;
+      return result;
+    } catch (OperationCanceledException e) {
+      outcome = Outcome.CANCEL;
+      throw e;
+    } catch (RuntimeException e) {
+      if (progress != null && progress.isCanceled()) {
+        outcome = Outcome.CANCEL;
+      }
+      throw e;
+    } finally {
+      metrics.record(commandId, outcome, System.nanoTime() - start);
     }
-    throw new UnsupportedOperationException(String.format("Unsupported command '%s'!", commandId));
   }
 }
@@ -10,6 +10,8 @@
  */
 package org.eclipse.che.jdt.ls.extension.core.internal;
 
+import org.eclipse.che.jdt.ls.extension.core.internal.testdetection.TestIndex;
+import org.eclipse.core.runtime.Platform;
 import org.osgi.framework.BundleActivator;
 import org.osgi.framework.BundleContext;
 
@@ -19,14 +21,38 @@ public class ExtensionActivator implements BundleActivator {
   // The plug-in ID
   public static final String PLUGIN_ID = "jdt.ls.extension.core";
 
+  // File of the reference index, in the state location of the plug-in
+  private static final String REFERENCE_INDEX_FILE = "references.index";
+
   // The shared instance
   private static ExtensionActivator plugin;
 
   public void start(BundleContext context) throws Exception {
     plugin = this;
+    CheDelegateCommandHandler.resultCache.install();
+    UsagesCommand.dependencyGraph.install();
+    FileStructureCommand.cache.install();
+    FileStructureCommand.deltas.install();
+    FileStructureCommand.hierarchies.install();
+    LabelCache.getInstance().install();
+    TestIndex.getInstance().install();
+    UsagesCommand.referenceIndex.install(
+        Platform.getStateLocation(context.getBundle())
+            .append(REFERENCE_INDEX_FILE)
+            .toFile()
+            .toPath());
   }
 
   public void stop(BundleContext context) throws Exception {
+    CheDelegateCommandHandler.resultCache.uninstall();
+    UsagesCommand.dependencyGraph.uninstall();
+    FileStructureCommand.cache.uninstall();
+    FileStructureCommand.deltas.uninstall();
+    FileStructureCommand.hierarchies.uninstall();
+    LabelCache.getInstance().uninstall();
+    TestIndex.getInstance().uninstall();
+    UsagesCommand.referenceIndex.uninstall();
+    CheDelegateCommandHandler.shutdown();
     plugin = null;
   }
 
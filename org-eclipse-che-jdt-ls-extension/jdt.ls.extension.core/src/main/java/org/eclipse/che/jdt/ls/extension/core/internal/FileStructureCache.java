@@ -0,0 +1,254 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.jdt.ls.extension.core.internal;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import org.eclipse.che.jdt.ls.extension.api.dto.ExtendedSymbolInformation;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.jdt.core.ElementChangedEvent;
+import org.eclipse.jdt.core.IElementChangedListener;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IJavaElementDelta;
+import org.eclipse.jdt.core.ITypeRoot;
+import org.eclipse.jdt.core.JavaCore;
+
+/**
+ * LRU cache of rendered file structures, keyed by the handle of the type root and the flag to show
+ * inherited members. A file structure is stored with the modification stamp of its file and is
+ * dropped when the type root is reconciled, changed, closed or removed. A file structure with
+ * inherited members is also dropped when one of the supertypes it shows members of changes. The
+ * memory is bounded by the total number of cached symbols.
+ */
+final class FileStructureCache implements IElementChangedListener {
+  private static final int CLASSPATH_FLAGS =
+      IJavaElementDelta.F_CLASSPATH_CHANGED
+          | IJavaElementDelta.F_RESOLVED_CLASSPATH_CHANGED
+          | IJavaElementDelta.F_ARCHIVE_CONTENT_CHANGED
+          | IJavaElementDelta.F_OPENED
+          | IJavaElementDelta.F_CLOSED;
+
+  private final Map<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+  private final int maxSymbols;
+  private int symbols;
+  private long version;
+
+  /** @param maxSymbols maximum number of symbols of all the cached file structures */
+  FileStructureCache(int maxSymbols) {
+    this.maxSymbols = maxSymbols;
+  }
+
+  /** Starts listening to changes of the Java model. */
+  void install() {
+    JavaCore.addElementChangedListener(
+        this, ElementChangedEvent.POST_CHANGE | ElementChangedEvent.POST_RECONCILE);
+  }
+
+  /** Stops listening to changes and drops all the file structures. */
+  void uninstall() {
+    JavaCore.removeElementChangedListener(this);
+    invalidateAll();
+  }
+
+  /**
+   * Returns the stamp a file structure of the type root is stored with. Unsaved changes of a
+   * working copy don't change the stamp of its file, the file structure is dropped by the reconcile
+   * delta of the working copy instead.
+   */
+  static long getStamp(ITypeRoot typeRoot) {
+    IResource resource = typeRoot.getResource();
+    return resource != null ? resource.getModificationStamp() : IResource.NULL_STAMP;
+  }
+
+  /**
+   * Returns the version of the cache, which changes whenever file structures are invalidated. It is
+   * taken before a file structure is rendered and passed to {@link #put}.
+   */
+  synchronized long getVersion() {
+    return version;
+  }
+
+  /**
+   * Returns a cached file structure.
+   *
+   * @param handle handle identifier of the type root
+   * @param showInherited whether the file structure shows inherited members
+   * @param stamp current stamp of the type root
+   * @return the file structure, or {@code null} if none is cached for the stamp
+   */
+  synchronized List<ExtendedSymbolInformation> get(
+      String handle, boolean showInherited, long stamp) {
+    Key key = new Key(handle, showInherited);
+    Entry entry = entries.get(key);
+    if (entry == null) {
+      return null;
+    }
+    if (entry.stamp != stamp) {
+      remove(key);
+      return null;
+    }
+    return entry.symbols;
+  }
+
+  /**
+   * Stores a file structure, unless a file structure has been invalidated since the rendering
+   * started.
+   *
+   * @param handle handle identifier of the type root
+   * @param showInherited whether the file structure shows inherited members
+   * @param stamp stamp of the type root, taken before the rendering
+   * @param version version of the cache, taken before the rendering
+   * @param symbols the file structure
+   * @param dependencies handle identifiers of the other type roots the file structure shows members
+   *     of
+   */
+  synchronized void put(
+      String handle,
+      boolean showInherited,
+      long stamp,
+      long version,
+      List<ExtendedSymbolInformation> symbols,
+      Set<String> dependencies) {
+    int size = count(symbols);
+    if (version != this.version || size > maxSymbols) {
+      return;
+    }
+    Key key = new Key(handle, showInherited);
+    remove(key);
+    entries.put(key, new Entry(stamp, symbols, size, dependencies));
+    this.symbols += size;
+    Iterator<Entry> eldest = entries.values().iterator();
+    while (this.symbols > maxSymbols) {
+      this.symbols -= eldest.next().size;
+      eldest.remove();
+    }
+  }
+
+  /** Drops the file structures of the type root and the ones showing members of it. */
+  synchronized void invalidate(String handle) {
+    version++;
+    Iterator<Map.Entry<Key, Entry>> iterator = entries.entrySet().iterator();
+    while (iterator.hasNext()) {
+      Map.Entry<Key, Entry> entry = iterator.next();
+      if (entry.getKey().handle.equals(handle) || entry.getValue().dependencies.contains(handle)) {
+        symbols -= entry.getValue().size;
+        iterator.remove();
+      }
+    }
+  }
+
+  /** Drops all the file structures. */
+  synchronized void invalidateAll() {
+    version++;
+    entries.clear();
+    symbols = 0;
+  }
+
+  /** Returns the number of symbols of all the cached file structures. */
+  synchronized int getSymbols() {
+    return symbols;
+  }
+
+  @Override
+  public void elementChanged(ElementChangedEvent event) {
+    visit(event.getDelta());
+  }
+
+  private void visit(IJavaElementDelta delta) {
+    if ((delta.getFlags() & CLASSPATH_FLAGS) != 0) {
+      invalidateAll();
+      return;
+    }
+    IJavaElement element = delta.getElement();
+    switch (element.getElementType()) {
+      case IJavaElement.JAVA_PROJECT:
+      case IJavaElement.PACKAGE_FRAGMENT_ROOT:
+        if (delta.getKind() != IJavaElementDelta.CHANGED) {
+          invalidateAll();
+          return;
+        }
+        break;
+      case IJavaElement.COMPILATION_UNIT:
+      case IJavaElement.CLASS_FILE:
+        // also a working copy being discarded, i.e. a closed document
+        invalidate(element.getHandleIdentifier());
+        return;
+      default:
+        break;
+    }
+    for (IJavaElementDelta child : delta.getAffectedChildren()) {
+      visit(child);
+    }
+  }
+
+  private void remove(Key key) {
+    Entry removed = entries.remove(key);
+    if (removed != null) {
+      symbols -= removed.size;
+    }
+  }
+
+  private static int count(List<ExtendedSymbolInformation> symbols) {
+    int count = symbols.size();
+    for (ExtendedSymbolInformation symbol : symbols) {
+      if (symbol.getChildren() != null) {
+        count += count(symbol.getChildren());
+      }
+    }
+    return count;
+  }
+
+  private static final class Key {
+    private final String handle;
+    private final boolean showInherited;
+
+    private Key(String handle, boolean showInherited) {
+      this.handle = handle;
+      this.showInherited = showInherited;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof Key)) {
+        return false;
+      }
+      Key other = (Key) o;
+      return showInherited == other.showInherited && handle.equals(other.handle);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(handle, showInherited);
+    }
+  }
+
+  private static final class Entry {
+    private final long stamp;
+    private final List<ExtendedSymbolInformation> symbols;
+    private final int size;
+    private final Set<String> dependencies;
+
+    private Entry(
+        long stamp, List<ExtendedSymbolInformation> symbols, int size, Set<String> dependencies) {
+      this.stamp = stamp;
+      this.symbols = symbols;
+      this.size = size;
+      this.dependencies = dependencies;
+    }
+  }
+}
@@ -13,20 +13,36 @@ package org.eclipse.che.jdt.ls.extension.core.internal;
 import static org.eclipse.che.jdt.ls.extension.core.internal.Utils.ensureNotCancelled;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+import org.eclipse.che.jdt.ls.extension.api.Commands;
 import org.eclipse.che.jdt.ls.extension.api.dto.ExtendedSymbolInformation;
 import org.eclipse.che.jdt.ls.extension.api.dto.FileStructureCommandParameters;
+import org.eclipse.che.jdt.ls.extension.api.dto.FileStructureDelta;
+import org.eclipse.che.jdt.ls.extension.api.dto.FileStructureResult;
+import org.eclipse.che.jdt.ls.extension.api.dto.FileStructuresParameters;
+import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
 import org.eclipse.jdt.core.IInitializer;
 import org.eclipse.jdt.core.IJavaElement;
 import org.eclipse.jdt.core.IParent;
 import org.eclipse.jdt.core.IType;
 import org.eclipse.jdt.core.ITypeHierarchy;
 import org.eclipse.jdt.core.ITypeRoot;
+import org.eclipse.jdt.core.JavaCore;
 import org.eclipse.jdt.core.JavaModelException;
 import org.eclipse.jdt.ls.core.internal.JDTUtils;
+import org.eclipse.jdt.ls.core.internal.JavaLanguageServerPlugin;
 import org.eclipse.jdt.ls.core.internal.ResourceUtils;
 import org.eclipse.jdt.ls.core.internal.hover.JavaElementLabels;
 import org.eclipse.lsp4j.Location;
@@ -38,98 +54,401 @@ import org.eclipse.lsp4j.SymbolInformation;
  * @author Thomas Mäder
  */
 public class FileStructureCommand {
+  /** Levels of symbols rendered when no depth is requested. */
+  private static final int ALL_LEVELS = Integer.MAX_VALUE;
+
+  /** Rendered file structures of the recently shown documents. */
+  static final FileStructureCache cache = new FileStructureCache(50_000);
+  /** File structures last sent to the clients of the delta command. */
+  static final FileStructureDeltas deltas = new FileStructureDeltas(16);
+  /** Supertype hierarchies and library members shown as inherited members. */
+  static final SupertypeHierarchyCache hierarchies = new SupertypeHierarchyCache(32, 500);
+  /** Pool the documents of a file structures request are rendered on. */
+  private static final ForkJoinPool RENDER_POOL =
+      new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+
   /**
    * Compute the file structure hierarchy
    *
    * @param parameters First parameter must be of type FileStructureCommandParameters
    * @param pm a progress monitor
-   * @return fully rendered hierarchy of symbols. Parent names are emtpy.
+   * @return hierarchy of symbols, rendered up to the requested depth. Parent names are emtpy. The
+   *     result may be shared with other requests and mustn't be modified.
    */
   public static List<ExtendedSymbolInformation> execute(
       List<Object> parameters, IProgressMonitor pm) {
-    List<ExtendedSymbolInformation> infos = new ArrayList<ExtendedSymbolInformation>();
+    List<ExtendedSymbolInformation> infos;
     FileStructureCommandParameters params =
         JavaModelUtil.convertCommandParameter(
             parameters.get(0), FileStructureCommandParameters.class);
     boolean showInherited = params.getShowInherited();
     ITypeRoot typeRoot = JDTUtils.resolveTypeRoot(params.getUri());
+    if (params.getDepth() > 0) {
+      // renders a bounded number of levels, not worth caching
+      try {
+        return createTypeInfos(
+            typeRoot, showInherited, toLevels(params.getDepth()), new Rendering(false), pm);
+      } catch (JavaModelException e) {
+        throw new RuntimeException(e);
+      }
+    }
+    String handle = typeRoot.getHandleIdentifier();
+    long stamp = FileStructureCache.getStamp(typeRoot);
+    List<ExtendedSymbolInformation> cached = cache.get(handle, showInherited, stamp);
+    if (cached != null) {
+      return cached;
+    }
+    long version = cache.getVersion();
+    Rendering rendering = new Rendering(false);
     try {
-      for (IJavaElement element : typeRoot.getChildren()) {
-        if (element instanceof IType) {
-          infos.add(
-              createSymbolInfo(
-                  element,
-                  null,
-                  JavaElementLabels.getElementLabel(element, JavaElementLabels.ALL_DEFAULT),
-                  showInherited,
-                  pm));
-        }
+      infos = createTypeInfos(typeRoot, showInherited, ALL_LEVELS, rendering, pm);
+    } catch (JavaModelException e) {
+      throw new RuntimeException(e);
+    }
+
+    rendering.dependencies.remove(handle);
+    cache.put(handle, showInherited, stamp, version, infos, rendering.dependencies);
+    return infos;
+  }
+
+  /**
+   * Compute the file structures of several documents in parallel, e.g. of the editors reopened with
+   * a workspace. A document which can't be rendered doesn't fail the other ones.
+   *
+   * @param parameters First parameter must be of type FileStructuresParameters
+   * @param pm a progress monitor
+   * @return the file structures by the uris of the documents, in the order of the uris. The file
+   *     structure of a document which isn't a Java file or can't be rendered is {@code null}. If
+   *     the request has a token, the file structures are sent as {@link
+   *     Commands#FILE_STRUCTURE_RESULT_NOTIFICATION} as soon as they are rendered, and the result
+   *     is empty.
+   */
+  public static Map<String, List<ExtendedSymbolInformation>> executeAll(
+      List<Object> parameters, IProgressMonitor pm) {
+    return executeAll(
+        parameters,
+        RENDER_POOL,
+        result ->
+            JavaLanguageServerPlugin.getInstance()
+                .getClientConnection()
+                .sendNotification(Commands.FILE_STRUCTURE_RESULT_NOTIFICATION, result),
+        pm);
+  }
+
+  static Map<String, List<ExtendedSymbolInformation>> executeAll(
+      List<Object> parameters,
+      ForkJoinPool pool,
+      Consumer<FileStructureResult> client,
+      IProgressMonitor pm) {
+    FileStructuresParameters params =
+        JavaModelUtil.convertCommandParameter(parameters.get(0), FileStructuresParameters.class);
+    IProgressMonitor monitor = Utils.shareCancellation(pm);
+    List<Callable<List<ExtendedSymbolInformation>>> tasks =
+        new ArrayList<>(params.getUris().size());
+    for (String uri : params.getUris()) {
+      tasks.add(
+          () -> {
+            List<ExtendedSymbolInformation> symbols =
+                render(uri, params.getShowInherited(), monitor);
+            if (params.getToken() != null) {
+              client.accept(new FileStructureResult(params.getToken(), uri, symbols));
+            }
+            return symbols;
+          });
+    }
+    List<List<ExtendedSymbolInformation>> results;
+    try {
+      results = Utils.invokeAll(pool, tasks);
+    } catch (CoreException e) {
+      throw new RuntimeException(e);
+    }
+
+    Map<String, List<ExtendedSymbolInformation>> structures = new LinkedHashMap<>();
+    if (params.getToken() == null) {
+      for (int i = 0; i < results.size(); i++) {
+        structures.put(params.getUris().get(i), results.get(i));
       }
+    }
+    return structures;
+  }
+
+  private static List<ExtendedSymbolInformation> render(
+      String uri, boolean showInherited, IProgressMonitor pm) {
+    if (JDTUtils.resolveTypeRoot(uri) == null) {
+      return null;
+    }
+    try {
+      return execute(
+          Collections.singletonList(new FileStructureCommandParameters(uri, showInherited)), pm);
+    } catch (OperationCanceledException e) {
+      throw e;
+    } catch (RuntimeException e) {
+      JavaLanguageServerPlugin.logException("Can't compute file structure of " + uri, e);
+      return null;
+    }
+  }
+
+  /**
+   * Compute the changes of the file structure since the version the client has. File structures
+   * showing inherited members are always sent complete.
+   *
+   * @param parameters First parameter must be of type FileStructureCommandParameters
+   * @param pm a progress monitor
+   * @return the changes, or the complete file structure if they can't be computed
+   */
+  public static FileStructureDelta executeDelta(List<Object> parameters, IProgressMonitor pm) {
+    FileStructureCommandParameters params =
+        JavaModelUtil.convertCommandParameter(
+            parameters.get(0), FileStructureCommandParameters.class);
+    ITypeRoot typeRoot = JDTUtils.resolveTypeRoot(params.getUri());
+    if (params.getShowInherited()) {
+      params.setDepth(0);
+      FileStructureDelta delta = new FileStructureDelta();
+      delta.setSymbols(execute(Collections.singletonList(params), pm));
+      return delta;
+    }
+    try {
+      return deltas.compute(typeRoot, params.getVersion(), pm);
     } catch (JavaModelException e) {
       throw new RuntimeException(e);
     }
+  }
 
+  /**
+   * Compute the children of a symbol which hasn't been expanded by a depth limited file structure.
+   *
+   * @param parameters First parameter must be of type FileStructureCommandParameters with the id of
+   *     the symbol
+   * @param pm a progress monitor
+   * @return the children of the symbol, rendered up to the requested depth. Empty if the symbol
+   *     doesn't exist anymore.
+   */
+  public static List<ExtendedSymbolInformation> expand(
+      List<Object> parameters, IProgressMonitor pm) {
+    FileStructureCommandParameters params =
+        JavaModelUtil.convertCommandParameter(
+            parameters.get(0), FileStructureCommandParameters.class);
+    IJavaElement element = JavaCore.create(params.getId());
+    if (element == null || !element.exists()) {
+      return new ArrayList<>();
+    }
+    // inherited members are shown for top level types only
+    IJavaElement parent = element.getParent() instanceof ITypeRoot ? null : element.getParent();
+    try {
+      return createChildren(
+          element,
+          parent,
+          params.getShowInherited(),
+          toLevels(params.getDepth()),
+          new Rendering(false),
+          pm);
+    } catch (JavaModelException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  /** Renders the file structure of the type root without inherited members, with symbol ids. */
+  static List<ExtendedSymbolInformation> render(ITypeRoot typeRoot, IProgressMonitor pm)
+      throws JavaModelException {
+    return createTypeInfos(typeRoot, false, ALL_LEVELS, new Rendering(true), pm);
+  }
+
+  /** Renders the symbol of a declared element and its descendants, with symbol ids. */
+  static ExtendedSymbolInformation render(IJavaElement element, IProgressMonitor pm)
+      throws JavaModelException {
+    return createSymbolInfo(
+        element,
+        null,
+        LabelCache.getElementLabel(element, JavaElementLabels.ALL_DEFAULT),
+        false,
+        ALL_LEVELS,
+        new Rendering(true),
+        pm);
+  }
+
+  /** Returns the levels of descendants to render below the symbols of the given depth. */
+  private static int toLevels(int depth) {
+    return depth > 0 ? depth - 1 : ALL_LEVELS;
+  }
+
+  private static List<ExtendedSymbolInformation> createTypeInfos(
+      ITypeRoot typeRoot,
+      boolean showInherited,
+      int levels,
+      Rendering rendering,
+      IProgressMonitor pm)
+      throws JavaModelException {
+    List<ExtendedSymbolInformation> infos = new ArrayList<>();
+    for (IJavaElement element : typeRoot.getChildren()) {
+      if (element instanceof IType) {
+        infos.add(
+            createSymbolInfo(
+                element,
+                null,
+                LabelCache.getElementLabel(element, JavaElementLabels.ALL_DEFAULT),
+                showInherited,
+                levels,
+                rendering,
+                pm));
+      }
+    }
     return infos;
   }
 
+  /**
+   * Returns the symbol of a declared element, or {@code null} if the element has no location.
+   *
+   * @param uris client uris by the uris of the files, shared by the symbols of a file
+   */
+  static SymbolInformation createSymbol(IJavaElement element, Map<String, String> uris)
+      throws JavaModelException {
+    return createSymbol(
+        element, LabelCache.getElementLabel(element, JavaElementLabels.ALL_DEFAULT), uris);
+  }
+
+  private static SymbolInformation createSymbol(
+      IJavaElement element, String label, Map<String, String> uris) throws JavaModelException {
+    Location location = JDTUtils.toLocation(element);
+    if (location == null) {
+      return null;
+    }
+    SymbolInformation si = new SymbolInformation();
+    si.setName(label);
+    si.setKind(JavaModelUtil.mapKind(element));
+    // all symbols of a file share the uri
+    location.setUri(uris.computeIfAbsent(location.getUri(), ResourceUtils::toClientUri));
+    si.setLocation(location);
+    return si;
+  }
+
   private static ExtendedSymbolInformation createSymbolInfo(
       IJavaElement element,
       IJavaElement parent,
       String label,
       boolean showInherited,
+      int levels,
+      Rendering rendering,
       IProgressMonitor pm)
       throws JavaModelException {
 
     ensureNotCancelled(pm);
     ExtendedSymbolInformation result = new ExtendedSymbolInformation();
+    if (rendering.ids) {
+      result.setId(element.getHandleIdentifier());
+    }
 
-    Location location = JDTUtils.toLocation(element);
-    if (location != null) {
-      SymbolInformation si = new SymbolInformation();
-      si.setName(label);
-      si.setKind(JavaModelUtil.mapKind(element));
-      location.setUri(ResourceUtils.toClientUri(location.getUri()));
-      si.setLocation(location);
+    SymbolInformation si = createSymbol(element, label, rendering.uris);
+    if (si != null) {
       result.setInfo(si);
-      List<ExtendedSymbolInformation> children = new ArrayList<>();
-      if (element instanceof IParent) {
-        Set<String> found = new HashSet<>();
-        for (IJavaElement child : ((IParent) element).getChildren()) {
-          if (!found.contains(child.getHandleIdentifier())) {
-            found.add(child.getHandleIdentifier());
-            children.add(
-                createSymbolInfo(
-                    child,
-                    element,
-                    JavaElementLabels.getElementLabel(child, JavaElementLabels.ALL_DEFAULT),
-                    showInherited,
-                    pm));
-          }
+      if (levels > 0) {
+        result.setChildren(
+            createChildren(
+                element,
+                parent,
+                showInherited,
+                levels == ALL_LEVELS ? ALL_LEVELS : levels - 1,
+                rendering,
+                pm));
+      } else if (hasChildren(element, parent, showInherited)) {
+        // the client expands the symbol by its id
+        result.setId(element.getHandleIdentifier());
+      } else {
+        result.setChildren(new ArrayList<>());
+      }
+    }
+
+    return result;
+  }
+
+  private static boolean hasChildren(
+      IJavaElement element, IJavaElement parent, boolean showInherited) throws JavaModelException {
+    return (element instanceof IParent && ((IParent) element).hasChildren())
+        || (showInherited && parent == null && element instanceof IType);
+  }
+
+  /**
+   * Renders the children of a symbol.
+   *
+   * @param levels levels of descendants to render below the children
+   */
+  private static List<ExtendedSymbolInformation> createChildren(
+      IJavaElement element,
+      IJavaElement parent,
+      boolean showInherited,
+      int levels,
+      Rendering rendering,
+      IProgressMonitor pm)
+      throws JavaModelException {
+    List<ExtendedSymbolInformation> children = new ArrayList<>();
+    if (element instanceof IParent) {
+      Set<String> found = new HashSet<>();
+      for (IJavaElement child : ((IParent) element).getChildren()) {
+        if (!found.contains(child.getHandleIdentifier())) {
+          found.add(child.getHandleIdentifier());
+          children.add(
+              createSymbolInfo(
+                  child,
+                  element,
+                  LabelCache.getElementLabel(child, JavaElementLabels.ALL_DEFAULT),
+                  showInherited,
+                  levels,
+                  rendering,
+                  pm));
         }
-        if (showInherited && parent == null && element instanceof IType) {
-          IType type = (IType) element;
-          ITypeHierarchy th = type.newSupertypeHierarchy(pm);
-          for (IType superType : th.getAllSupertypes(type)) {
-            for (IJavaElement child : superType.getChildren()) {
-              if (!(child instanceof IInitializer)
-                  && !found.contains(child.getHandleIdentifier())) {
-                found.add(child.getHandleIdentifier());
-                children.add(
-                    createSymbolInfo(
-                        child,
-                        superType,
-                        JavaElementLabels.getElementLabel(
-                            child, JavaElementLabels.DEFAULT_POST_QUALIFIED),
-                        showInherited,
-                        pm));
-              }
+      }
+      if (showInherited && parent == null && element instanceof IType) {
+        IType type = (IType) element;
+        ITypeHierarchy th = hierarchies.getHierarchy(type, pm);
+        for (IType superType : th.getAllSupertypes(type)) {
+          rendering.dependencies.add(superType.getTypeRoot().getHandleIdentifier());
+          // library members are cached fully rendered
+          List<ExtendedSymbolInformation> inherited =
+              levels == ALL_LEVELS ? hierarchies.getMembers(superType) : null;
+          if (inherited == null) {
+            long version = hierarchies.getVersion();
+            inherited = createInheritedInfos(superType, levels, rendering, pm);
+            if (levels == ALL_LEVELS) {
+              hierarchies.putMembers(superType, version, inherited);
             }
           }
+          children.addAll(inherited);
         }
       }
-      result.setChildren(children);
     }
+    return children;
+  }
 
-    return result;
+  private static List<ExtendedSymbolInformation> createInheritedInfos(
+      IType superType, int levels, Rendering rendering, IProgressMonitor pm)
+      throws JavaModelException {
+    List<ExtendedSymbolInformation> inherited = new ArrayList<>();
+    // the members of different types have different handles
+    Set<String> found = new HashSet<>();
+    for (IJavaElement child : superType.getChildren()) {
+      if (!(child instanceof IInitializer) && found.add(child.getHandleIdentifier())) {
+        inherited.add(
+            createSymbolInfo(
+                child,
+                superType,
+                LabelCache.getElementLabel(child, JavaElementLabels.DEFAULT_POST_QUALIFIED),
+                true,
+                levels,
+                rendering,
+                pm));
+      }
+    }
+    return inherited;
+  }
+
+  /** State shared by the symbols of a file structure while it is rendered. */
+  private static final class Rendering {
+    private final Map<String, String> uris = new HashMap<>();
+    // type roots of the inherited members
+    private final Set<String> dependencies = new LinkedHashSet<>();
+    private final boolean ids;
+
+    private Rendering(boolean ids) {
+      this.ids = ids;
+    }
   }
 }
@@ -0,0 +1,396 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.jdt.ls.extension.core.internal;
+
+import static org.eclipse.che.jdt.ls.extension.core.internal.Utils.ensureNotCancelled;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import org.eclipse.che.jdt.ls.extension.api.dto.ExtendedSymbolInformation;
+import org.eclipse.che.jdt.ls.extension.api.dto.FileStructureDelta;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.jdt.core.ElementChangedEvent;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IElementChangedListener;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IJavaElementDelta;
+import org.eclipse.jdt.core.ISourceRange;
+import org.eclipse.jdt.core.ISourceReference;
+import org.eclipse.jdt.core.IType;
+import org.eclipse.jdt.core.ITypeRoot;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.core.JavaModelException;
+import org.eclipse.jdt.core.SourceRange;
+import org.eclipse.lsp4j.Location;
+import org.eclipse.lsp4j.Position;
+import org.eclipse.lsp4j.Range;
+import org.eclipse.lsp4j.SymbolInformation;
+
+/**
+ * Computes the changes of file structures since the version last sent to the client. For every
+ * document the symbols last sent are kept by their id, the handle identifier of their element,
+ * together with the handles of the elements the Java element deltas reported as added, removed or
+ * changed since then. Only these elements are rendered again; the other symbols just have their
+ * range moved to the current offset of their name, as element deltas don't tell about moved
+ * elements. A document whose changes aren't described element by element, e.g. a file changed on
+ * disk, is sent complete.
+ */
+final class FileStructureDeltas implements IElementChangedListener {
+  private static final int CLASSPATH_FLAGS =
+      IJavaElementDelta.F_CLASSPATH_CHANGED
+          | IJavaElementDelta.F_RESOLVED_CLASSPATH_CHANGED
+          | IJavaElementDelta.F_ARCHIVE_CONTENT_CHANGED
+          | IJavaElementDelta.F_OPENED
+          | IJavaElementDelta.F_CLOSED;
+
+  private final Map<String, Document> documents = new LinkedHashMap<>(16, 0.75f, true);
+  private final int capacity;
+
+  /** @param capacity maximum number of documents to keep the file structure of */
+  FileStructureDeltas(int capacity) {
+    this.capacity = capacity;
+  }
+
+  /** Starts listening to changes of the Java model. */
+  void install() {
+    JavaCore.addElementChangedListener(
+        this, ElementChangedEvent.POST_CHANGE | ElementChangedEvent.POST_RECONCILE);
+  }
+
+  /** Stops listening to changes and drops all the file structures. */
+  void uninstall() {
+    JavaCore.removeElementChangedListener(this);
+    clear();
+  }
+
+  /**
+   * Returns the changes of the file structure of the type root since the given version.
+   *
+   * @param typeRoot the type root
+   * @param version version of the file structure the client has, or {@code null}
+   * @param pm a progress monitor
+   * @return the changes, or the complete file structure if the version isn't the last one sent
+   */
+  FileStructureDelta compute(ITypeRoot typeRoot, String version, IProgressMonitor pm)
+      throws JavaModelException {
+    String handle = typeRoot.getHandleIdentifier();
+    Document document;
+    synchronized (this) {
+      document = documents.computeIfAbsent(handle, key -> new Document());
+      if (documents.size() > capacity) {
+        Iterator<Document> eldest = documents.values().iterator();
+        eldest.next();
+        eldest.remove();
+      }
+    }
+    synchronized (document) {
+      if (version != null && version.equals(document.version) && !document.coarse) {
+        return document.update(typeRoot, pm);
+      }
+      return document.render(typeRoot, pm);
+    }
+  }
+
+  /** Drops all the file structures. */
+  synchronized void clear() {
+    documents.clear();
+  }
+
+  /** Returns the number of documents whose file structure is kept. */
+  synchronized int size() {
+    return documents.size();
+  }
+
+  @Override
+  public void elementChanged(ElementChangedEvent event) {
+    visit(event.getDelta());
+  }
+
+  private void visit(IJavaElementDelta delta) {
+    if ((delta.getFlags() & CLASSPATH_FLAGS) != 0) {
+      clear();
+      return;
+    }
+    IJavaElement element = delta.getElement();
+    switch (element.getElementType()) {
+      case IJavaElement.JAVA_PROJECT:
+      case IJavaElement.PACKAGE_FRAGMENT_ROOT:
+        if (delta.getKind() != IJavaElementDelta.CHANGED) {
+          clear();
+          return;
+        }
+        break;
+      case IJavaElement.COMPILATION_UNIT:
+      case IJavaElement.CLASS_FILE:
+        typeRootChanged(element, delta);
+        return;
+      default:
+        break;
+    }
+    for (IJavaElementDelta child : delta.getAffectedChildren()) {
+      visit(child);
+    }
+  }
+
+  private void typeRootChanged(IJavaElement typeRoot, IJavaElementDelta delta) {
+    String handle = typeRoot.getHandleIdentifier();
+    Document document;
+    synchronized (this) {
+      document = documents.get(handle);
+      // a working copy being discarded, i.e. a closed document
+      if (document != null
+          && (delta.getKind() != IJavaElementDelta.CHANGED
+              || (delta.getFlags() & IJavaElementDelta.F_PRIMARY_WORKING_COPY) != 0)) {
+        documents.remove(handle);
+        return;
+      }
+    }
+    if (document == null) {
+      return;
+    }
+    int flags = delta.getFlags();
+    boolean workingCopy =
+        typeRoot instanceof ICompilationUnit && ((ICompilationUnit) typeRoot).isWorkingCopy();
+    if (delta.getAffectedChildren().length > 0) {
+      for (IJavaElementDelta child : delta.getAffectedChildren()) {
+        record(child, document.changed);
+      }
+    } else if ((flags & IJavaElementDelta.F_CONTENT) != 0
+        && (flags & IJavaElementDelta.F_FINE_GRAINED) == 0
+        // the buffer of a working copy being saved, its elements don't change
+        && !(workingCopy && (flags & IJavaElementDelta.F_PRIMARY_RESOURCE) != 0)) {
+      document.coarse = true;
+    }
+  }
+
+  private static void record(IJavaElementDelta delta, Set<String> changed) {
+    if (delta.getKind() != IJavaElementDelta.CHANGED
+        || (delta.getFlags() & ~IJavaElementDelta.F_CHILDREN) != 0) {
+      changed.add(delta.getElement().getHandleIdentifier());
+    }
+    for (IJavaElementDelta child : delta.getAffectedChildren()) {
+      record(child, changed);
+    }
+  }
+
+  /** Whether the element is shown in the file structure of the type root. */
+  private static boolean isShown(IJavaElement element, ITypeRoot typeRoot) {
+    IJavaElement current = element;
+    while (current.getParent() != null && !current.getParent().equals(typeRoot)) {
+      current = current.getParent();
+    }
+    return current instanceof IType && typeRoot.equals(current.getParent());
+  }
+
+  /** The file structure of a document last sent to the client. */
+  private static final class Document {
+    private final String id = UUID.randomUUID().toString();
+    // handles of the elements changed since the file structure was sent
+    private final Set<String> changed = ConcurrentHashMap.newKeySet();
+    // whether changes happened which aren't in the changed elements
+    private volatile boolean coarse;
+    private int revision;
+    // null while the file structure is rendered, so a failed rendering isn't used as a base
+    private String version;
+    private Map<String, Symbol> symbols = new HashMap<>();
+
+    private FileStructureDelta render(ITypeRoot typeRoot, IProgressMonitor pm)
+        throws JavaModelException {
+      version = null;
+      // changes from now on are changes of the new file structure
+      changed.clear();
+      coarse = false;
+      List<ExtendedSymbolInformation> infos = FileStructureCommand.render(typeRoot, pm);
+      symbols = new HashMap<>();
+      add(infos, null);
+      FileStructureDelta delta = new FileStructureDelta();
+      delta.setSymbols(infos);
+      delta.setVersion(nextVersion());
+      return delta;
+    }
+
+    private FileStructureDelta update(ITypeRoot typeRoot, IProgressMonitor pm)
+        throws JavaModelException {
+      version = null;
+      List<String> handles = new ArrayList<>();
+      for (Iterator<String> iterator = changed.iterator(); iterator.hasNext(); ) {
+        handles.add(iterator.next());
+        iterator.remove();
+      }
+      // the handle of a parent is a prefix of the handles of its children
+      handles.sort(Comparator.comparingInt(String::length));
+
+      FileStructureDelta delta = new FileStructureDelta();
+      Map<String, String> uris = new HashMap<>();
+      Set<String> rendered = new HashSet<>();
+      for (String handle : handles) {
+        ensureNotCancelled(pm);
+        if (rendered.contains(handle)) {
+          continue;
+        }
+        IJavaElement element = JavaCore.create(handle);
+        Symbol symbol = symbols.get(handle);
+        if (element == null || !element.exists() || !isShown(element, typeRoot)) {
+          if (symbol != null) {
+            delta.getRemoved().add(handle);
+            remove(handle);
+          }
+        } else if (symbol == null) {
+          ExtendedSymbolInformation added = FileStructureCommand.render(element, pm);
+          String parentId =
+              element.getParent() instanceof ITypeRoot
+                  ? null
+                  : element.getParent().getHandleIdentifier();
+          added.setParentId(parentId);
+          delta.getAdded().add(added);
+          add(added, parentId, rendered);
+        } else {
+          rendered.add(handle);
+          SymbolInformation info = FileStructureCommand.createSymbol(element, uris);
+          if (!Objects.equals(info, symbol.info)) {
+            symbol.info = info;
+            delta.getChanged().add(changed(handle, info));
+          }
+        }
+      }
+
+      // the positions of the other symbols are computed from the offsets of their names, which the
+      // Java model keeps up to date, rather than resolving every location of the document again
+      String source = typeRoot.getSource();
+      Lines lines = source != null ? new Lines(source) : null;
+      for (Map.Entry<String, Symbol> entry : symbols.entrySet()) {
+        SymbolInformation info = entry.getValue().info;
+        if (lines == null || info == null || rendered.contains(entry.getKey())) {
+          continue;
+        }
+        ensureNotCancelled(pm);
+        IJavaElement element = JavaCore.create(entry.getKey());
+        ISourceRange name =
+            element instanceof ISourceReference
+                ? ((ISourceReference) element).getNameRange()
+                : null;
+        if (!SourceRange.isAvailable(name)) {
+          continue;
+        }
+        Range range =
+            new Range(
+                lines.toPosition(name.getOffset()),
+                lines.toPosition(name.getOffset() + name.getLength()));
+        if (!range.equals(info.getLocation().getRange())) {
+          SymbolInformation moved =
+              new SymbolInformation(
+                  info.getName(), info.getKind(), new Location(info.getLocation().getUri(), range));
+          entry.getValue().info = moved;
+          delta.getChanged().add(changed(entry.getKey(), moved));
+        }
+      }
+      delta.setVersion(nextVersion());
+      return delta;
+    }
+
+    private String nextVersion() {
+      version = id + ':' + ++revision;
+      return version;
+    }
+
+    private void add(List<ExtendedSymbolInformation> infos, String parentId) {
+      for (ExtendedSymbolInformation info : infos) {
+        add(info, parentId, null);
+      }
+    }
+
+    private void add(ExtendedSymbolInformation info, String parentId, Set<String> rendered) {
+      symbols.put(info.getId(), new Symbol(info.getInfo(), parentId));
+      if (parentId != null && symbols.containsKey(parentId)) {
+        symbols.get(parentId).children.add(info.getId());
+      }
+      if (rendered != null) {
+        rendered.add(info.getId());
+      }
+      if (info.getChildren() != null) {
+        for (ExtendedSymbolInformation child : info.getChildren()) {
+          add(child, info.getId(), rendered);
+        }
+      }
+    }
+
+    private void remove(String handle) {
+      Symbol symbol = symbols.get(handle);
+      if (symbol != null && symbol.parent != null && symbols.containsKey(symbol.parent)) {
+        symbols.get(symbol.parent).children.remove(handle);
+      }
+      drop(handle);
+    }
+
+    private void drop(String handle) {
+      Symbol symbol = symbols.remove(handle);
+      if (symbol != null) {
+        for (String child : symbol.children) {
+          drop(child);
+        }
+      }
+    }
+
+    private static ExtendedSymbolInformation changed(String handle, SymbolInformation info) {
+      ExtendedSymbolInformation result = new ExtendedSymbolInformation(info, null);
+      result.setId(handle);
+      return result;
+    }
+  }
+
+  private static final class Symbol {
+    private SymbolInformation info;
+    private final String parent;
+    private final List<String> children = new ArrayList<>();
+
+    private Symbol(SymbolInformation info, String parent) {
+      this.info = info;
+      this.parent = parent;
+    }
+  }
+
+  /** Start offsets of the lines of a source, to convert offsets to positions. */
+  private static final class Lines {
+    private int[] starts = new int[64];
+    private int count = 1;
+
+    private Lines(String source) {
+      for (int i = 0; i < source.length(); i++) {
+        char c = source.charAt(i);
+        if (c == '\n' || c == '\r' && (i + 1 == source.length() || source.charAt(i + 1) != '\n')) {
+          if (count == starts.length) {
+            starts = Arrays.copyOf(starts, count * 2);
+          }
+          starts[count++] = i + 1;
+        }
+      }
+    }
+
+    private Position toPosition(int offset) {
+      int line = Arrays.binarySearch(starts, 0, count, offset);
+      if (line < 0) {
+        line = -line - 2;
+      }
+      return new Position(line, offset - starts[line]);
+    }
+  }
+}
@@ -11,6 +11,7 @@
 package org.eclipse.che.jdt.ls.extension.core.internal;
 
 import com.google.gson.Gson;
+import com.google.gson.JsonElement;
 import java.util.Arrays;
 import java.util.List;
 import java.util.stream.Collectors;
@@ -58,8 +59,31 @@ public class JavaModelUtil {
         .collect(Collectors.toList());
   }
 
+  /**
+   * Binds a command argument to an instance of the given class. The argument is mapped directly
+   * from its already parsed form ({@link JsonElement} or a tree of maps, lists and primitives), no
+   * intermediate JSON string is built.
+   *
+   * @param param command argument
+   * @param clazz class of the expected parameter
+   * @return instance of {@code clazz} or {@code null} if the argument is {@code null}
+   */
   public static <T> T convertCommandParameter(Object param, Class<T> clazz) {
-    return gson.fromJson(gson.toJson(param), clazz);
+    if (param == null || clazz.isInstance(param)) {
+      return clazz.cast(param);
+    }
+    if (param instanceof JsonElement) {
+      return gson.fromJson((JsonElement) param, clazz);
+    }
+    if (!ParameterTreeReader.canRead(clazz)) {
+      return gson.fromJson(gson.toJsonTree(param), clazz);
+    }
+    ParameterTreeReader reader = ParameterTreeReader.open(param);
+    try {
+      return gson.fromJson(reader, clazz);
+    } finally {
+      reader.release();
+    }
   }
 
   static SymbolKind mapKind(IJavaElement element) {
@@ -0,0 +1,273 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.jdt.ls.extension.core.internal;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import org.eclipse.che.jdt.ls.extension.api.dto.CacheMetrics;
+import org.eclipse.jdt.core.ElementChangedEvent;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IElementChangedListener;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IJavaElementDelta;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.ls.core.internal.hover.JavaElementLabels;
+
+/**
+ * LRU cache of element labels, keyed by the handle identifier of the element and the label flags.
+ * The labels are grouped by the type root of their element. Labels of elements in class files live
+ * until the classpath changes, labels of elements in compilation units are dropped when an element
+ * delta reports a change of the element or one of its ancestors. The memory is bounded by the total
+ * number of cached labels.
+ */
+public final class LabelCache implements IElementChangedListener {
+  private static final int CLASSPATH_FLAGS =
+      IJavaElementDelta.F_CLASSPATH_CHANGED
+          | IJavaElementDelta.F_RESOLVED_CLASSPATH_CHANGED
+          | IJavaElementDelta.F_ARCHIVE_CONTENT_CHANGED
+          | IJavaElementDelta.F_OPENED
+          | IJavaElementDelta.F_CLOSED;
+
+  private static final LabelCache instance = new LabelCache(20_000);
+
+  private final Map<String, Map<Key, String>> roots = new LinkedHashMap<>(16, 0.75f, true);
+  private final int capacity;
+  private int size;
+  // changes whenever labels are dropped, so a label computed before isn't cached
+  private long version;
+  private long hits;
+  private long misses;
+  private long evictions;
+  private long invalidations;
+
+  /** @param capacity maximum number of cached labels */
+  LabelCache(int capacity) {
+    this.capacity = capacity;
+  }
+
+  /** Returns the cache shared by all the commands. */
+  static LabelCache getInstance() {
+    return instance;
+  }
+
+  /**
+   * Returns the label of an element, see {@link JavaElementLabels#getElementLabel(IJavaElement,
+   * long)}. The label is cached if the element is in a class file or a primary compilation unit.
+   */
+  public static String getElementLabel(IJavaElement element, long flags) {
+    return instance.getLabel(element, flags);
+  }
+
+  /** Starts listening to changes of the Java model. */
+  void install() {
+    JavaCore.addElementChangedListener(
+        this, ElementChangedEvent.POST_CHANGE | ElementChangedEvent.POST_RECONCILE);
+  }
+
+  /** Stops listening to changes and drops all the labels. */
+  void uninstall() {
+    JavaCore.removeElementChangedListener(this);
+    invalidateAll();
+  }
+
+  String getLabel(IJavaElement element, long flags) {
+    IJavaElement root = getTypeRoot(element);
+    if (root == null) {
+      return JavaElementLabels.getElementLabel(element, flags);
+    }
+    String rootHandle = root.getHandleIdentifier();
+    Key key = new Key(element.getHandleIdentifier(), flags);
+    long current;
+    synchronized (this) {
+      Map<Key, String> labels = roots.get(rootHandle);
+      String label = labels != null ? labels.get(key) : null;
+      if (label != null) {
+        hits++;
+        return label;
+      }
+      misses++;
+      current = version;
+    }
+    String label = JavaElementLabels.getElementLabel(element, flags);
+    synchronized (this) {
+      if (current == version) {
+        put(rootHandle, key, label);
+      }
+    }
+    return label;
+  }
+
+  /** Drops the labels of the elements in the type root. */
+  synchronized void invalidate(String rootHandle) {
+    version++;
+    Map<Key, String> labels = roots.remove(rootHandle);
+    if (labels != null) {
+      size -= labels.size();
+      invalidations += labels.size();
+    }
+  }
+
+  /** Drops all the labels. */
+  synchronized void invalidateAll() {
+    version++;
+    invalidations += size;
+    roots.clear();
+    size = 0;
+  }
+
+  /** Returns statistics of the cache. */
+  public synchronized CacheMetrics getStatistics() {
+    CacheMetrics metrics = new CacheMetrics();
+    metrics.setSize(size);
+    metrics.setCapacity(capacity);
+    metrics.setHits(hits);
+    metrics.setMisses(misses);
+    metrics.setEvictions(evictions);
+    metrics.setInvalidations(invalidations);
+    return metrics;
+  }
+
+  @Override
+  public void elementChanged(ElementChangedEvent event) {
+    visit(event.getDelta());
+  }
+
+  private void visit(IJavaElementDelta delta) {
+    if ((delta.getFlags() & CLASSPATH_FLAGS) != 0) {
+      invalidateAll();
+      return;
+    }
+    IJavaElement element = delta.getElement();
+    switch (element.getElementType()) {
+      case IJavaElement.JAVA_PROJECT:
+      case IJavaElement.PACKAGE_FRAGMENT_ROOT:
+        if (delta.getKind() != IJavaElementDelta.CHANGED) {
+          invalidateAll();
+          return;
+        }
+        break;
+      case IJavaElement.COMPILATION_UNIT:
+      case IJavaElement.CLASS_FILE:
+        if (delta.getAffectedChildren().length > 0) {
+          List<String> changed = new ArrayList<>();
+          for (IJavaElementDelta child : delta.getAffectedChildren()) {
+            collectChanged(child, changed);
+          }
+          invalidate(element.getHandleIdentifier(), changed);
+        } else if (delta.getKind() != IJavaElementDelta.CHANGED
+            || (delta.getFlags() & IJavaElementDelta.F_FINE_GRAINED) == 0) {
+          // changes which aren't described element by element
+          invalidate(element.getHandleIdentifier());
+        }
+        return;
+      default:
+        break;
+    }
+    for (IJavaElementDelta child : delta.getAffectedChildren()) {
+      visit(child);
+    }
+  }
+
+  /** Collects the handles of the elements changed beyond their children. */
+  private static void collectChanged(IJavaElementDelta delta, List<String> changed) {
+    if (delta.getKind() != IJavaElementDelta.CHANGED
+        || (delta.getFlags() & ~IJavaElementDelta.F_CHILDREN) != 0) {
+      changed.add(delta.getElement().getHandleIdentifier());
+      // the labels of the descendants are dropped with the element
+      return;
+    }
+    for (IJavaElementDelta child : delta.getAffectedChildren()) {
+      collectChanged(child, changed);
+    }
+  }
+
+  /**
+   * Drops the labels of the changed elements and their descendants. The handle of an element is a
+   * prefix of the handles of its descendants, a few more labels may be dropped.
+   */
+  private synchronized void invalidate(String rootHandle, List<String> changed) {
+    if (changed.isEmpty()) {
+      return;
+    }
+    version++;
+    Map<Key, String> labels = roots.get(rootHandle);
+    if (labels == null) {
+      return;
+    }
+    Iterator<Key> keys = labels.keySet().iterator();
+    while (keys.hasNext()) {
+      String handle = keys.next().handle;
+      for (String prefix : changed) {
+        if (handle.startsWith(prefix)) {
+          keys.remove();
+          size--;
+          invalidations++;
+          break;
+        }
+      }
+    }
+  }
+
+  private void put(String rootHandle, Key key, String label) {
+    Map<Key, String> labels = roots.computeIfAbsent(rootHandle, handle -> new HashMap<>());
+    if (labels.put(key, label) == null) {
+      size++;
+    }
+    Iterator<Map<Key, String>> eldest = roots.values().iterator();
+    while (size > capacity && roots.size() > 1) {
+      Map<Key, String> evicted = eldest.next();
+      size -= evicted.size();
+      evictions += evicted.size();
+      eldest.remove();
+    }
+  }
+
+  private static IJavaElement getTypeRoot(IJavaElement element) {
+    IJavaElement root = element.getAncestor(IJavaElement.COMPILATION_UNIT);
+    if (root != null) {
+      // labels of other working copies may differ from the labels of the primary ones
+      return ((ICompilationUnit) root).getOwner() == null ? root : null;
+    }
+    return element.getAncestor(IJavaElement.CLASS_FILE);
+  }
+
+  private static final class Key {
+    private final String handle;
+    private final long flags;
+
+    private Key(String handle, long flags) {
+      this.handle = handle;
+      this.flags = flags;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof Key)) {
+        return false;
+      }
+      Key other = (Key) o;
+      return flags == other.flags && handle.equals(other.handle);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(handle, flags);
+    }
+  }
+}
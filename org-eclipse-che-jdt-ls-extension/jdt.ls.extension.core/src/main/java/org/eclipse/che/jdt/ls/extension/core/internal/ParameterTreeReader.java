@@ -0,0 +1,356 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.jdt.ls.extension.core.internal;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonNull;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import java.io.IOException;
+import java.io.Reader;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * {@link JsonReader} which walks an already parsed command argument instead of a character stream.
+ * Command arguments arrive as trees of {@link Map maps}, {@link Collection collections}, strings,
+ * numbers and booleans (or as {@link JsonElement json elements}), so they can be bound to DTOs
+ * directly without serializing them back to a string and parsing it again.
+ *
+ * <p>{@link JsonReader} allocates a sizeable character buffer which this reader never uses, so a
+ * single instance per thread is reused, see {@link #open(Object)}.
+ *
+ * <p>Gson binds {@link Map} typed fields through package private {@link JsonReader} internals, so
+ * DTOs with such fields must not be read with this reader. Use {@link #canRead(Class)} to check.
+ */
+class ParameterTreeReader extends JsonReader {
+  private static final Reader UNREADABLE_READER =
+      new Reader() {
+        @Override
+        public int read(char[] buffer, int offset, int count) throws IOException {
+          throw new AssertionError();
+        }
+
+        @Override
+        public void close() throws IOException {
+          throw new AssertionError();
+        }
+      };
+  private static final Object SENTINEL_CLOSED = new Object();
+
+  private static final ClassValue<Boolean> READABLE_TYPES =
+      new ClassValue<Boolean>() {
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+          return !hasMapField(type, new HashSet<>());
+        }
+      };
+
+  private static final ThreadLocal<ParameterTreeReader> READERS =
+      ThreadLocal.withInitial(ParameterTreeReader::new);
+
+  private Object[] stack = new Object[32];
+  private int stackSize = 0;
+
+  private ParameterTreeReader() {
+    super(UNREADABLE_READER);
+  }
+
+  /**
+   * Returns the reader of the current thread positioned at the beginning of the given tree. The
+   * reader must be {@link #release() released} once the value has been read.
+   *
+   * @param root parsed command argument
+   */
+  static ParameterTreeReader open(Object root) {
+    ParameterTreeReader reader = READERS.get();
+    reader.release();
+    reader.push(root);
+    return reader;
+  }
+
+  /** Drops the references to the walked tree. */
+  void release() {
+    Arrays.fill(stack, 0, stackSize, null);
+    stackSize = 0;
+  }
+
+  /**
+   * Checks whether an instance of the given type can be read by this reader.
+   *
+   * @param type type of a DTO
+   * @return {@code true} if neither the type nor its nested DTOs declare {@link Map} fields
+   */
+  static boolean canRead(Class<?> type) {
+    return READABLE_TYPES.get(type);
+  }
+
+  @Override
+  public void beginArray() throws IOException {
+    expect(JsonToken.BEGIN_ARRAY);
+    Object array = peekStack();
+    Iterator<?> iterator =
+        array instanceof Object[]
+            ? Arrays.asList((Object[]) array).iterator()
+            : ((Iterable<?>) array).iterator();
+    push(iterator);
+  }
+
+  @Override
+  public void endArray() throws IOException {
+    expect(JsonToken.END_ARRAY);
+    popStack(); // iterator
+    popStack(); // array
+  }
+
+  @Override
+  public void beginObject() throws IOException {
+    expect(JsonToken.BEGIN_OBJECT);
+    Object object = peekStack();
+    Iterator<?> iterator =
+        object instanceof JsonObject
+            ? ((JsonObject) object).entrySet().iterator()
+            : ((Map<?, ?>) object).entrySet().iterator();
+    push(iterator);
+  }
+
+  @Override
+  public void endObject() throws IOException {
+    expect(JsonToken.END_OBJECT);
+    popStack(); // iterator
+    popStack(); // object
+  }
+
+  @Override
+  public boolean hasNext() throws IOException {
+    JsonToken token = peek();
+    return token != JsonToken.END_OBJECT && token != JsonToken.END_ARRAY;
+  }
+
+  @Override
+  public JsonToken peek() throws IOException {
+    if (stackSize == 0) {
+      return JsonToken.END_DOCUMENT;
+    }
+
+    Object o = peekStack();
+    if (o instanceof Iterator) {
+      boolean isObject = isObject(stack[stackSize - 2]);
+      Iterator<?> iterator = (Iterator<?>) o;
+      if (iterator.hasNext()) {
+        if (isObject) {
+          return JsonToken.NAME;
+        }
+        push(iterator.next());
+        return peek();
+      }
+      return isObject ? JsonToken.END_OBJECT : JsonToken.END_ARRAY;
+    }
+    if (o == null || o instanceof JsonNull) {
+      return JsonToken.NULL;
+    }
+    if (isObject(o)) {
+      return JsonToken.BEGIN_OBJECT;
+    }
+    if (o instanceof Iterable || o instanceof Object[]) {
+      return JsonToken.BEGIN_ARRAY;
+    }
+    if (o instanceof JsonPrimitive) {
+      JsonPrimitive primitive = (JsonPrimitive) o;
+      stack[stackSize - 1] =
+          primitive.isBoolean()
+              ? primitive.getAsBoolean()
+              : primitive.isNumber() ? primitive.getAsNumber() : primitive.getAsString();
+      return peek();
+    }
+    if (o instanceof String || o instanceof Character) {
+      return JsonToken.STRING;
+    }
+    if (o instanceof Boolean) {
+      return JsonToken.BOOLEAN;
+    }
+    if (o instanceof Number) {
+      return JsonToken.NUMBER;
+    }
+    if (o == SENTINEL_CLOSED) {
+      throw new IllegalStateException("JsonReader is closed");
+    }
+    // an already bound object, convert it to a tree which can be walked
+    stack[stackSize - 1] = GsonUtils.getInstance().toJsonTree(o);
+    return peek();
+  }
+
+  @Override
+  public String nextName() throws IOException {
+    expect(JsonToken.NAME);
+    Iterator<?> i = (Iterator<?>) peekStack();
+    Map.Entry<?, ?> entry = (Map.Entry<?, ?>) i.next();
+    push(entry.getValue());
+    return String.valueOf(entry.getKey());
+  }
+
+  @Override
+  public String nextString() throws IOException {
+    JsonToken token = peek();
+    if (token != JsonToken.STRING && token != JsonToken.NUMBER) {
+      throw new IllegalStateException("Expected " + JsonToken.STRING + " but was " + token);
+    }
+    return String.valueOf(popStack());
+  }
+
+  @Override
+  public boolean nextBoolean() throws IOException {
+    expect(JsonToken.BOOLEAN);
+    return (Boolean) popStack();
+  }
+
+  @Override
+  public void nextNull() throws IOException {
+    expect(JsonToken.NULL);
+    popStack();
+  }
+
+  @Override
+  public double nextDouble() throws IOException {
+    JsonToken token = peek();
+    if (token != JsonToken.NUMBER && token != JsonToken.STRING) {
+      throw new IllegalStateException("Expected " + JsonToken.NUMBER + " but was " + token);
+    }
+    Object value = peekStack();
+    double result =
+        value instanceof Number
+            ? ((Number) value).doubleValue()
+            : Double.parseDouble(value.toString());
+    if (!isLenient() && (Double.isNaN(result) || Double.isInfinite(result))) {
+      throw new NumberFormatException("JSON forbids NaN and infinities: " + result);
+    }
+    popStack();
+    return result;
+  }
+
+  @Override
+  public long nextLong() throws IOException {
+    double value = nextDouble();
+    long result = (long) value;
+    if (result != value) {
+      throw new NumberFormatException("Expected a long but was " + value);
+    }
+    return result;
+  }
+
+  @Override
+  public int nextInt() throws IOException {
+    double value = nextDouble();
+    int result = (int) value;
+    if (result != value) {
+      throw new NumberFormatException("Expected an int but was " + value);
+    }
+    return result;
+  }
+
+  @Override
+  public void skipValue() throws IOException {
+    if (peek() == JsonToken.NAME) {
+      nextName();
+    } else {
+      popStack();
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    release();
+    push(SENTINEL_CLOSED);
+  }
+
+  @Override
+  public String getPath() {
+    return "$";
+  }
+
+  @Override
+  public String toString() {
+    return getClass().getSimpleName();
+  }
+
+  private void expect(JsonToken expected) throws IOException {
+    JsonToken token = peek();
+    if (token != expected) {
+      throw new IllegalStateException("Expected " + expected + " but was " + token);
+    }
+  }
+
+  private Object peekStack() {
+    return stack[stackSize - 1];
+  }
+
+  private Object popStack() {
+    Object result = stack[--stackSize];
+    stack[stackSize] = null;
+    return result;
+  }
+
+  private void push(Object newTop) {
+    if (stackSize == stack.length) {
+      stack = Arrays.copyOf(stack, stackSize * 2);
+    }
+    stack[stackSize++] = newTop;
+  }
+
+  private static boolean isObject(Object o) {
+    return o instanceof Map || o instanceof JsonObject;
+  }
+
+  private static boolean hasMapField(Type type, Set<Class<?>> visited) {
+    if (type instanceof ParameterizedType) {
+      ParameterizedType parameterized = (ParameterizedType) type;
+      for (Type argument : parameterized.getActualTypeArguments()) {
+        if (hasMapField(argument, visited)) {
+          return true;
+        }
+      }
+      return hasMapField(parameterized.getRawType(), visited);
+    }
+    if (!(type instanceof Class)) {
+      return false;
+    }
+    Class<?> clazz = (Class<?>) type;
+    if (Map.class.isAssignableFrom(clazz)) {
+      return true;
+    }
+    if (clazz.isArray()) {
+      return hasMapField(clazz.getComponentType(), visited);
+    }
+    if (clazz.isPrimitive() || clazz.getName().startsWith("java.") || !visited.add(clazz)) {
+      return false;
+    }
+    for (Class<?> c = clazz; c != null && c != Object.class; c = c.getSuperclass()) {
+      for (Field field : c.getDeclaredFields()) {
+        if (!Modifier.isStatic(field.getModifiers())
+            && !Modifier.isTransient(field.getModifiers())
+            && hasMapField(field.getGenericType(), visited)) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+}
@@ -0,0 +1,191 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.jdt.ls.extension.core.internal;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.jdt.core.ElementChangedEvent;
+import org.eclipse.jdt.core.IClasspathEntry;
+import org.eclipse.jdt.core.IElementChangedListener;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IJavaElementDelta;
+import org.eclipse.jdt.core.IJavaModel;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.IPackageFragmentRoot;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.core.JavaModelException;
+import org.eclipse.jdt.ls.core.internal.JavaLanguageServerPlugin;
+
+/**
+ * Reverse classpath dependency graph of the workspace projects. It tells which projects may
+ * reference an element: the project declaring the element, or the projects having the library of
+ * the element on their classpath, plus all the projects transitively depending on those. The graph
+ * is computed on demand and dropped when a classpath changes or a project is added, removed, opened
+ * or closed.
+ */
+public class ProjectDependencyGraph implements IElementChangedListener {
+  private static final int CLASSPATH_FLAGS =
+      IJavaElementDelta.F_CLASSPATH_CHANGED
+          | IJavaElementDelta.F_RESOLVED_CLASSPATH_CHANGED
+          | IJavaElementDelta.F_OPENED
+          | IJavaElementDelta.F_CLOSED;
+
+  private final AtomicLong generation = new AtomicLong();
+  private volatile Graph graph;
+
+  /** Starts listening to classpath changes. */
+  public void install() {
+    JavaCore.addElementChangedListener(this, ElementChangedEvent.POST_CHANGE);
+  }
+
+  /** Stops listening to classpath changes. */
+  public void uninstall() {
+    JavaCore.removeElementChangedListener(this);
+    invalidate();
+  }
+
+  /**
+   * Returns projects which may reference the given element. If the element is not inside a project
+   * or a library, e.g. it is a part of the JRE, all the projects are returned.
+   *
+   * @param element element to find references of
+   * @param includeAll if true all the workspace projects are returned
+   * @return projects whose sources or libraries may reference the element
+   */
+  public IJavaProject[] getReferencingProjects(IJavaElement element, boolean includeAll)
+      throws JavaModelException {
+    IJavaModel model = JavaCore.create(ResourcesPlugin.getWorkspace().getRoot());
+    IPackageFragmentRoot root =
+        (IPackageFragmentRoot) element.getAncestor(IJavaElement.PACKAGE_FRAGMENT_ROOT);
+    if (includeAll || root == null) {
+      return model.getJavaProjects();
+    }
+
+    Graph graph = getGraph(model);
+    Set<String> roots = new HashSet<>();
+    roots.add(root.getJavaProject().getElementName());
+    if (root.getKind() == IPackageFragmentRoot.K_BINARY) {
+      roots.addAll(graph.libraryUsers.getOrDefault(root.getPath(), Collections.emptySet()));
+    }
+    return graph
+        .getDependentsClosure(roots)
+        .stream()
+        .map(model::getJavaProject)
+        .filter(IJavaProject::exists)
+        .toArray(IJavaProject[]::new);
+  }
+
+  /**
+   * Returns the classpath generation, it changes whenever the graph is dropped because a classpath
+   * has changed or a project has been added, removed, opened or closed.
+   */
+  public long getGeneration() {
+    return generation.get();
+  }
+
+  @Override
+  public void elementChanged(ElementChangedEvent event) {
+    if (affectsClasspath(event.getDelta())) {
+      invalidate();
+    }
+  }
+
+  private void invalidate() {
+    generation.incrementAndGet();
+    graph = null;
+  }
+
+  private Graph getGraph(IJavaModel model) throws JavaModelException {
+    Graph current = graph;
+    long expected = generation.get();
+    if (current != null && current.generation == expected) {
+      return current;
+    }
+    current = new Graph(expected);
+    for (IJavaProject project : model.getJavaProjects()) {
+      String name = project.getElementName();
+      IClasspathEntry[] classpath;
+      try {
+        classpath = project.getResolvedClasspath(true);
+      } catch (JavaModelException e) {
+        JavaLanguageServerPlugin.logException("Can't resolve classpath of " + name, e);
+        continue;
+      }
+      for (IClasspathEntry entry : classpath) {
+        if (entry.getEntryKind() == IClasspathEntry.CPE_PROJECT) {
+          current.addDependent(entry.getPath().lastSegment(), name);
+        } else if (entry.getEntryKind() == IClasspathEntry.CPE_LIBRARY) {
+          current.libraryUsers.computeIfAbsent(entry.getPath(), path -> new HashSet<>()).add(name);
+        }
+      }
+    }
+    // a concurrent classpath change makes the graph stale, it is rebuilt on the next request
+    if (generation.get() == expected) {
+      graph = current;
+    }
+    return current;
+  }
+
+  private static boolean affectsClasspath(IJavaElementDelta delta) {
+    if ((delta.getFlags() & CLASSPATH_FLAGS) != 0) {
+      return true;
+    }
+    IJavaElement element = delta.getElement();
+    if (element.getElementType() == IJavaElement.JAVA_PROJECT
+        && delta.getKind() != IJavaElementDelta.CHANGED) {
+      return true;
+    }
+    if (element.getElementType() == IJavaElement.JAVA_MODEL) {
+      for (IJavaElementDelta child : delta.getAffectedChildren()) {
+        if (affectsClasspath(child)) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  private static final class Graph {
+    private final long generation;
+    private final Map<String, Set<String>> dependents = new HashMap<>();
+    private final Map<IPath, Set<String>> libraryUsers = new HashMap<>();
+
+    private Graph(long generation) {
+      this.generation = generation;
+    }
+
+    private void addDependent(String project, String dependent) {
+      dependents.computeIfAbsent(project, name -> new HashSet<>()).add(dependent);
+    }
+
+    private Set<String> getDependentsClosure(Set<String> projects) {
+      Set<String> result = new LinkedHashSet<>(projects);
+      Deque<String> queue = new ArrayDeque<>(projects);
+      while (!queue.isEmpty()) {
+        for (String dependent : dependents.getOrDefault(queue.poll(), Collections.emptySet())) {
+          if (result.add(dependent)) {
+            queue.add(dependent);
+          }
+        }
+      }
+      return result;
+    }
+  }
+}
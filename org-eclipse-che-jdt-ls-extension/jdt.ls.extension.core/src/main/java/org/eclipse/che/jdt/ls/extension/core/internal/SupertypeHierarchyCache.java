@@ -0,0 +1,197 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.jdt.ls.extension.core.internal;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.eclipse.che.jdt.ls.extension.api.dto.ExtendedSymbolInformation;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.jdt.core.ElementChangedEvent;
+import org.eclipse.jdt.core.IElementChangedListener;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IJavaElementDelta;
+import org.eclipse.jdt.core.IPackageFragmentRoot;
+import org.eclipse.jdt.core.IType;
+import org.eclipse.jdt.core.ITypeHierarchy;
+import org.eclipse.jdt.core.ITypeHierarchyChangedListener;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.core.JavaModelException;
+
+/**
+ * LRU caches for file structures showing inherited members. Supertype hierarchies are kept by the
+ * handle of their focus type and dropped when the hierarchy reports a change. The rendered members
+ * of supertypes from archives, e.g. the JDK or Maven dependencies, are kept until the classpath
+ * changes, as the content of an archive doesn't change otherwise.
+ */
+final class SupertypeHierarchyCache
+    implements IElementChangedListener, ITypeHierarchyChangedListener {
+  private static final int CLASSPATH_FLAGS =
+      IJavaElementDelta.F_CLASSPATH_CHANGED
+          | IJavaElementDelta.F_RESOLVED_CLASSPATH_CHANGED
+          | IJavaElementDelta.F_ARCHIVE_CONTENT_CHANGED
+          | IJavaElementDelta.F_OPENED
+          | IJavaElementDelta.F_CLOSED;
+
+  private final Map<String, ITypeHierarchy> hierarchies = new LinkedHashMap<>(16, 0.75f, true);
+  private final Map<String, List<ExtendedSymbolInformation>> members =
+      new LinkedHashMap<>(16, 0.75f, true);
+  private final int maxHierarchies;
+  private final int maxTypes;
+  // changes whenever a hierarchy or the classpath changes, so nothing computed before is cached
+  private long version;
+
+  /**
+   * @param maxHierarchies maximum number of cached supertype hierarchies
+   * @param maxTypes maximum number of library types to cache the members of
+   */
+  SupertypeHierarchyCache(int maxHierarchies, int maxTypes) {
+    this.maxHierarchies = maxHierarchies;
+    this.maxTypes = maxTypes;
+  }
+
+  /** Starts listening to classpath changes. */
+  void install() {
+    JavaCore.addElementChangedListener(this, ElementChangedEvent.POST_CHANGE);
+  }
+
+  /** Stops listening to changes and drops all the hierarchies and members. */
+  void uninstall() {
+    JavaCore.removeElementChangedListener(this);
+    clear();
+  }
+
+  /** Returns the supertype hierarchy of the type, computing it if it isn't cached. */
+  ITypeHierarchy getHierarchy(IType type, IProgressMonitor pm) throws JavaModelException {
+    String handle = type.getHandleIdentifier();
+    long current;
+    synchronized (this) {
+      ITypeHierarchy hierarchy = hierarchies.get(handle);
+      if (hierarchy != null) {
+        return hierarchy;
+      }
+      current = version;
+    }
+    ITypeHierarchy hierarchy = type.newSupertypeHierarchy(pm);
+    hierarchy.addTypeHierarchyChangedListener(this);
+    synchronized (this) {
+      if (current != version) {
+        hierarchy.removeTypeHierarchyChangedListener(this);
+        return hierarchy;
+      }
+      ITypeHierarchy previous = hierarchies.put(handle, hierarchy);
+      if (previous != null) {
+        previous.removeTypeHierarchyChangedListener(this);
+      }
+      if (hierarchies.size() > maxHierarchies) {
+        Iterator<ITypeHierarchy> eldest = hierarchies.values().iterator();
+        eldest.next().removeTypeHierarchyChangedListener(this);
+        eldest.remove();
+      }
+    }
+    return hierarchy;
+  }
+
+  /**
+   * Returns the rendered members of a supertype, or {@code null} if they aren't cached. The result
+   * is shared and mustn't be modified.
+   */
+  synchronized List<ExtendedSymbolInformation> getMembers(IType type) {
+    return members.get(type.getHandleIdentifier());
+  }
+
+  /**
+   * Returns the version of the cache, which changes whenever the classpath or a hierarchy changes.
+   * It is taken before members are rendered and passed to {@link #putMembers}.
+   */
+  synchronized long getVersion() {
+    return version;
+  }
+
+  /**
+   * Stores the rendered members of a supertype if it is in an archive and the classpath hasn't
+   * changed since the rendering started.
+   */
+  void putMembers(IType type, long version, List<ExtendedSymbolInformation> rendered) {
+    IPackageFragmentRoot root =
+        (IPackageFragmentRoot) type.getAncestor(IJavaElement.PACKAGE_FRAGMENT_ROOT);
+    if (root == null || !root.isArchive()) {
+      return;
+    }
+    synchronized (this) {
+      if (version != this.version) {
+        return;
+      }
+      members.put(type.getHandleIdentifier(), rendered);
+      if (members.size() > maxTypes) {
+        Iterator<List<ExtendedSymbolInformation>> eldest = members.values().iterator();
+        eldest.next();
+        eldest.remove();
+      }
+    }
+  }
+
+  /** Drops all the hierarchies and members. */
+  synchronized void clear() {
+    version++;
+    for (ITypeHierarchy hierarchy : hierarchies.values()) {
+      hierarchy.removeTypeHierarchyChangedListener(this);
+    }
+    hierarchies.clear();
+    members.clear();
+  }
+
+  /** Returns the number of cached hierarchies. */
+  synchronized int getHierarchies() {
+    return hierarchies.size();
+  }
+
+  @Override
+  public void typeHierarchyChanged(ITypeHierarchy hierarchy) {
+    hierarchy.removeTypeHierarchyChangedListener(this);
+    synchronized (this) {
+      version++;
+      hierarchies.values().removeIf(cached -> cached == hierarchy);
+    }
+  }
+
+  @Override
+  public void elementChanged(ElementChangedEvent event) {
+    if (isClasspathChange(event.getDelta())) {
+      clear();
+    }
+  }
+
+  private static boolean isClasspathChange(IJavaElementDelta delta) {
+    if ((delta.getFlags() & CLASSPATH_FLAGS) != 0) {
+      return true;
+    }
+    switch (delta.getElement().getElementType()) {
+      case IJavaElement.JAVA_MODEL:
+        break;
+      case IJavaElement.JAVA_PROJECT:
+      case IJavaElement.PACKAGE_FRAGMENT_ROOT:
+        if (delta.getKind() != IJavaElementDelta.CHANGED) {
+          return true;
+        }
+        break;
+      default:
+        return false;
+    }
+    for (IJavaElementDelta child : delta.getAffectedChildren()) {
+      if (isClasspathChange(child)) {
+        return true;
+      }
+    }
+    return false;
+  }
+}
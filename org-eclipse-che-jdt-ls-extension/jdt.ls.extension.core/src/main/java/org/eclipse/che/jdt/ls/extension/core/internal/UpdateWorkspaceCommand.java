@@ -13,7 +13,6 @@ package org.eclipse.che.jdt.ls.extension.core.internal;
 import static org.eclipse.jdt.ls.core.internal.JavaLanguageServerPlugin.getProjectsManager;
 
 import com.google.common.base.Preconditions;
-import com.google.gson.Gson;
 import java.util.List;
 import java.util.Objects;
 import java.util.stream.Collectors;
@@ -30,8 +29,6 @@ import org.eclipse.jdt.ls.core.internal.managers.ProjectsManager;
 /** @author Anatolii Bazko */
 public class UpdateWorkspaceCommand {
 
-  private static final Gson gson = GsonUtils.getInstance();
-
   /**
    * Updates eclipse workspace after adding/removing projects.
    *
@@ -46,7 +43,7 @@ public class UpdateWorkspaceCommand {
     }
 
     UpdateWorkspaceParameters updateWorkspaceParameters =
-        gson.fromJson(gson.toJson(params.get(0)), UpdateWorkspaceParameters.class);
+        JavaModelUtil.convertCommandParameter(params.get(0), UpdateWorkspaceParameters.class);
 
     ProjectsManager projectsManager = getProjectsManager();
 
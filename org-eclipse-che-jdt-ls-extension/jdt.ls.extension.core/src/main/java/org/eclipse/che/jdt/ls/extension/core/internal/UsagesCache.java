@@ -0,0 +1,204 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.jdt.ls.extension.core.internal;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.JavaModelException;
+import org.eclipse.jdt.core.search.SearchMatch;
+import org.eclipse.jdt.core.search.SearchRequestor;
+
+/**
+ * Keeps the matches of the last usages searches, along with the modification stamps of the
+ * compilation units in the scope of the searches. When an element is searched again, only the
+ * compilation units changed since the previous search need to be searched. The matches of a search
+ * are only valid for the classpath generation they have been found in, see {@link
+ * ProjectDependencyGraph#getGeneration()}. A search also keeps the declarations with the name of
+ * the searched element, its namesakes: references in unchanged units may bind differently once a
+ * changed unit adds or removes one, e.g. an overload, an override or a type shadowing an import.
+ */
+final class UsagesCache {
+  /** Stamp of a compilation unit with unsaved changes, such a unit is always searched again. */
+  static final long UNSAVED = IResource.NULL_STAMP;
+
+  private final Map<String, Usages> usages = new LinkedHashMap<>(16, 0.75f, true);
+  private final int capacity;
+
+  UsagesCache(int capacity) {
+    this.capacity = capacity;
+  }
+
+  /**
+   * Returns the usages of the previous search of the element, or {@code null} if the element hasn't
+   * been searched in the classpath generation.
+   */
+  synchronized Usages get(IJavaElement element, long generation) {
+    Usages cached = usages.get(element.getHandleIdentifier());
+    return cached != null && cached.generation == generation ? cached : null;
+  }
+
+  synchronized void put(IJavaElement element, Usages search) {
+    usages.put(element.getHandleIdentifier(), search);
+    if (usages.size() > capacity) {
+      Iterator<Usages> eldest = usages.values().iterator();
+      eldest.next();
+      eldest.remove();
+    }
+  }
+
+  synchronized void clear() {
+    usages.clear();
+  }
+
+  synchronized int size() {
+    return usages.size();
+  }
+
+  /** Returns the stamp of a compilation unit to compare with the stamp of a previous search. */
+  static long getStamp(ICompilationUnit unit) throws JavaModelException {
+    IResource resource = unit.getResource();
+    if (resource == null || (unit.isWorkingCopy() && unit.hasUnsavedChanges())) {
+      return UNSAVED;
+    }
+    return resource.getModificationStamp();
+  }
+
+  /** Matches of a search grouped by the type root they are in. */
+  static final class Usages {
+    private final long generation;
+    private final Map<ICompilationUnit, Long> stamps;
+    private final Map<IJavaElement, List<SearchMatch>> matches;
+    private final Map<ICompilationUnit, Set<String>> namesakes;
+
+    /**
+     * @param generation classpath generation of the search
+     * @param stamps stamps of the compilation units in the scope of the search, taken before the
+     *     search
+     * @param matches matches of the search
+     * @param namesakes handle identifiers of the namesakes of the searched element, by the
+     *     compilation unit declaring them
+     */
+    Usages(
+        long generation,
+        Map<ICompilationUnit, Long> stamps,
+        Map<IJavaElement, List<SearchMatch>> matches,
+        Map<ICompilationUnit, Set<String>> namesakes) {
+      this.generation = generation;
+      this.stamps = stamps;
+      this.matches = matches;
+      this.namesakes = namesakes;
+    }
+
+    /**
+     * Returns the compilation units which have unsaved changes, have changed or were added since
+     * the search.
+     *
+     * @param current stamps of the compilation units currently in the scope of the search
+     */
+    List<ICompilationUnit> getChangedUnits(Map<ICompilationUnit, Long> current) {
+      List<ICompilationUnit> changed = new ArrayList<>();
+      for (Map.Entry<ICompilationUnit, Long> entry : current.entrySet()) {
+        long stamp = entry.getValue();
+        if (stamp == UNSAVED || !Long.valueOf(stamp).equals(stamps.get(entry.getKey()))) {
+          changed.add(entry.getKey());
+        }
+      }
+      return changed;
+    }
+
+    /**
+     * Returns whether the changed compilation units declare the same namesakes of the searched
+     * element as at the time of the search.
+     *
+     * @param changed compilation units which have changed since the search
+     * @param changedNamesakes namesakes currently declared in the changed compilation units
+     */
+    boolean hasSameNamesakes(
+        Collection<ICompilationUnit> changed, Map<ICompilationUnit, Set<String>> changedNamesakes) {
+      for (ICompilationUnit unit : changed) {
+        Set<String> previous = namesakes.getOrDefault(unit, Collections.emptySet());
+        if (!previous.equals(changedNamesakes.getOrDefault(unit, Collections.emptySet()))) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    /**
+     * Returns the usages with the matches of the changed compilation units replaced by their new
+     * matches. Matches of compilation units which aren't in the scope anymore are dropped.
+     *
+     * @param current stamps of the compilation units currently in the scope of the search, taken
+     *     before the changed units have been searched
+     * @param changed compilation units which have been searched again
+     * @param changedMatches matches found in the changed compilation units
+     * @param changedNamesakes namesakes declared in the changed compilation units
+     */
+    Usages update(
+        Map<ICompilationUnit, Long> current,
+        Collection<ICompilationUnit> changed,
+        Map<IJavaElement, List<SearchMatch>> changedMatches,
+        Map<ICompilationUnit, Set<String>> changedNamesakes) {
+      Map<IJavaElement, List<SearchMatch>> updated = new HashMap<>(matches);
+      updated.keySet().removeAll(changed);
+      updated
+          .keySet()
+          .removeIf(root -> root instanceof ICompilationUnit && !current.containsKey(root));
+      updated.putAll(changedMatches);
+      Map<ICompilationUnit, Set<String>> updatedNamesakes = new HashMap<>(namesakes);
+      updatedNamesakes.keySet().removeAll(changed);
+      updatedNamesakes.keySet().retainAll(current.keySet());
+      updatedNamesakes.putAll(changedNamesakes);
+      return new Usages(generation, current, updated, updatedNamesakes);
+    }
+
+    /** Reports the matches to the requestor. */
+    void replay(SearchRequestor requestor) throws CoreException {
+      for (List<SearchMatch> rootMatches : matches.values()) {
+        for (SearchMatch match : rootMatches) {
+          requestor.acceptSearchMatch(match);
+        }
+      }
+    }
+  }
+
+  /** Collects the matches of a search grouped by the type root they are in. */
+  static final class MatchRecorder extends SearchRequestor {
+    private final Map<IJavaElement, List<SearchMatch>> matches = new HashMap<>();
+
+    @Override
+    public void acceptSearchMatch(SearchMatch match) {
+      if (match.getElement() instanceof IJavaElement) {
+        IJavaElement element = (IJavaElement) match.getElement();
+        IJavaElement root = element.getAncestor(IJavaElement.COMPILATION_UNIT);
+        if (root == null) {
+          root = element.getAncestor(IJavaElement.CLASS_FILE);
+        }
+        matches.computeIfAbsent(root, key -> new ArrayList<>()).add(match);
+      }
+    }
+
+    Map<IJavaElement, List<SearchMatch>> getMatches() {
+      return matches;
+    }
+  }
+}
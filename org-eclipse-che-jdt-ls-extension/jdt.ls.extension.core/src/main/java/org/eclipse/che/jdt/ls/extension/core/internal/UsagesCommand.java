@@ -10,25 +10,43 @@
  */
 package org.eclipse.che.jdt.ls.extension.core.internal;
 
+import com.google.gson.JsonPrimitive;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import org.eclipse.che.jdt.ls.extension.api.Commands;
+import org.eclipse.che.jdt.ls.extension.api.RangeEncoding;
+import org.eclipse.che.jdt.ls.extension.api.StringTable;
 import org.eclipse.che.jdt.ls.extension.api.dto.LinearRange;
 import org.eclipse.che.jdt.ls.extension.api.dto.SearchResult;
+import org.eclipse.che.jdt.ls.extension.api.dto.UsagesCount;
+import org.eclipse.che.jdt.ls.extension.api.dto.UsagesCountParameters;
+import org.eclipse.che.jdt.ls.extension.api.dto.UsagesPartialResult;
 import org.eclipse.che.jdt.ls.extension.api.dto.UsagesResponse;
+import org.eclipse.che.jdt.ls.extension.core.internal.index.Reference;
+import org.eclipse.che.jdt.ls.extension.core.internal.index.ReferenceIndex;
 import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IWorkspaceRoot;
 import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IPath;
 import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
 import org.eclipse.jdt.core.IClasspathContainer;
 import org.eclipse.jdt.core.IClasspathEntry;
+import org.eclipse.jdt.core.ICompilationUnit;
 import org.eclipse.jdt.core.IJavaElement;
 import org.eclipse.jdt.core.IJavaProject;
 import org.eclipse.jdt.core.IPackageFragment;
@@ -48,13 +66,16 @@ import org.eclipse.jdt.ls.core.internal.JDTUtils;
 import org.eclipse.jdt.ls.core.internal.JavaLanguageServerPlugin;
 import org.eclipse.jdt.ls.core.internal.ResourceUtils;
 import org.eclipse.jdt.ls.core.internal.hover.JavaElementLabels;
-import org.eclipse.lsp4j.Location;
+import org.eclipse.lsp4j.Position;
 import org.eclipse.lsp4j.SymbolKind;
 import org.eclipse.lsp4j.TextDocumentPositionParams;
 
 public class UsagesCommand {
-  private static final class UsagesRequestor extends SearchRequestor {
+  private static class UsagesRequestor extends SearchRequestor {
     private final Map<IJavaElement, SearchResult> results = new HashMap<>();
+    // labels of the elements and uris of the type roots, kept while the results are cleared
+    private final Map<IJavaElement, String> labels = new HashMap<>();
+    private final Map<IJavaElement, String> uris = new HashMap<>();
 
     @Override
     public void acceptSearchMatch(SearchMatch match) throws CoreException {
@@ -78,10 +99,11 @@ public class UsagesCommand {
           r.setChildren(new ArrayList<>());
           r.setMatches(new ArrayList<>());
           r.setKind(JavaModelUtil.mapKind(element));
-          r.setName(JavaElementLabels.getElementLabel(element, JavaElementLabels.ALL_DEFAULT));
+          r.setName(
+              labels.computeIfAbsent(
+                  element, e -> LabelCache.getElementLabel(e, JavaElementLabels.ALL_DEFAULT)));
           if (element instanceof ISourceReference) {
-            Location l = JDTUtils.toLocation(element);
-            r.setUri(l.getUri());
+            r.setUri(getUri(element));
             SearchResult parent = ensureCreated(element.getParent());
             parent.getChildren().add(r);
           } else if (element instanceof IPackageFragment) {
@@ -110,6 +132,22 @@ public class UsagesCommand {
       }
     }
 
+    /** Returns the uri of the element, which is the same for all elements of a type root. */
+    private String getUri(IJavaElement element) throws JavaModelException {
+      IJavaElement typeRoot = element.getAncestor(IJavaElement.COMPILATION_UNIT);
+      if (typeRoot == null) {
+        typeRoot = element.getAncestor(IJavaElement.CLASS_FILE);
+      }
+      String uri = typeRoot != null ? uris.get(typeRoot) : null;
+      if (uri == null) {
+        uri = JDTUtils.toLocation(element).getUri();
+        if (typeRoot != null) {
+          uris.put(typeRoot, uri);
+        }
+      }
+      return uri;
+    }
+
     private boolean isInteresting(IJavaElement element) {
       return INTERESTING_ELEMENT_TYPES.contains(element.getElementType());
     }
@@ -117,6 +155,91 @@ public class UsagesCommand {
     public Map<IJavaElement, SearchResult> getResults() {
       return results;
     }
+
+    /** Returns package level trees of the collected matches. */
+    public List<SearchResult> getPackageResults() {
+      return results
+          .entrySet()
+          .stream()
+          .filter(entry -> entry.getKey() instanceof IPackageFragment)
+          .map(e -> e.getValue())
+          .collect(Collectors.toList());
+    }
+  }
+
+  /**
+   * Pushes the collected matches to the client in batches, a batch is sent as soon as it holds
+   * enough matches or the previous batch has been sent long enough ago.
+   */
+  private static final class StreamingUsagesRequestor extends UsagesRequestor {
+    private static final int BATCH_SIZE = 100;
+    private static final long BATCH_INTERVAL = TimeUnit.MILLISECONDS.toNanos(200);
+
+    private final String token;
+    private final String searchedElement;
+    private final SymbolKind elementKind;
+    private final Consumer<UsagesPartialResult> client;
+    private final boolean compact;
+    private int matches;
+    private int pending;
+    private long lastSent = System.nanoTime();
+
+    private StreamingUsagesRequestor(
+        String token,
+        String searchedElement,
+        SymbolKind elementKind,
+        Consumer<UsagesPartialResult> client,
+        boolean compact) {
+      this.token = token;
+      this.searchedElement = searchedElement;
+      this.elementKind = elementKind;
+      this.client = client;
+      this.compact = compact;
+    }
+
+    @Override
+    public void acceptSearchMatch(SearchMatch match) throws CoreException {
+      if (!(match.getElement() instanceof IJavaElement)) {
+        return;
+      }
+      super.acceptSearchMatch(match);
+      matches++;
+      pending++;
+      if (pending >= BATCH_SIZE || System.nanoTime() - lastSent >= BATCH_INTERVAL) {
+        send(false, false);
+      }
+    }
+
+    private UsagesPartialResult send(boolean done, boolean canceled) {
+      List<SearchResult> results = getPackageResults();
+      List<String> strings = compact ? compact(results) : null;
+      UsagesPartialResult result =
+          new UsagesPartialResult(token, searchedElement, elementKind, results);
+      result.setStrings(strings);
+      result.setMatches(matches);
+      result.setDone(done);
+      result.setCanceled(canceled);
+      getResults().clear();
+      pending = 0;
+      lastSent = System.nanoTime();
+      client.accept(result);
+      return result;
+    }
+  }
+
+  /** Counts matches per project, without computing labels or locations of the matches. */
+  private static final class CountingRequestor extends SearchRequestor {
+    private final Map<String, Integer> projects = new HashMap<>();
+    private int count;
+
+    @Override
+    public void acceptSearchMatch(SearchMatch match) {
+      Object o = match.getElement();
+      if (o instanceof IJavaElement) {
+        count++;
+        projects.merge(((IJavaElement) o).getJavaProject().getElementName(), 1, Integer::sum);
+      }
+    }
   }
 
   private static final Set<Integer> INTERESTING_ELEMENT_TYPES;
@@ -131,61 +254,569 @@ public class UsagesCommand {
     INTERESTING_ELEMENT_TYPES.add(IJavaElement.PACKAGE_FRAGMENT);
   }
 
+  /** Pool the partitions of a usages search are searched on. */
+  private static final ForkJoinPool SEARCH_POOL =
+      new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+
+  /** Limits the search to the projects which may reference the searched element. */
+  static final ProjectDependencyGraph dependencyGraph = new ProjectDependencyGraph();
+
+  /** Answers usages of elements declared in workspace sources without running the search engine. */
+  static final ReferenceIndex referenceIndex = new ReferenceIndex();
+
+  /** Matches of the last searches, updated by searching the changed compilation units. */
+  static final UsagesCache usagesCache = new UsagesCache(16);
+
+  /** Results of paginated searches, kept for the following pages. */
+  static final UsagesPages pages = new UsagesPages(32, 5, TimeUnit.MINUTES);
+
   public static List<UsagesResponse> execute(List<Object> parameters, IProgressMonitor pm) {
+    return execute(parameters, SEARCH_POOL, pm);
+  }
+
+  /**
+   * Searches usages. The search scope is split into partitions of package fragment roots which are
+   * searched in parallel on the given pool. If the element has been searched before, only the
+   * compilation units changed since are searched.
+   *
+   * @param parameters first parameter must be of type TextDocumentPositionParams, the optional
+   *     second one is the number of matches of a page. If the search has more matches, the first
+   *     page is returned with a cursor for {@link #nextPage}. The optional third parameter requests
+   *     the compact encoding of the results, matches packed by {@link RangeEncoding} and strings in
+   *     a {@link StringTable}, if {@code true}
+   * @param pool pool to search the partitions on, a pool with parallelism {@code 1} searches the
+   *     whole scope at once on the calling thread
+   * @param pm a progress monitor
+   */
+  static List<UsagesResponse> execute(
+      List<Object> parameters, ForkJoinPool pool, IProgressMonitor pm) {
     TextDocumentPositionParams param =
         JavaModelUtil.convertCommandParameter(parameters.get(0), TextDocumentPositionParams.class);
-    SearchEngine engine = new SearchEngine();
 
     try {
       ITypeRoot typeRoot = JDTUtils.resolveTypeRoot(param.getTextDocument().getUri());
-      IJavaElement elementToSearch =
-          JDTUtils.findElementAtSelection(
-              typeRoot,
-              param.getPosition().getLine(),
-              param.getPosition().getCharacter(),
-              JavaLanguageServerPlugin.getPreferencesManager(),
-              pm);
+      IJavaElement elementToSearch = findElementToSearch(typeRoot, param.getPosition(), pm);
 
       if (elementToSearch == null) {
         return Collections.emptyList();
       }
-      IJavaProject[] projects =
-          JavaCore.create(ResourcesPlugin.getWorkspace().getRoot()).getJavaProjects();
-      int flags = IJavaSearchScope.SOURCES | IJavaSearchScope.APPLICATION_LIBRARIES;
-      if (isInsideJRE(typeRoot)) {
-        flags |= IJavaSearchScope.SYSTEM_LIBRARIES;
+      ReferenceIndex.Lookup lookup =
+          referenceIndex.find(elementToSearch, getSearchedProjects(elementToSearch));
+      UsagesRequestor requestor = new UsagesRequestor();
+      if (lookup != null) {
+        search(typeRoot, elementToSearch, lookup, requestor, pm);
+      } else {
+        searchIncrementally(typeRoot, elementToSearch, pool, pm).replay(requestor);
+      }
+      List<SearchResult> results = requestor.getPackageResults();
+
+      String searchTerm =
+          LabelCache.getElementLabel(elementToSearch, JavaElementLabels.ALL_DEFAULT);
+      SymbolKind elementKind = JavaModelUtil.mapKind(elementToSearch);
+      UsagesResponse response = new UsagesResponse(searchTerm, elementKind, results);
+      Integer pageSize =
+          parameters.size() > 1
+              ? JavaModelUtil.convertCommandParameter(parameters.get(1), Integer.class)
+              : null;
+      if (pageSize != null) {
+        response = pages.firstPage(response, pageSize);
+      }
+      if (isCompact(parameters, 2)) {
+        response.setStrings(compact(response.getSearchResults()));
+      }
+      return Collections.singletonList(response);
+    } catch (CoreException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  /**
+   * Returns a page of a paginated usages search, without searching again.
+   *
+   * @param parameters first parameter is the cursor of the page, the optional second one is the
+   *     number of matches of the page, by default the page size of the first page. The optional
+   *     third parameter requests the compact encoding of the results, matches packed by {@link
+   *     RangeEncoding} and strings in a {@link StringTable}, if {@code true}
+   * @param pm a progress monitor
+   * @throws IllegalArgumentException if the results of the search have expired
+   */
+  public static List<UsagesResponse> nextPage(List<Object> parameters, IProgressMonitor pm) {
+    String cursor = JavaModelUtil.convertCommandParameter(parameters.get(0), String.class);
+    Integer pageSize =
+        parameters.size() > 1
+            ? JavaModelUtil.convertCommandParameter(parameters.get(1), Integer.class)
+            : null;
+    UsagesResponse page = pages.page(cursor, pageSize);
+    if (isCompact(parameters, 2)) {
+      page.setStrings(compact(page.getSearchResults()));
+    }
+    return Collections.singletonList(page);
+  }
+
+  /** Converts a progress token, which the client may send as a string or as a number. */
+  private static String getToken(Object token) {
+    if (token instanceof JsonPrimitive) {
+      return ((JsonPrimitive) token).getAsString();
+    }
+    if (token instanceof Double && (Double) token == Math.rint((Double) token)) {
+      // numbers of parameters deserialized without a type are doubles
+      return String.valueOf(((Double) token).longValue());
+    }
+    return String.valueOf(token);
+  }
+
+  /** Tells whether the optional parameter at the index requests the compact encoding. */
+  private static boolean isCompact(List<Object> parameters, int index) {
+    return parameters.size() > index
+        && Boolean.TRUE.equals(
+            JavaModelUtil.convertCommandParameter(parameters.get(index), Boolean.class));
+  }
+
+  /**
+   * Converts search results to the compact encoding: the matches are packed by {@link
+   * RangeEncoding}, uris and names are replaced by indexes into a {@link StringTable}.
+   *
+   * @return the string table
+   */
+  private static List<String> compact(List<SearchResult> results) {
+    RangeEncoding.pack(results);
+    return StringTable.pack(results);
+  }
+
+  /**
+   * Counts references of the elements at the given positions of a document. Runs the same search as
+   * {@link #execute(List, IProgressMonitor)}, the elements are searched in parallel.
+   *
+   * @param parameters first parameter must be of type UsagesCountParameters
+   * @param pm a progress monitor
+   * @return a count for every requested position, in the order of the positions
+   */
+  public static List<UsagesCount> count(List<Object> parameters, IProgressMonitor pm) {
+    UsagesCountParameters params =
+        JavaModelUtil.convertCommandParameter(parameters.get(0), UsagesCountParameters.class);
+    ITypeRoot typeRoot = JDTUtils.resolveTypeRoot(params.getUri());
+    IProgressMonitor monitor = Utils.shareCancellation(pm);
+
+    List<Callable<UsagesCount>> tasks = new ArrayList<>(params.getPositions().size());
+    for (Position position : params.getPositions()) {
+      tasks.add(() -> count(typeRoot, position, monitor));
+    }
+    try {
+      return Utils.invokeAll(SEARCH_POOL, tasks);
+    } catch (CoreException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  private static UsagesCount count(ITypeRoot typeRoot, Position position, IProgressMonitor pm)
+      throws CoreException {
+    IJavaElement elementToSearch =
+        typeRoot != null ? findElementToSearch(typeRoot, position, pm) : null;
+    if (elementToSearch == null) {
+      return new UsagesCount(position, 0, Collections.emptyMap());
+    }
+    CountingRequestor requestor = new CountingRequestor();
+    search(typeRoot, elementToSearch, requestor, pm);
+    return new UsagesCount(position, requestor.count, requestor.projects);
+  }
+
+  /**
+   * Searches usages and sends the matches to the client in batches while the search is running, see
+   * {@link Commands#USAGES_PARTIAL_RESULT_NOTIFICATION}. The last notification is the summary of
+   * the search.
+   *
+   * @param parameters first parameter must be of type TextDocumentPositionParams, second one is a
+   *     token, a string or a number, the client uses to identify notifications of the search. The
+   *     optional third parameter requests the compact encoding of the results, matches packed by
+   *     {@link RangeEncoding} and strings in a {@link StringTable}, if {@code true}
+   * @param pm a progress monitor
+   * @return summary of the search, the same as the last notification
+   */
+  public static UsagesPartialResult executeStreaming(List<Object> parameters, IProgressMonitor pm) {
+    return executeStreaming(
+        parameters,
+        result ->
+            JavaLanguageServerPlugin.getInstance()
+                .getClientConnection()
+                .sendNotification(Commands.USAGES_PARTIAL_RESULT_NOTIFICATION, result),
+        pm);
+  }
+
+  static UsagesPartialResult executeStreaming(
+      List<Object> parameters, Consumer<UsagesPartialResult> client, IProgressMonitor pm) {
+    TextDocumentPositionParams param =
+        JavaModelUtil.convertCommandParameter(parameters.get(0), TextDocumentPositionParams.class);
+    String token = getToken(parameters.get(1));
+
+    try {
+      ITypeRoot typeRoot = JDTUtils.resolveTypeRoot(param.getTextDocument().getUri());
+      IJavaElement elementToSearch = findElementToSearch(typeRoot, param.getPosition(), pm);
+
+      if (elementToSearch == null) {
+        UsagesPartialResult result =
+            new UsagesPartialResult(token, null, null, Collections.emptyList());
+        result.setDone(true);
+        client.accept(result);
+        return result;
+      }
+      StreamingUsagesRequestor requestor =
+          new StreamingUsagesRequestor(
+              token,
+              LabelCache.getElementLabel(elementToSearch, JavaElementLabels.ALL_DEFAULT),
+              JavaModelUtil.mapKind(elementToSearch),
+              client,
+              isCompact(parameters, 2));
+      try {
+        search(typeRoot, elementToSearch, requestor, pm);
+      } catch (OperationCanceledException e) {
+        requestor.send(true, true);
+        throw e;
+      }
+      return requestor.send(true, false);
+    } catch (CoreException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  /**
+   * Splits the scope of {@link #search} into at most {@code count} partitions. Package fragment
+   * roots shared by several projects are searched only once, like in a scope over all the projects.
+   */
+  private static List<IJavaSearchScope> partitionScope(
+      ITypeRoot typeRoot, IJavaElement elementToSearch, int count) throws JavaModelException {
+    boolean includeJre = isInsideJRE(typeRoot);
+    Map<IPath, IPackageFragmentRoot> roots = new LinkedHashMap<>();
+    for (IJavaProject project : getSearchedProjects(elementToSearch)) {
+      for (IPackageFragmentRoot root : project.getPackageFragmentRoots()) {
+        if (root.getKind() == IPackageFragmentRoot.K_SOURCE || includeJre || !isInsideJRE(root)) {
+          roots.putIfAbsent(root.getPath(), root);
+        }
+      }
+    }
+
+    int partitionCount = Math.min(count, roots.size());
+    List<List<IJavaElement>> partitions = new ArrayList<>(partitionCount);
+    for (int i = 0; i < partitionCount; i++) {
+      partitions.add(new ArrayList<>());
+    }
+    int i = 0;
+    for (IPackageFragmentRoot root : roots.values()) {
+      partitions.get(i++ % partitionCount).add(root);
+    }
+    return partitions
+        .stream()
+        .map(elements -> SearchEngine.createJavaSearchScope(elements.toArray(new IJavaElement[0])))
+        .collect(Collectors.toList());
+  }
+
+  /**
+   * Searches usages of the element with the search engine. If the element has been searched before
+   * in the same classpath, only the compilation units changed since are searched, the matches in
+   * the other compilation units and in libraries are taken from the previous search. Everything is
+   * searched again when the compilation unit declaring the element has changed, or when a changed
+   * unit added or removed a namesake of the element.
+   */
+  private static UsagesCache.Usages searchIncrementally(
+      ITypeRoot typeRoot, IJavaElement elementToSearch, ForkJoinPool pool, IProgressMonitor pm)
+      throws CoreException {
+    long generation = dependencyGraph.getGeneration();
+    IJavaProject[] projects = getSearchedProjects(elementToSearch);
+    Map<ICompilationUnit, Long> stamps = getStamps(projects);
+    UsagesCache.Usages usages = usagesCache.get(elementToSearch, generation);
+    List<ICompilationUnit> changed = usages != null ? usages.getChangedUnits(stamps) : null;
+    ICompilationUnit declaring =
+        (ICompilationUnit) elementToSearch.getAncestor(IJavaElement.COMPILATION_UNIT);
+    if (changed != null && declaring != null && changed.contains(declaring.getPrimary())) {
+      // references in unchanged units may bind differently now, e.g. to an added overload
+      changed = null;
+    }
+    if (changed != null && changed.size() * 2 <= stamps.size()) {
+      UsagesCache.MatchRecorder recorder = new UsagesCache.MatchRecorder();
+      Map<ICompilationUnit, Set<String>> namesakes = Collections.emptyMap();
+      if (!changed.isEmpty()) {
+        IJavaSearchScope scope =
+            SearchEngine.createJavaSearchScope(changed.toArray(new IJavaElement[0]));
+        namesakes = findNamesakes(elementToSearch, scope, pm);
+        if (!usages.hasSameNamesakes(changed, namesakes)) {
+          // e.g. an overload or an override added in another unit
+          return searchAll(typeRoot, elementToSearch, generation, projects, stamps, pool, pm);
+        }
+        search(
+            SearchPattern.createPattern(elementToSearch, IJavaSearchConstants.REFERENCES),
+            scope,
+            recorder,
+            pm);
+      }
+      usages = usages.update(stamps, changed, recorder.getMatches(), namesakes);
+      usagesCache.put(elementToSearch, usages);
+      return usages;
+    }
+    return searchAll(typeRoot, elementToSearch, generation, projects, stamps, pool, pm);
+  }
+
+  /** Searches the whole scope and caches the usages. */
+  private static UsagesCache.Usages searchAll(
+      ITypeRoot typeRoot,
+      IJavaElement elementToSearch,
+      long generation,
+      IJavaProject[] projects,
+      Map<ICompilationUnit, Long> stamps,
+      ForkJoinPool pool,
+      IProgressMonitor pm)
+      throws CoreException {
+    Map<ICompilationUnit, Set<String>> namesakes =
+        findNamesakes(
+            elementToSearch,
+            SearchEngine.createJavaSearchScope(projects, IJavaSearchScope.SOURCES),
+            pm);
+    UsagesCache.Usages usages =
+        new UsagesCache.Usages(
+            generation, stamps, searchAll(typeRoot, elementToSearch, pool, pm), namesakes);
+    usagesCache.put(elementToSearch, usages);
+    return usages;
+  }
+
+  /**
+   * Finds the source declarations with the name and the kind of the element, by the primary
+   * compilation unit they are declared in. Only methods, types and fields have namesakes which can
+   * change the binding of references in other units.
+   */
+  private static Map<ICompilationUnit, Set<String>> findNamesakes(
+      IJavaElement element, IJavaSearchScope scope, IProgressMonitor pm) throws CoreException {
+    int searchFor;
+    switch (element.getElementType()) {
+      case IJavaElement.METHOD:
+        searchFor = IJavaSearchConstants.METHOD;
+        break;
+      case IJavaElement.TYPE:
+        searchFor = IJavaSearchConstants.TYPE;
+        break;
+      case IJavaElement.FIELD:
+        searchFor = IJavaSearchConstants.FIELD;
+        break;
+      default:
+        return Collections.emptyMap();
+    }
+    Map<ICompilationUnit, Set<String>> namesakes = new HashMap<>();
+    search(
+        SearchPattern.createPattern(
+            element.getElementName(),
+            searchFor,
+            IJavaSearchConstants.DECLARATIONS,
+            SearchPattern.R_EXACT_MATCH | SearchPattern.R_CASE_SENSITIVE),
+        scope,
+        new SearchRequestor() {
+          @Override
+          public void acceptSearchMatch(SearchMatch match) {
+            if (match.getElement() instanceof IJavaElement) {
+              IJavaElement declaration = (IJavaElement) match.getElement();
+              ICompilationUnit unit =
+                  (ICompilationUnit) declaration.getAncestor(IJavaElement.COMPILATION_UNIT);
+              if (unit != null) {
+                namesakes
+                    .computeIfAbsent(unit.getPrimary(), key -> new HashSet<>())
+                    .add(declaration.getHandleIdentifier());
+              }
+            }
+          }
+        },
+        pm);
+    return namesakes;
+  }
+
+  /** Returns the stamps of the compilation units in the source folders of the projects. */
+  private static Map<ICompilationUnit, Long> getStamps(IJavaProject[] projects)
+      throws JavaModelException {
+    Map<ICompilationUnit, Long> stamps = new HashMap<>();
+    for (IJavaProject project : projects) {
+      for (IPackageFragmentRoot root : project.getPackageFragmentRoots()) {
+        if (root.getKind() != IPackageFragmentRoot.K_SOURCE) {
+          continue;
+        }
+        for (IJavaElement fragment : root.getChildren()) {
+          for (ICompilationUnit unit : ((IPackageFragment) fragment).getCompilationUnits()) {
+            stamps.put(unit, UsagesCache.getStamp(unit));
+          }
+        }
+      }
+    }
+    return stamps;
+  }
+
+  private static Map<IJavaElement, List<SearchMatch>> searchAll(
+      ITypeRoot typeRoot, IJavaElement elementToSearch, ForkJoinPool pool, IProgressMonitor pm)
+      throws CoreException {
+    List<IJavaSearchScope> partitions =
+        pool.getParallelism() > 1
+            ? partitionScope(typeRoot, elementToSearch, pool.getParallelism() * 2)
+            : Collections.emptyList();
+    if (partitions.size() > 1) {
+      return searchInParallel(elementToSearch, partitions, pool, pm);
+    }
+    UsagesCache.MatchRecorder recorder = new UsagesCache.MatchRecorder();
+    search(typeRoot, elementToSearch, null, recorder, pm);
+    return recorder.getMatches();
+  }
+
+  private static Map<IJavaElement, List<SearchMatch>> searchInParallel(
+      IJavaElement elementToSearch,
+      List<IJavaSearchScope> partitions,
+      ForkJoinPool pool,
+      IProgressMonitor pm)
+      throws CoreException {
+    SearchPattern pattern =
+        SearchPattern.createPattern(elementToSearch, IJavaSearchConstants.REFERENCES);
+    IProgressMonitor partitionMonitor = Utils.shareCancellation(pm);
+    List<Callable<Map<IJavaElement, List<SearchMatch>>>> tasks = new ArrayList<>(partitions.size());
+    for (IJavaSearchScope scope : partitions) {
+      tasks.add(
+          () -> {
+            UsagesCache.MatchRecorder recorder = new UsagesCache.MatchRecorder();
+            search(pattern, scope, recorder, partitionMonitor);
+            return recorder.getMatches();
+          });
+    }
+
+    Map<IJavaElement, List<SearchMatch>> matches = new HashMap<>();
+    for (Map<IJavaElement, List<SearchMatch>> partition : Utils.invokeAll(pool, tasks)) {
+      partition.forEach(
+          (root, rootMatches) ->
+              matches.computeIfAbsent(root, key -> new ArrayList<>()).addAll(rootMatches));
+    }
+    return matches;
+  }
+
+  private static IJavaElement findElementToSearch(
+      ITypeRoot typeRoot, Position position, IProgressMonitor pm) throws JavaModelException {
+    return JDTUtils.findElementAtSelection(
+        typeRoot,
+        position.getLine(),
+        position.getCharacter(),
+        JavaLanguageServerPlugin.getPreferencesManager(),
+        pm);
+  }
+
+  private static void search(
+      ITypeRoot typeRoot,
+      IJavaElement elementToSearch,
+      SearchRequestor requestor,
+      IProgressMonitor pm)
+      throws CoreException {
+    ReferenceIndex.Lookup lookup =
+        referenceIndex.find(elementToSearch, getSearchedProjects(elementToSearch));
+    search(typeRoot, elementToSearch, lookup, requestor, pm);
+  }
+
+  /**
+   * Searches references of the element. If the reference index could answer the query, the
+   * references it knows are reported and only the compilation units it is stale for are searched.
+   */
+  private static void search(
+      ITypeRoot typeRoot,
+      IJavaElement elementToSearch,
+      ReferenceIndex.Lookup lookup,
+      SearchRequestor requestor,
+      IProgressMonitor pm)
+      throws CoreException {
+    if (lookup != null) {
+      searchIndexed(elementToSearch, lookup, requestor, pm);
+      return;
+    }
+    IJavaProject[] projects = getSearchedProjects(elementToSearch);
+    int flags = IJavaSearchScope.SOURCES | IJavaSearchScope.APPLICATION_LIBRARIES;
+    if (isInsideJRE(typeRoot)) {
+      flags |= IJavaSearchScope.SYSTEM_LIBRARIES;
+    }
+    IJavaSearchScope scope = SearchEngine.createJavaSearchScope(projects, flags);
+
+    SearchPattern pattern =
+        SearchPattern.createPattern(elementToSearch, IJavaSearchConstants.REFERENCES);
+    search(pattern, scope, requestor, pm);
+  }
+
+  /**
+   * Reports the references known to the index as search matches. A file with a reference whose
+   * enclosing element doesn't exist anymore is searched instead, like the stale files.
+   */
+  private static void searchIndexed(
+      IJavaElement elementToSearch,
+      ReferenceIndex.Lookup lookup,
+      SearchRequestor requestor,
+      IProgressMonitor pm)
+      throws CoreException {
+    SearchParticipant participant = SearchEngine.getDefaultSearchParticipant();
+    Map<String, List<SearchMatch>> matches = new LinkedHashMap<>();
+    Set<String> invalid = new HashSet<>();
+    for (Reference reference : lookup.getReferences()) {
+      IJavaElement element = reference.getEnclosingElement();
+      if (element == null || !element.exists()) {
+        invalid.add(reference.getFile());
+      } else {
+        matches
+            .computeIfAbsent(reference.getFile(), file -> new ArrayList<>())
+            .add(
+                new SearchMatch(
+                    element,
+                    SearchMatch.A_ACCURATE,
+                    reference.getOffset(),
+                    reference.getLength(),
+                    participant,
+                    element.getResource()));
+      }
+    }
+    for (Map.Entry<String, List<SearchMatch>> entry : matches.entrySet()) {
+      if (pm != null && pm.isCanceled()) {
+        throw new OperationCanceledException();
+      }
+      if (!invalid.contains(entry.getKey())) {
+        for (SearchMatch match : entry.getValue()) {
+          requestor.acceptSearchMatch(match);
+        }
       }
-      IJavaSearchScope scope = SearchEngine.createJavaSearchScope(projects, flags);
+    }
 
+    List<IJavaElement> stale = new ArrayList<>(lookup.getStaleUnits());
+    IWorkspaceRoot root = ResourcesPlugin.getWorkspace().getRoot();
+    for (String file : invalid) {
+      ICompilationUnit unit =
+          JavaCore.createCompilationUnitFrom(root.getFile(root.getFullPath().append(file)));
+      if (unit != null) {
+        stale.add(unit);
+      }
+    }
+    if (!stale.isEmpty()) {
       SearchPattern pattern =
           SearchPattern.createPattern(elementToSearch, IJavaSearchConstants.REFERENCES);
-      UsagesRequestor requestor = new UsagesRequestor();
-      engine.search(
+      search(
           pattern,
-          new SearchParticipant[] {SearchEngine.getDefaultSearchParticipant()},
-          scope,
+          SearchEngine.createJavaSearchScope(stale.toArray(new IJavaElement[0])),
           requestor,
           pm);
-
-      String searchTerm =
-          JavaElementLabels.getElementLabel(elementToSearch, JavaElementLabels.ALL_DEFAULT);
-      SymbolKind elementKind = JavaModelUtil.mapKind(elementToSearch);
-      return Collections.singletonList(
-          new UsagesResponse(
-              searchTerm,
-              elementKind,
-              requestor
-                  .getResults()
-                  .entrySet()
-                  .stream()
-                  .filter(entry -> entry.getKey() instanceof IPackageFragment)
-                  .map(e -> e.getValue())
-                  .collect(Collectors.toList())));
-    } catch (CoreException e) {
-      throw new RuntimeException(e);
     }
   }
 
+  /**
+   * Returns the projects which may reference the element: the declaring project or the projects
+   * using the declaring library, and the projects depending on those. JRE elements may be
+   * referenced from anywhere.
+   */
+  private static IJavaProject[] getSearchedProjects(IJavaElement elementToSearch)
+      throws JavaModelException {
+    return dependencyGraph.getReferencingProjects(elementToSearch, isInsideJRE(elementToSearch));
+  }
+
+  private static void search(
+      SearchPattern pattern, IJavaSearchScope scope, SearchRequestor requestor, IProgressMonitor pm)
+      throws CoreException {
+    new SearchEngine()
+        .search(
+            pattern,
+            new SearchParticipant[] {SearchEngine.getDefaultSearchParticipant()},
+            scope,
+            requestor,
+            pm);
+  }
+
   private static boolean isInsideJRE(IJavaElement element) {
     IPackageFragmentRoot root =
         (IPackageFragmentRoot) element.getAncestor(IJavaElement.PACKAGE_FRAGMENT_ROOT);
@@ -0,0 +1,188 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.jdt.ls.extension.core.internal;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import org.eclipse.che.jdt.ls.extension.api.dto.LinearRange;
+import org.eclipse.che.jdt.ls.extension.api.dto.SearchResult;
+import org.eclipse.che.jdt.ls.extension.api.dto.UsagesResponse;
+import org.eclipse.lsp4j.SymbolKind;
+
+/**
+ * Keeps the results of paginated usages searches. A page holds up to a page size of matches, along
+ * with the search result nodes leading to them. The cursor returned with a page locates the next
+ * page, so a page can be requested again, e.g. after a failed request, as long as the results are
+ * kept. Results which haven't been accessed for the time to live are dropped, so are the least
+ * recently accessed results if there are too many.
+ */
+final class UsagesPages {
+  private final Map<String, Results> results = new LinkedHashMap<>(16, 0.75f, true);
+  private final int capacity;
+  private final long timeToLive;
+  private final LongSupplier clock;
+
+  UsagesPages(int capacity, long timeToLive, TimeUnit unit) {
+    this(capacity, unit.toNanos(timeToLive), System::nanoTime);
+  }
+
+  UsagesPages(int capacity, long timeToLiveNanos, LongSupplier clock) {
+    this.capacity = capacity;
+    this.timeToLive = timeToLiveNanos;
+    this.clock = clock;
+  }
+
+  /**
+   * Returns the first page of a search. If the search has more matches than fit in a page, the
+   * results are kept and the page has a cursor.
+   *
+   * @param response the complete results of the search
+   * @param pageSize maximal number of matches of a page
+   */
+  synchronized UsagesResponse firstPage(UsagesResponse response, int pageSize) {
+    if (pageSize <= 0) {
+      throw new IllegalArgumentException("Page size must be positive: " + pageSize);
+    }
+    Results search = new Results(response, pageSize);
+    if (search.matches.size() <= pageSize) {
+      response.setTotalMatches(search.matches.size());
+      return response;
+    }
+    expire();
+    String id = UUID.randomUUID().toString();
+    results.put(id, search);
+    if (results.size() > capacity) {
+      Iterator<Results> eldest = results.values().iterator();
+      eldest.next();
+      eldest.remove();
+    }
+    return search.page(id, 0, pageSize);
+  }
+
+  /**
+   * Returns the page at the cursor.
+   *
+   * @param cursor cursor of a page returned before
+   * @param pageSize maximal number of matches of the page, or {@code null} for the page size of the
+   *     first page
+   * @throws IllegalArgumentException if the cursor is unknown or its results have expired
+   */
+  synchronized UsagesResponse page(String cursor, Integer pageSize) {
+    expire();
+    int separator = cursor.lastIndexOf(':');
+    Results search = separator > 0 ? results.get(cursor.substring(0, separator)) : null;
+    if (search == null) {
+      throw new IllegalArgumentException("Unknown or expired usages cursor: " + cursor);
+    }
+    int offset;
+    try {
+      offset = Integer.parseInt(cursor.substring(separator + 1));
+    } catch (NumberFormatException e) {
+      throw new IllegalArgumentException("Malformed usages cursor: " + cursor, e);
+    }
+    search.lastAccess = clock.getAsLong();
+    return search.page(
+        cursor.substring(0, separator),
+        offset,
+        pageSize != null && pageSize > 0 ? pageSize : search.pageSize);
+  }
+
+  /** Returns the number of searches whose results are kept. */
+  synchronized int size() {
+    expire();
+    return results.size();
+  }
+
+  private void expire() {
+    long now = clock.getAsLong();
+    results.values().removeIf(search -> now - search.lastAccess > timeToLive);
+  }
+
+  private final class Results {
+    private final String searchedElement;
+    private final SymbolKind elementKind;
+    private final int pageSize;
+    private final List<Match> matches = new ArrayList<>();
+    private long lastAccess = clock.getAsLong();
+
+    private Results(UsagesResponse response, int pageSize) {
+      this.searchedElement = response.getSearchedElement();
+      this.elementKind = response.getElementKind();
+      this.pageSize = pageSize;
+      for (SearchResult result : response.getSearchResults()) {
+        flatten(result, new ArrayList<>());
+      }
+    }
+
+    private void flatten(SearchResult result, List<SearchResult> parents) {
+      List<SearchResult> path = new ArrayList<>(parents.size() + 1);
+      path.addAll(parents);
+      path.add(result);
+      for (LinearRange range : result.getMatches()) {
+        matches.add(new Match(path, range));
+      }
+      for (SearchResult child : result.getChildren()) {
+        flatten(child, path);
+      }
+    }
+
+    /** Rebuilds the result trees of the matches of a page. */
+    private UsagesResponse page(String id, int offset, int pageSize) {
+      int end = Math.min(matches.size(), offset + pageSize);
+      List<SearchResult> roots = new ArrayList<>();
+      Map<SearchResult, SearchResult> copies = new IdentityHashMap<>();
+      for (Match match : matches.subList(Math.min(offset, end), end)) {
+        SearchResult parent = null;
+        for (SearchResult node : match.path) {
+          SearchResult copy = copies.get(node);
+          if (copy == null) {
+            copy = copyWithoutContent(node);
+            copies.put(node, copy);
+            (parent == null ? roots : parent.getChildren()).add(copy);
+          }
+          parent = copy;
+        }
+        parent.getMatches().add(match.range);
+      }
+      UsagesResponse page = new UsagesResponse(searchedElement, elementKind, roots);
+      page.setTotalMatches(matches.size());
+      page.setCursor(end < matches.size() ? id + ':' + end : null);
+      return page;
+    }
+  }
+
+  private static SearchResult copyWithoutContent(SearchResult result) {
+    SearchResult copy = new SearchResult();
+    copy.setKind(result.getKind());
+    copy.setName(result.getName());
+    copy.setUri(result.getUri());
+    copy.setChildren(new ArrayList<>());
+    copy.setMatches(new ArrayList<>());
+    return copy;
+  }
+
+  private static final class Match {
+    private final List<SearchResult> path;
+    private final LinearRange range;
+
+    private Match(List<SearchResult> path, LinearRange range) {
+      this.path = path;
+      this.range = range;
+    }
+  }
+}
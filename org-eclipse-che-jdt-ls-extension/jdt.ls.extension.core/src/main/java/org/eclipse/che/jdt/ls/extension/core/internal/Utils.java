@@ -10,7 +10,15 @@
  */
 package org.eclipse.che.jdt.ls.extension.core.internal;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.NullProgressMonitor;
 import org.eclipse.core.runtime.OperationCanceledException;
 
 /** Utils class for common methods. */
@@ -26,4 +34,46 @@ public class Utils {
       throw new OperationCanceledException();
     }
   }
+
+  /**
+   * Returns a monitor for tasks running in parallel. Progress reporting isn't thread safe, so the
+   * tasks share only the cancellation.
+   */
+  public static IProgressMonitor shareCancellation(IProgressMonitor pm) {
+    return new NullProgressMonitor() {
+      @Override
+      public boolean isCanceled() {
+        return pm != null && pm.isCanceled();
+      }
+    };
+  }
+
+  /**
+   * Runs the tasks on the pool and waits for all of them.
+   *
+   * @return the results of the tasks, in the order of the tasks
+   * @throws CoreException the first exception thrown by a task, unchecked ones are rethrown as is
+   */
+  public static <T> List<T> invokeAll(ForkJoinPool pool, List<Callable<T>> tasks)
+      throws CoreException {
+    List<T> results = new ArrayList<>(tasks.size());
+    try {
+      for (Future<T> task : pool.invokeAll(tasks)) {
+        results.add(task.get());
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new OperationCanceledException();
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof CoreException) {
+        throw (CoreException) cause;
+      }
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      throw new RuntimeException(cause);
+    }
+    return results;
+  }
 }
@@ -14,11 +14,10 @@ import static java.util.Collections.emptyList;
 import static org.eclipse.che.jdt.ls.extension.core.internal.Utils.ensureNotCancelled;
 
 import com.google.common.base.Preconditions;
-import com.google.gson.Gson;
 import java.util.HashMap;
 import java.util.List;
 import org.eclipse.che.jdt.ls.extension.api.dto.JdtLsPreferences;
-import org.eclipse.che.jdt.ls.extension.core.internal.GsonUtils;
+import org.eclipse.che.jdt.ls.extension.core.internal.JavaModelUtil;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.jdt.ls.core.internal.JavaLanguageServerPlugin;
 import org.eclipse.jdt.ls.core.internal.preferences.PreferenceManager;
@@ -27,15 +26,14 @@ import org.eclipse.jdt.ls.core.internal.preferences.Preferences;
 /** @author Anatolii Bazko */
 public class UpdatePreferencesCommand {
 
-  private static final Gson GSON = GsonUtils.getInstance();
-
   /** Updates JST LS configuration. */
   public static Boolean execute(List<Object> params, IProgressMonitor pm) {
     validateParams(params);
     ensureNotCancelled(pm);
 
     JdtLsPreferences currentPrefs = GetPreferencesCommand.execute(emptyList(), pm);
-    JdtLsPreferences newPrefs = GSON.fromJson(GSON.toJson(params.get(0)), JdtLsPreferences.class);
+    JdtLsPreferences newPrefs =
+        JavaModelUtil.convertCommandParameter(params.get(0), JdtLsPreferences.class);
 
     merge(currentPrefs, newPrefs);
     updatePreferences(currentPrefs);
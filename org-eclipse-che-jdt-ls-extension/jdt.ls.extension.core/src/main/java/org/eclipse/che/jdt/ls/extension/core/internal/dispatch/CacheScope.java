@@ -0,0 +1,68 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.jdt.ls.extension.core.internal.dispatch;
+
+import org.eclipse.core.runtime.IPath;
+
+/** Describes which changes of the workspace invalidate a cached command result. */
+public final class CacheScope {
+  /** Kind of data a cached result has been computed from. */
+  public enum Kind {
+    /** Content of a single document. */
+    DOCUMENT,
+    /** Sources of the whole workspace. */
+    WORKSPACE,
+    /** Classpath and structure of the projects. */
+    CLASSPATH
+  }
+
+  private static final CacheScope WORKSPACE = new CacheScope(Kind.WORKSPACE, null);
+  private static final CacheScope CLASSPATH = new CacheScope(Kind.CLASSPATH, null);
+
+  private final Kind kind;
+  private final IPath path;
+
+  private CacheScope(Kind kind, IPath path) {
+    this.kind = kind;
+    this.path = path;
+  }
+
+  /**
+   * Result depends on content of a single document, it is invalidated when the document changes.
+   *
+   * @param path full workspace path of the document
+   */
+  public static CacheScope document(IPath path) {
+    return new CacheScope(Kind.DOCUMENT, path);
+  }
+
+  /** Result depends on any source in the workspace, it is invalidated when any source changes. */
+  public static CacheScope workspace() {
+    return WORKSPACE;
+  }
+
+  /**
+   * Result depends only on the classpath of the projects, it is invalidated when a classpath or a
+   * library changes or a project is added, removed, opened or closed.
+   */
+  public static CacheScope classpath() {
+    return CLASSPATH;
+  }
+
+  public Kind getKind() {
+    return kind;
+  }
+
+  /** Returns full workspace path of the document, or {@code null} if the scope isn't a document. */
+  public IPath getPath() {
+    return path;
+  }
+}
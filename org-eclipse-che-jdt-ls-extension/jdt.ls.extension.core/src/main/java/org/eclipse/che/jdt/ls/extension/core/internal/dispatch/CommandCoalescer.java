@@ -0,0 +1,147 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.jdt.ls.extension.core.internal.dispatch;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import org.eclipse.che.jdt.ls.extension.core.internal.dispatch.CommandScheduler.Lane;
+import org.eclipse.core.runtime.IProgressMonitor;
+
+/**
+ * Shares one computation between identical commands which are executed at the same time. Commands
+ * are identical when they have the same id and equal arguments. The shared computation reports its
+ * progress to the caller which started it and is cancelled only when all the callers waiting for it
+ * have been cancelled.
+ */
+public class CommandCoalescer {
+  private final CommandScheduler scheduler;
+  private final ConcurrentMap<CommandKey, Computation> inFlight = new ConcurrentHashMap<>();
+  private final LongAdder coalesced = new LongAdder();
+
+  public CommandCoalescer(CommandScheduler scheduler) {
+    this.scheduler = scheduler;
+  }
+
+  /**
+   * Executes a command or joins the identical command which is already in progress.
+   *
+   * @param lane lane to execute the command on
+   * @param key identity of the command
+   * @param command the command itself
+   * @param caller progress monitor of the caller
+   * @return result of the command
+   * @throws RejectedExecutionException if the queue of the lane is full
+   * @throws org.eclipse.core.runtime.OperationCanceledException if the caller has been cancelled
+   */
+  public Object execute(
+      Lane lane,
+      CommandKey key,
+      Function<IProgressMonitor, Object> command,
+      IProgressMonitor caller) {
+    while (true) {
+      Computation computation = new Computation(caller);
+      Computation existing = inFlight.putIfAbsent(key, computation);
+      if (existing == null) {
+        start(lane, key, computation, command);
+        return await(key, computation, caller);
+      }
+      if (existing.join()) {
+        coalesced.increment();
+        return await(key, existing, caller);
+      }
+      // all the callers of the existing computation are gone, it is being cancelled
+      inFlight.remove(key, existing);
+    }
+  }
+
+  /** Returns the number of commands which have joined an identical command in progress. */
+  public long getCoalesced() {
+    return coalesced.sum();
+  }
+
+  /** Returns the number of distinct computations in progress. */
+  public int getInFlight() {
+    return inFlight.size();
+  }
+
+  private void start(
+      Lane lane,
+      CommandKey key,
+      Computation computation,
+      Function<IProgressMonitor, Object> command) {
+    try {
+      computation.task =
+          scheduler.submit(
+              lane,
+              monitor -> {
+                try {
+                  computation.result.complete(command.apply(monitor));
+                } catch (Throwable e) {
+                  computation.result.completeExceptionally(e);
+                } finally {
+                  inFlight.remove(key, computation);
+                }
+                return null;
+              },
+              computation.monitor);
+    } catch (RejectedExecutionException e) {
+      inFlight.remove(key, computation);
+      computation.result.completeExceptionally(e);
+    }
+  }
+
+  private Object await(CommandKey key, Computation computation, IProgressMonitor caller) {
+    return CommandScheduler.await(
+        computation.result,
+        caller,
+        () -> {
+          if (computation.leave()) {
+            inFlight.remove(key, computation);
+            computation.monitor.setCanceled(true);
+            Future<?> task = computation.task;
+            if (task != null) {
+              task.cancel(false);
+            }
+          }
+        });
+  }
+
+  private static final class Computation {
+    private final IProgressMonitor monitor;
+    private final CompletableFuture<Object> result = new CompletableFuture<>();
+    private volatile Future<?> task;
+    private int waiters = 1;
+
+    /** Creates a computation which reports its progress to the first caller. */
+    private Computation(IProgressMonitor caller) {
+      this.monitor = new TaskMonitor(caller);
+    }
+
+    /** Registers one more caller, returns false if the computation has been abandoned. */
+    private synchronized boolean join() {
+      if (waiters == 0) {
+        return false;
+      }
+      waiters++;
+      return true;
+    }
+
+    /** Unregisters a cancelled caller, returns true if it was the last one. */
+    private synchronized boolean leave() {
+      return --waiters == 0;
+    }
+  }
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.jdt.ls.extension.core.internal.dispatch;
+
+import com.google.gson.JsonElement;
+import java.util.List;
+import java.util.Objects;
+import org.eclipse.che.jdt.ls.extension.core.internal.GsonUtils;
+
+/**
+ * Identity of a command invocation: command id plus normalized arguments. Arguments are compared as
+ * JSON trees, so two invocations are equal regardless of the order of object keys or the way the
+ * arguments have been deserialized.
+ */
+public final class CommandKey {
+  private final String commandId;
+  private final JsonElement arguments;
+  private final int hash;
+
+  public CommandKey(String commandId, List<Object> arguments) {
+    this.commandId = commandId;
+    this.arguments = GsonUtils.getInstance().toJsonTree(arguments);
+    this.hash = Objects.hash(commandId, this.arguments);
+  }
+
+  public String getCommandId() {
+    return commandId;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof CommandKey)) {
+      return false;
+    }
+    CommandKey key = (CommandKey) o;
+    return commandId.equals(key.commandId) && arguments.equals(key.arguments);
+  }
+
+  @Override
+  public int hashCode() {
+    return hash;
+  }
+
+  @Override
+  public String toString() {
+    return commandId + arguments;
+  }
+}
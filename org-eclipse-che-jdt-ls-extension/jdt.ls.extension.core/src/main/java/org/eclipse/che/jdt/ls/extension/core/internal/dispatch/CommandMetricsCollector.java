@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.jdt.ls.extension.core.internal.dispatch;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import org.eclipse.che.jdt.ls.extension.api.dto.CommandMetrics;
+import org.eclipse.che.jdt.ls.extension.api.dto.MetricsReport;
+
+/**
+ * Collects per-command call counts, error and cancel counts and latency histograms. All the
+ * counters are lock-free, so recording a command execution doesn't introduce any contention between
+ * concurrently executed commands.
+ */
+public class CommandMetricsCollector {
+  /** Outcome of a command execution. */
+  public enum Outcome {
+    SUCCESS,
+    ERROR,
+    CANCEL
+  }
+
+  private final Map<String, CommandStatistics> statistics = new ConcurrentHashMap<>();
+  private final long startTime = System.currentTimeMillis();
+
+  /**
+   * Records a single execution of a command.
+   *
+   * @param commandId id of executed command
+   * @param outcome how the execution has ended
+   * @param nanos execution time in nanoseconds
+   */
+  public void record(String commandId, Outcome outcome, long nanos) {
+    CommandStatistics stats = statistics.computeIfAbsent(commandId, id -> new CommandStatistics());
+    stats.calls.increment();
+    if (outcome == Outcome.ERROR) {
+      stats.errors.increment();
+    } else if (outcome == Outcome.CANCEL) {
+      stats.cancels.increment();
+    }
+    stats.latency.record(nanos);
+  }
+
+  /** Returns a snapshot of the collected statistics ordered by command id. */
+  public MetricsReport getReport() {
+    List<CommandMetrics> commands = new ArrayList<>(statistics.size());
+    statistics.forEach((commandId, stats) -> commands.add(stats.toDto(commandId)));
+    commands.sort(Comparator.comparing(CommandMetrics::getCommandId));
+    return new MetricsReport(System.currentTimeMillis() - startTime, commands);
+  }
+
+  private static final class CommandStatistics {
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder cancels = new LongAdder();
+    private final LatencyHistogram latency = new LatencyHistogram();
+
+    private CommandMetrics toDto(String commandId) {
+      CommandMetrics metrics = new CommandMetrics(commandId);
+      metrics.setCalls(calls.sum());
+      metrics.setErrors(errors.sum());
+      metrics.setCancels(cancels.sum());
+      metrics.setLatencyMean(toMillis(latency.getMean()));
+      metrics.setLatencyP50(toMillis(latency.getPercentile(50)));
+      metrics.setLatencyP95(toMillis(latency.getPercentile(95)));
+      metrics.setLatencyP99(toMillis(latency.getPercentile(99)));
+      metrics.setLatencyMax(toMillis(latency.getMax()));
+      return metrics;
+    }
+
+    private static double toMillis(double micros) {
+      return micros / 1000;
+    }
+  }
+}
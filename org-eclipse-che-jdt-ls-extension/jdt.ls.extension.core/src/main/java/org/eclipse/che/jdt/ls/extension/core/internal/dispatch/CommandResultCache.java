@@ -0,0 +1,261 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.jdt.ls.extension.core.internal.dispatch;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import org.eclipse.che.jdt.ls.extension.api.dto.CacheMetrics;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IResourceChangeEvent;
+import org.eclipse.core.resources.IResourceChangeListener;
+import org.eclipse.core.resources.IResourceDelta;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.jdt.core.ElementChangedEvent;
+import org.eclipse.jdt.core.IElementChangedListener;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IJavaElementDelta;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.ls.core.internal.JavaLanguageServerPlugin;
+
+/**
+ * Size bounded LRU cache of results of read-only commands. Every result is stored with a {@link
+ * CacheScope} and is removed as soon as a Java element delta or a resource delta touches its scope.
+ *
+ * <p>A result is registered in the cache before it is computed, so a change which happens while the
+ * command is running invalidates the registration and the stale result is never stored.
+ */
+public class CommandResultCache implements IElementChangedListener, IResourceChangeListener {
+  private static final int CLASSPATH_FLAGS =
+      IJavaElementDelta.F_CLASSPATH_CHANGED
+          | IJavaElementDelta.F_RESOLVED_CLASSPATH_CHANGED
+          | IJavaElementDelta.F_ADDED_TO_CLASSPATH
+          | IJavaElementDelta.F_REMOVED_FROM_CLASSPATH
+          | IJavaElementDelta.F_ARCHIVE_CONTENT_CHANGED
+          | IJavaElementDelta.F_OPENED
+          | IJavaElementDelta.F_CLOSED;
+  private static final int DOCUMENT_FLAGS =
+      IResourceDelta.CONTENT
+          | IResourceDelta.REPLACED
+          | IResourceDelta.MOVED_FROM
+          | IResourceDelta.MOVED_TO;
+
+  private final int capacity;
+  private final Map<CommandKey, Entry> entries;
+  private long hits;
+  private long misses;
+  private long evictions;
+  private long invalidations;
+
+  /** @param capacity maximum number of cached results */
+  public CommandResultCache(int capacity) {
+    this.capacity = capacity;
+    this.entries =
+        new LinkedHashMap<CommandKey, Entry>(16, 0.75f, true) {
+          @Override
+          protected boolean removeEldestEntry(Map.Entry<CommandKey, Entry> eldest) {
+            if (size() > CommandResultCache.this.capacity) {
+              evictions++;
+              return true;
+            }
+            return false;
+          }
+        };
+  }
+
+  /** Starts listening to changes of the Java model and of the workspace. */
+  public void install() {
+    JavaCore.addElementChangedListener(
+        this, ElementChangedEvent.POST_CHANGE | ElementChangedEvent.POST_RECONCILE);
+    ResourcesPlugin.getWorkspace()
+        .addResourceChangeListener(this, IResourceChangeEvent.POST_CHANGE);
+  }
+
+  /** Stops listening to changes and drops all the cached results. */
+  public void uninstall() {
+    JavaCore.removeElementChangedListener(this);
+    ResourcesPlugin.getWorkspace().removeResourceChangeListener(this);
+    invalidate(entry -> true);
+  }
+
+  /**
+   * Returns a cached result.
+   *
+   * @param key identity of the command
+   * @return the cached result or {@code null} if there is no valid result
+   */
+  public synchronized Object get(CommandKey key) {
+    Entry entry = entries.get(key);
+    if (entry == null || !entry.done) {
+      return null;
+    }
+    hits++;
+    return entry.value;
+  }
+
+  /**
+   * Returns a cached result or computes and caches it. {@code null} results are not cached.
+   *
+   * @param key identity of the command
+   * @param scope changes which invalidate the result
+   * @param computation computes the result
+   * @return the result
+   */
+  public Object compute(CommandKey key, CacheScope scope, Supplier<Object> computation) {
+    Entry pending = new Entry(scope);
+    synchronized (this) {
+      Entry entry = entries.get(key);
+      if (entry != null && entry.done) {
+        hits++;
+        return entry.value;
+      }
+      misses++;
+      entries.put(key, pending);
+    }
+    Object result = null;
+    try {
+      result = computation.get();
+      return result;
+    } finally {
+      synchronized (this) {
+        if (entries.get(key) == pending) {
+          if (result != null) {
+            pending.value = result;
+            pending.done = true;
+          } else {
+            entries.remove(key);
+          }
+        }
+      }
+    }
+  }
+
+  /** Returns statistics of the cache. */
+  public synchronized CacheMetrics getStatistics() {
+    CacheMetrics metrics = new CacheMetrics();
+    metrics.setSize(entries.size());
+    metrics.setCapacity(capacity);
+    metrics.setHits(hits);
+    metrics.setMisses(misses);
+    metrics.setEvictions(evictions);
+    metrics.setInvalidations(invalidations);
+    return metrics;
+  }
+
+  @Override
+  public void elementChanged(ElementChangedEvent event) {
+    visit(event.getDelta());
+  }
+
+  @Override
+  public void resourceChanged(IResourceChangeEvent event) {
+    IResourceDelta delta = event.getDelta();
+    if (delta == null || !hasDocuments()) {
+      return;
+    }
+    try {
+      delta.accept(this::visit);
+    } catch (CoreException e) {
+      JavaLanguageServerPlugin.logException("Can't process resource delta", e);
+    }
+  }
+
+  /** Invalidates results which depend on the document with the given path. */
+  public void invalidateDocument(IPath path) {
+    invalidate(
+        entry ->
+            entry.scope.getKind() == CacheScope.Kind.DOCUMENT
+                && path.equals(entry.scope.getPath()));
+  }
+
+  /** Invalidates results which depend on any source in the workspace. */
+  public void invalidateSources() {
+    invalidate(entry -> entry.scope.getKind() == CacheScope.Kind.WORKSPACE);
+  }
+
+  /** Invalidates all the results, since the classpath or the set of projects has changed. */
+  public void invalidateClasspath() {
+    invalidate(entry -> true);
+  }
+
+  private void visit(IJavaElementDelta delta) {
+    if ((delta.getFlags() & CLASSPATH_FLAGS) != 0) {
+      invalidateClasspath();
+      return;
+    }
+    IJavaElement element = delta.getElement();
+    switch (element.getElementType()) {
+      case IJavaElement.JAVA_PROJECT:
+      case IJavaElement.PACKAGE_FRAGMENT_ROOT:
+        if (delta.getKind() != IJavaElementDelta.CHANGED) {
+          invalidateClasspath();
+          return;
+        }
+        break;
+      case IJavaElement.COMPILATION_UNIT:
+      case IJavaElement.CLASS_FILE:
+        invalidateDocument(element.getPath());
+        invalidateSources();
+        return;
+      default:
+        break;
+    }
+    for (IJavaElementDelta child : delta.getAffectedChildren()) {
+      visit(child);
+    }
+  }
+
+  private boolean visit(IResourceDelta delta) {
+    IResource resource = delta.getResource();
+    if (resource.getType() != IResource.FILE) {
+      return true;
+    }
+    if (delta.getKind() == IResourceDelta.REMOVED
+        || (delta.getKind() == IResourceDelta.CHANGED
+            && (delta.getFlags() & DOCUMENT_FLAGS) != 0)) {
+      invalidateDocument(resource.getFullPath());
+    }
+    return false;
+  }
+
+  private synchronized boolean hasDocuments() {
+    for (Entry entry : entries.values()) {
+      if (entry.scope.getKind() == CacheScope.Kind.DOCUMENT) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private synchronized void invalidate(Predicate<Entry> affected) {
+    Iterator<Entry> iterator = entries.values().iterator();
+    while (iterator.hasNext()) {
+      if (affected.test(iterator.next())) {
+        iterator.remove();
+        invalidations++;
+      }
+    }
+  }
+
+  private static final class Entry {
+    private final CacheScope scope;
+    private Object value;
+    private boolean done;
+
+    private Entry(CacheScope scope) {
+      this.scope = scope;
+    }
+  }
+}
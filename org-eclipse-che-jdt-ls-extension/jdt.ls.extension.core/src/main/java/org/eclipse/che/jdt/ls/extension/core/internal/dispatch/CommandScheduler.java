@@ -0,0 +1,252 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.jdt.ls.extension.core.internal.dispatch;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import org.eclipse.che.jdt.ls.extension.api.dto.LaneMetrics;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
+
+/**
+ * Executes commands on bounded worker pools. Commands are classified into lanes, every lane has its
+ * own threads and its own bounded queue, so latency sensitive commands never wait behind long
+ * running workspace-wide ones. A command submitted to a lane with a full queue is rejected with
+ * {@link RejectedExecutionException}.
+ */
+public class CommandScheduler {
+  /** Execution lane of a command. */
+  public enum Lane {
+    /** Short commands a user is waiting for, e.g. file structure or test detection. */
+    INTERACTIVE,
+    /** Long running commands which scan a project or the whole workspace. */
+    BULK
+  }
+
+  private static final long CANCELLATION_POLL_INTERVAL = 50L;
+
+  private final Map<Lane, LaneExecutor> executors = new EnumMap<>(Lane.class);
+
+  /**
+   * Creates a scheduler.
+   *
+   * @param interactiveThreads number of threads of the interactive lane
+   * @param interactiveQueue queue capacity of the interactive lane
+   * @param bulkThreads number of threads of the bulk lane
+   * @param bulkQueue queue capacity of the bulk lane
+   */
+  public CommandScheduler(
+      int interactiveThreads, int interactiveQueue, int bulkThreads, int bulkQueue) {
+    executors.put(
+        Lane.INTERACTIVE, new LaneExecutor(Lane.INTERACTIVE, interactiveThreads, interactiveQueue));
+    executors.put(Lane.BULK, new LaneExecutor(Lane.BULK, bulkThreads, bulkQueue));
+  }
+
+  /**
+   * Executes a task on the given lane and waits for its result. If the caller is cancelled while
+   * the task is queued or running, the task is cancelled as well.
+   *
+   * @param lane lane to execute the task on
+   * @param task task to execute, receives a progress monitor which reports its progress to the
+   *     caller and has its own cancellation flag
+   * @param caller progress monitor of the caller
+   * @return result of the task
+   * @throws RejectedExecutionException if the queue of the lane is full
+   * @throws OperationCanceledException if the caller has been cancelled
+   */
+  public <T> T execute(Lane lane, Function<IProgressMonitor, T> task, IProgressMonitor caller) {
+    IProgressMonitor monitor = new TaskMonitor(caller);
+    Future<T> future = submit(lane, task, monitor);
+    return await(
+        future,
+        caller,
+        () -> {
+          monitor.setCanceled(true);
+          future.cancel(false);
+        });
+  }
+
+  /**
+   * Submits a task to the given lane without waiting for its result.
+   *
+   * @param lane lane to execute the task on
+   * @param task task to execute
+   * @param monitor progress monitor passed to the task
+   * @return future result of the task
+   * @throws RejectedExecutionException if the queue of the lane is full
+   */
+  public <T> Future<T> submit(
+      Lane lane, Function<IProgressMonitor, T> task, IProgressMonitor monitor) {
+    return executors.get(lane).submit(task, monitor);
+  }
+
+  /**
+   * Waits for a future result, polling the caller's progress monitor for cancellation.
+   *
+   * @param future future result to wait for
+   * @param caller progress monitor of the caller
+   * @param onCancel action to run when the caller is cancelled or interrupted
+   * @return the result
+   * @throws OperationCanceledException if the caller or the task has been cancelled
+   */
+  public static <T> T await(Future<T> future, IProgressMonitor caller, Runnable onCancel) {
+    try {
+      while (true) {
+        if (caller != null && caller.isCanceled()) {
+          onCancel.run();
+          throw new OperationCanceledException();
+        }
+        try {
+          return future.get(CANCELLATION_POLL_INTERVAL, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+          // check cancellation and wait again
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      onCancel.run();
+      throw new OperationCanceledException();
+    } catch (CancellationException e) {
+      throw new OperationCanceledException();
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      throw new RuntimeException(cause);
+    }
+  }
+
+  /** Returns statistics of all the lanes. */
+  public List<LaneMetrics> getStatistics() {
+    List<LaneMetrics> result = new ArrayList<>(executors.size());
+    for (LaneExecutor executor : executors.values()) {
+      result.add(executor.getStatistics());
+    }
+    return result;
+  }
+
+  /**
+   * Stops all the worker threads. Queued commands are not executed. Commands submitted afterwards,
+   * e.g. once the bundle is started again, run on new threads.
+   */
+  public void shutdown() {
+    executors.values().forEach(LaneExecutor::shutdown);
+  }
+
+  private static final class LaneExecutor {
+    private final Lane lane;
+    private final int threads;
+    private final int queueCapacity;
+    private volatile ThreadPoolExecutor pool;
+    private final LatencyHistogram waitTime = new LatencyHistogram();
+    private final LongAdder rejected = new LongAdder();
+
+    private LaneExecutor(Lane lane, int threads, int queueCapacity) {
+      this.lane = lane;
+      this.threads = threads;
+      this.queueCapacity = queueCapacity;
+      this.pool = createPool();
+    }
+
+    private ThreadPoolExecutor createPool() {
+      ThreadPoolExecutor executor =
+          new ThreadPoolExecutor(
+              threads,
+              threads,
+              60L,
+              TimeUnit.SECONDS,
+              new ArrayBlockingQueue<>(queueCapacity),
+              new WorkerThreadFactory(lane));
+      executor.allowCoreThreadTimeOut(true);
+      return executor;
+    }
+
+    private void shutdown() {
+      // threads of the new pool are only started by the next command
+      ThreadPoolExecutor stopped = pool;
+      pool = createPool();
+      stopped.shutdownNow();
+    }
+
+    private <T> Future<T> submit(Function<IProgressMonitor, T> task, IProgressMonitor monitor) {
+      long submitted = System.nanoTime();
+      FutureTask<T> future =
+          new FutureTask<>(
+              () -> {
+                waitTime.record(System.nanoTime() - submitted);
+                if (monitor.isCanceled()) {
+                  throw new OperationCanceledException();
+                }
+                return task.apply(monitor);
+              });
+      try {
+        pool.execute(future);
+      } catch (RejectedExecutionException e) {
+        rejected.increment();
+        throw new RejectedExecutionException(
+            String.format(
+                "Too many %s commands are queued, at most %d are allowed",
+                lane.name().toLowerCase(), queueCapacity),
+            e);
+      }
+      return future;
+    }
+
+    private LaneMetrics getStatistics() {
+      LaneMetrics metrics = new LaneMetrics(lane.name().toLowerCase());
+      metrics.setThreads(pool.getMaximumPoolSize());
+      metrics.setActiveThreads(pool.getActiveCount());
+      metrics.setQueueDepth(pool.getQueue().size());
+      metrics.setQueueCapacity(queueCapacity);
+      metrics.setCompleted(pool.getCompletedTaskCount());
+      metrics.setRejected(rejected.sum());
+      metrics.setWaitMean(waitTime.getMean() / 1000);
+      metrics.setWaitP95(waitTime.getPercentile(95) / 1000d);
+      metrics.setWaitMax(waitTime.getMax() / 1000d);
+      return metrics;
+    }
+  }
+
+  private static final class WorkerThreadFactory implements ThreadFactory {
+    private final AtomicInteger counter = new AtomicInteger();
+    private final String prefix;
+
+    private WorkerThreadFactory(Lane lane) {
+      this.prefix = "Che JDT LS " + lane.name().toLowerCase() + " command worker #";
+    }
+
+    @Override
+    public Thread newThread(Runnable runnable) {
+      Thread thread = new Thread(runnable, prefix + counter.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    }
+  }
+}
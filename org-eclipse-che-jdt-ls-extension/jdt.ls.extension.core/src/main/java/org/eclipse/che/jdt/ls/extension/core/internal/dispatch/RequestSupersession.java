@@ -0,0 +1,81 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.jdt.ls.extension.core.internal.dispatch;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.ProgressMonitorWrapper;
+
+/**
+ * Tracks the latest request of a command for a document. When a newer request for the same command
+ * and document arrives, the older request is reported as cancelled through its progress monitor,
+ * since only the newest answer is of interest to the client.
+ */
+public class RequestSupersession {
+  private final ConcurrentMap<String, SupersedableMonitor> latest = new ConcurrentHashMap<>();
+  private final LongAdder superseded = new LongAdder();
+
+  /**
+   * Registers a request and supersedes the previous request for the same command and document.
+   *
+   * @param commandId id of the command
+   * @param documentUri uri of the document the command is executed for
+   * @param caller progress monitor of the caller
+   * @return progress monitor which is cancelled when either the caller is cancelled or a newer
+   *     request arrives, it must be passed to {@link #end}
+   */
+  public IProgressMonitor begin(String commandId, String documentUri, IProgressMonitor caller) {
+    SupersedableMonitor monitor =
+        new SupersedableMonitor(caller != null ? caller : new NullProgressMonitor());
+    SupersedableMonitor previous = latest.put(keyOf(commandId, documentUri), monitor);
+    if (previous != null) {
+      previous.superseded = true;
+      superseded.increment();
+    }
+    return monitor;
+  }
+
+  /**
+   * Unregisters a finished request.
+   *
+   * @param commandId id of the command
+   * @param documentUri uri of the document the command has been executed for
+   * @param monitor progress monitor returned by {@link #begin}
+   */
+  public void end(String commandId, String documentUri, IProgressMonitor monitor) {
+    latest.remove(keyOf(commandId, documentUri), monitor);
+  }
+
+  /** Returns the number of requests which have been cancelled by newer ones. */
+  public long getSuperseded() {
+    return superseded.sum();
+  }
+
+  private static String keyOf(String commandId, String documentUri) {
+    return commandId + ' ' + documentUri;
+  }
+
+  private static final class SupersedableMonitor extends ProgressMonitorWrapper {
+    private volatile boolean superseded;
+
+    private SupersedableMonitor(IProgressMonitor monitor) {
+      super(monitor);
+    }
+
+    @Override
+    public boolean isCanceled() {
+      return superseded || super.isCanceled();
+    }
+  }
+}
@@ -0,0 +1,37 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.jdt.ls.extension.core.internal.dispatch;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.ProgressMonitorWrapper;
+
+/**
+ * Progress monitor of a task executed for a caller. Forwards the progress to the caller's monitor
+ * but keeps its own cancellation flag, the task is cancelled by the scheduler when the caller is.
+ */
+final class TaskMonitor extends ProgressMonitorWrapper {
+  private volatile boolean canceled;
+
+  TaskMonitor(IProgressMonitor caller) {
+    super(caller != null ? caller : new NullProgressMonitor());
+  }
+
+  @Override
+  public boolean isCanceled() {
+    return canceled;
+  }
+
+  @Override
+  public void setCanceled(boolean value) {
+    canceled = value;
+  }
+}
@@ -10,11 +10,10 @@
  */
 package org.eclipse.che.jdt.ls.extension.core.internal.externallibrary;
 
-import com.google.gson.Gson;
 import java.util.List;
 import org.eclipse.che.jdt.ls.extension.api.dto.ExternalLibrariesParameters;
 import org.eclipse.che.jdt.ls.extension.api.dto.JarEntry;
-import org.eclipse.che.jdt.ls.extension.core.internal.GsonUtils;
+import org.eclipse.che.jdt.ls.extension.core.internal.JavaModelUtil;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.jdt.core.JavaModelException;
 
@@ -24,8 +23,6 @@ import org.eclipse.jdt.core.JavaModelException;
  * @author Valeriy Svydenko
  */
 public class LibraryChildrenCommand {
-  private static final Gson gson = GsonUtils.getInstance();
-
   /**
    * Gets children of external library node.
    *
@@ -36,7 +33,7 @@ public class LibraryChildrenCommand {
    */
   public static List<JarEntry> execute(List<Object> parameters, IProgressMonitor pm) {
     ExternalLibrariesParameters params =
-        gson.fromJson(gson.toJson(parameters.get(0)), ExternalLibrariesParameters.class);
+        JavaModelUtil.convertCommandParameter(parameters.get(0), ExternalLibrariesParameters.class);
     try {
       return LibraryNavigation.getPackageFragmentRootContent(params.getNodeId(), pm);
     } catch (JavaModelException e) {
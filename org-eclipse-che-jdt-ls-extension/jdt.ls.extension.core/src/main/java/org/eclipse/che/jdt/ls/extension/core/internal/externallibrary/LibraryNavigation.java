@@ -27,6 +27,7 @@ import java.util.stream.Stream;
 import org.eclipse.che.jdt.ls.extension.api.dto.Jar;
 import org.eclipse.che.jdt.ls.extension.api.dto.JarEntry;
 import org.eclipse.che.jdt.ls.extension.core.internal.JavaModelUtil;
+import org.eclipse.che.jdt.ls.extension.core.internal.LabelCache;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.jdt.core.IClassFile;
 import org.eclipse.jdt.core.IClasspathEntry;
@@ -41,7 +42,6 @@ import org.eclipse.jdt.internal.core.JarEntryDirectory;
 import org.eclipse.jdt.internal.core.JarPackageFragmentRoot;
 import org.eclipse.jdt.launching.JavaRuntime;
 import org.eclipse.jdt.ls.core.internal.JDTUtils;
-import org.eclipse.jdt.ls.core.internal.hover.JavaElementLabels;
 import org.eclipse.m2e.core.MavenPlugin;
 import org.eclipse.m2e.core.project.IMavenProjectFacade;
 import org.eclipse.m2e.core.project.IMavenProjectRegistry;
@@ -421,7 +421,7 @@ public class LibraryNavigation {
       }
     }
 
-    return JavaElementLabels.getElementLabel(element, 0);
+    return LabelCache.getElementLabel(element, 0);
   }
 
   private static String getNameDelta(IPackageFragment parent, IPackageFragment fragment) {
@@ -0,0 +1,38 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.jdt.ls.extension.core.internal.index;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Index entry of a compilation unit: the references it contains and the elements it declares, as of
+ * the time stamp of the file when it was indexed.
+ */
+final class IndexedFile {
+  final String path;
+  final long stamp;
+  final Set<String> declarations;
+  final List<Reference> references;
+
+  /**
+   * @param path workspace path of the compilation unit
+   * @param stamp local time stamp of the file when it was indexed
+   * @param declarations handle identifiers of the types, methods and fields declared in the file
+   * @param references references from the file to elements declared in workspace sources
+   */
+  IndexedFile(String path, long stamp, Set<String> declarations, List<Reference> references) {
+    this.path = path;
+    this.stamp = stamp;
+    this.declarations = declarations;
+    this.references = references;
+  }
+}
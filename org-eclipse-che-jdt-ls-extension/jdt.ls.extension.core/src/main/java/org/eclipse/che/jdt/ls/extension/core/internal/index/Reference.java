@@ -0,0 +1,88 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.jdt.ls.extension.core.internal.index;
+
+import java.util.Objects;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.JavaCore;
+
+/**
+ * A reference to a Java element from a compilation unit, as stored in the {@link ReferenceIndex}.
+ */
+public final class Reference {
+  private final String key;
+  private final String file;
+  private final int offset;
+  private final int length;
+  private final String enclosingElement;
+
+  Reference(String key, String file, int offset, int length, String enclosingElement) {
+    this.key = key;
+    this.file = file;
+    this.offset = offset;
+    this.length = length;
+    this.enclosingElement = enclosingElement;
+  }
+
+  /** Returns the handle identifier of the referenced element. */
+  public String getKey() {
+    return key;
+  }
+
+  /** Returns the workspace path of the compilation unit containing the reference. */
+  public String getFile() {
+    return file;
+  }
+
+  public int getOffset() {
+    return offset;
+  }
+
+  public int getLength() {
+    return length;
+  }
+
+  /** Returns the handle identifier of the innermost element enclosing the reference. */
+  public String getEnclosingElementHandle() {
+    return enclosingElement;
+  }
+
+  /** Returns the innermost element enclosing the reference, like the search engine reports it. */
+  public IJavaElement getEnclosingElement() {
+    return JavaCore.create(enclosingElement);
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof Reference)) {
+      return false;
+    }
+    Reference other = (Reference) o;
+    return offset == other.offset
+        && length == other.length
+        && Objects.equals(key, other.key)
+        && Objects.equals(file, other.file)
+        && Objects.equals(enclosingElement, other.enclosingElement);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(key, file, offset, length, enclosingElement);
+  }
+
+  @Override
+  public String toString() {
+    return "Reference{" + key + " in " + file + " at " + offset + ", " + length + "}";
+  }
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.jdt.ls.extension.core.internal.index;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.JavaModelException;
+import org.eclipse.jdt.core.dom.ASTNode;
+import org.eclipse.jdt.core.dom.ASTVisitor;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.core.dom.IBinding;
+import org.eclipse.jdt.core.dom.IMethodBinding;
+import org.eclipse.jdt.core.dom.IPackageBinding;
+import org.eclipse.jdt.core.dom.ITypeBinding;
+import org.eclipse.jdt.core.dom.IVariableBinding;
+import org.eclipse.jdt.core.dom.MethodInvocation;
+import org.eclipse.jdt.core.dom.QualifiedName;
+import org.eclipse.jdt.core.dom.SimpleName;
+import org.eclipse.jdt.core.dom.SuperMethodInvocation;
+
+/**
+ * Collects the references of a compilation unit to elements declared in workspace sources. The
+ * ranges of the references follow the search engine: a type reference covers the type name
+ * including its package qualifier, a method reference covers the name and the arguments.
+ * Constructor invocations aren't collected, since the index doesn't answer queries for
+ * constructors.
+ */
+final class ReferenceCollector extends ASTVisitor {
+  private final ICompilationUnit unit;
+  private final String path;
+  private final Set<String> declarations = new LinkedHashSet<>();
+  private final List<Reference> references = new ArrayList<>();
+  private final Map<IJavaElement, String> handles = new HashMap<>();
+
+  private ReferenceCollector(ICompilationUnit unit) {
+    super(true);
+    this.unit = unit;
+    this.path = unit.getPath().toString();
+  }
+
+  /**
+   * Collects the references of a compilation unit.
+   *
+   * @param unit the primary compilation unit
+   * @param ast the AST of the unit, with resolved bindings
+   * @param stamp the local time stamp of the file the AST was created from
+   */
+  static IndexedFile collect(ICompilationUnit unit, CompilationUnit ast, long stamp) {
+    ReferenceCollector collector = new ReferenceCollector(unit);
+    ast.accept(collector);
+    return new IndexedFile(collector.path, stamp, collector.declarations, collector.references);
+  }
+
+  @Override
+  public boolean visit(SimpleName node) {
+    IBinding binding = node.resolveBinding();
+    if (binding == null) {
+      return false;
+    }
+    if (node.isDeclaration()) {
+      if (binding.getKind() != IBinding.VARIABLE || ((IVariableBinding) binding).isField()) {
+        String key = getKey(binding);
+        if (key != null) {
+          declarations.add(key);
+        }
+      }
+      return false;
+    }
+
+    ASTNode range = node;
+    ASTNode parent = node.getParent();
+    if (binding.getKind() == IBinding.TYPE) {
+      while (parent instanceof QualifiedName
+          && ((QualifiedName) parent).getName() == range
+          && ((QualifiedName) parent).getQualifier().resolveBinding() instanceof IPackageBinding) {
+        range = parent;
+        parent = parent.getParent();
+      }
+    } else if (binding.getKind() == IBinding.METHOD
+        && (parent instanceof MethodInvocation && ((MethodInvocation) parent).getName() == node
+            || parent instanceof SuperMethodInvocation
+                && ((SuperMethodInvocation) parent).getName() == node)) {
+      add(binding, node.getStartPosition(), parent);
+      return false;
+    }
+    add(binding, range.getStartPosition(), range);
+    return false;
+  }
+
+  private void add(IBinding binding, int start, ASTNode end) {
+    if (binding == null || !isFromSource(binding)) {
+      return;
+    }
+    String key = getKey(binding);
+    if (key == null) {
+      return;
+    }
+    int length = end.getStartPosition() + end.getLength() - start;
+    references.add(new Reference(key, path, start, length, getEnclosingElement(start)));
+  }
+
+  private String getEnclosingElement(int offset) {
+    IJavaElement element;
+    try {
+      element = unit.getElementAt(offset);
+    } catch (JavaModelException e) {
+      element = null;
+    }
+    return handles.computeIfAbsent(
+        element != null ? element : unit, IJavaElement::getHandleIdentifier);
+  }
+
+  private static String getKey(IBinding binding) {
+    IJavaElement element = binding.getJavaElement();
+    return element != null ? element.getHandleIdentifier() : null;
+  }
+
+  private static boolean isFromSource(IBinding binding) {
+    switch (binding.getKind()) {
+      case IBinding.TYPE:
+        return ((ITypeBinding) binding).getTypeDeclaration().isFromSource();
+      case IBinding.METHOD:
+        ITypeBinding declaringClass =
+            ((IMethodBinding) binding).getMethodDeclaration().getDeclaringClass();
+        return declaringClass != null && declaringClass.getTypeDeclaration().isFromSource();
+      case IBinding.VARIABLE:
+        IVariableBinding variable = ((IVariableBinding) binding).getVariableDeclaration();
+        return !variable.isField()
+            || variable.getDeclaringClass() != null
+                && variable.getDeclaringClass().getTypeDeclaration().isFromSource();
+      default:
+        return false;
+    }
+  }
+}
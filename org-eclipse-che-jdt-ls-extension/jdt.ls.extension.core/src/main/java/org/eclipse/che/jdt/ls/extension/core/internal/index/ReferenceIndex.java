@@ -0,0 +1,608 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.jdt.ls.extension.core.internal.index;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IResourceChangeEvent;
+import org.eclipse.core.resources.IResourceChangeListener;
+import org.eclipse.core.resources.IResourceDelta;
+import org.eclipse.core.resources.IWorkspaceRoot;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.SubMonitor;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.jdt.core.ElementChangedEvent;
+import org.eclipse.jdt.core.Flags;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IElementChangedListener;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IJavaElementDelta;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.IMethod;
+import org.eclipse.jdt.core.IPackageFragment;
+import org.eclipse.jdt.core.IPackageFragmentRoot;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.core.JavaModelException;
+import org.eclipse.jdt.core.dom.ASTParser;
+import org.eclipse.jdt.core.dom.ASTRequestor;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.internal.corext.dom.IASTSharedValues;
+import org.eclipse.jdt.ls.core.internal.JavaLanguageServerPlugin;
+
+/**
+ * Persistent index of the references between the workspace sources. It maps the handle identifiers
+ * of elements declared in workspace sources to the references of the compilation units, so
+ * references can be found without running the search engine.
+ *
+ * <p>The index is kept up to date incrementally: changed files are re-indexed in a background job,
+ * the new entries are kept in memory on top of the last snapshot, which is rewritten to disk once
+ * enough entries changed and when the index is uninstalled. When a file changes the elements it
+ * declares, the files referencing them are re-indexed too, since their references may resolve
+ * differently now.
+ *
+ * <p>Files which changed since they were indexed, or which have unsaved changes in a working copy,
+ * are reported as stale by {@link #find}, they have to be searched by the caller.
+ */
+public class ReferenceIndex implements IResourceChangeListener, IElementChangedListener {
+  private static final int COMPACTION_THRESHOLD = 500;
+  private static final int BATCH_SIZE = 100;
+  private static final long DELAY = 500;
+
+  private final IndexJob job = new IndexJob();
+
+  private Path location;
+  private ReferenceIndexFile snapshot;
+  private final Map<String, IndexedFile> snapshotFiles = new HashMap<>();
+  private final Set<String> shadowed = new HashSet<>();
+  private final Map<String, IndexedFile> overlay = new HashMap<>();
+  private final Set<String> dirty = new HashSet<>();
+  private final Set<String> indexing = new HashSet<>();
+  private final Set<String> projectsToReindex = new HashSet<>();
+  private boolean scanPending;
+  private volatile boolean ready;
+
+  /** The result of a lookup in the index. */
+  public static final class Lookup {
+    private final List<Reference> references;
+    private final List<ICompilationUnit> staleUnits;
+
+    private Lookup(List<Reference> references, List<ICompilationUnit> staleUnits) {
+      this.references = references;
+      this.staleUnits = staleUnits;
+    }
+
+    /** Returns the indexed references from the files which are up to date. */
+    public List<Reference> getReferences() {
+      return references;
+    }
+
+    /** Returns the compilation units whose references are not known to the index. */
+    public List<ICompilationUnit> getStaleUnits() {
+      return staleUnits;
+    }
+  }
+
+  /**
+   * Loads the snapshot stored at the given location, starts listening to changes and schedules the
+   * verification of the snapshot against the workspace. The index doesn't answer queries until the
+   * verification is done.
+   *
+   * @param location file the index is stored in
+   */
+  public void install(Path location) {
+    synchronized (this) {
+      this.location = location;
+      if (Files.exists(location)) {
+        try {
+          setSnapshot(ReferenceIndexFile.open(location));
+        } catch (IOException e) {
+          JavaLanguageServerPlugin.logException("Can't read reference index " + location, e);
+        }
+      }
+      scanPending = true;
+    }
+    ResourcesPlugin.getWorkspace()
+        .addResourceChangeListener(this, IResourceChangeEvent.POST_CHANGE);
+    JavaCore.addElementChangedListener(this, ElementChangedEvent.POST_CHANGE);
+    job.schedule();
+  }
+
+  /** Stops listening to changes, waits for the running indexing and stores the index. */
+  public void uninstall() {
+    ResourcesPlugin.getWorkspace().removeResourceChangeListener(this);
+    JavaCore.removeElementChangedListener(this);
+    job.cancel();
+    try {
+      job.join();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    compact();
+    synchronized (this) {
+      ready = false;
+      location = null;
+      setSnapshot(null);
+      overlay.clear();
+      dirty.clear();
+    }
+  }
+
+  /** Returns true once the index has been verified against the workspace. */
+  public boolean isReady() {
+    return ready;
+  }
+
+  /**
+   * Waits until the pending changes are indexed.
+   *
+   * @throws InterruptedException if interrupted while waiting
+   */
+  public void join() throws InterruptedException {
+    job.join();
+  }
+
+  /**
+   * Finds references to an element declared in workspace sources.
+   *
+   * @param element element to find references of
+   * @param projects projects to find references in
+   * @return the references, or null if the index can't answer the query: it isn't ready, the
+   *     element isn't declared in a source folder, the element is a method which may be invoked
+   *     through the methods it overrides, or a constructor which may be invoked implicitly
+   */
+  public Lookup find(IJavaElement element, IJavaProject[] projects) throws JavaModelException {
+    if (!ready || !isIndexed(element)) {
+      return null;
+    }
+    Set<String> names =
+        Arrays.stream(projects).map(IJavaElement::getElementName).collect(Collectors.toSet());
+    List<Reference> candidates;
+    Set<String> stale = new HashSet<>();
+    synchronized (this) {
+      if (scanPending || !Collections.disjoint(projectsToReindex, names)) {
+        return null;
+      }
+      candidates = getReferences(element.getHandleIdentifier());
+      stale.addAll(dirty);
+      stale.addAll(indexing);
+    }
+    for (ICompilationUnit copy : JavaCore.getWorkingCopies(null)) {
+      if (copy.hasUnsavedChanges()) {
+        stale.add(copy.getPath().toString());
+      }
+    }
+
+    List<Reference> references = new ArrayList<>();
+    for (Reference reference : candidates) {
+      if (names.contains(getProjectName(reference.getFile()))
+          && !stale.contains(reference.getFile())) {
+        references.add(reference);
+      }
+    }
+    List<ICompilationUnit> staleUnits = new ArrayList<>();
+    for (String path : stale) {
+      if (names.contains(getProjectName(path))) {
+        ICompilationUnit unit = JavaCore.createCompilationUnitFrom(getFile(path));
+        if (unit != null && unit.exists()) {
+          staleUnits.add(unit);
+        }
+      }
+    }
+    return new Lookup(references, staleUnits);
+  }
+
+  @Override
+  public void resourceChanged(IResourceChangeEvent event) {
+    IResourceDelta delta = event.getDelta();
+    if (delta == null) {
+      return;
+    }
+    Set<String> changed = new HashSet<>();
+    Set<String> removed = new HashSet<>();
+    Set<IResource> projects = new HashSet<>();
+    try {
+      delta.accept(
+          child -> {
+            IResource resource = child.getResource();
+            if (resource.getType() == IResource.PROJECT
+                && (child.getKind() == IResourceDelta.REMOVED
+                    || (child.getFlags() & IResourceDelta.OPEN) != 0)) {
+              projects.add(resource);
+            } else if (resource.getType() == IResource.FILE
+                && "java".equals(resource.getFileExtension())) {
+              if (child.getKind() == IResourceDelta.REMOVED) {
+                removed.add(resource.getFullPath().toString());
+              } else if (child.getKind() == IResourceDelta.ADDED
+                  || (child.getFlags() & (IResourceDelta.CONTENT | IResourceDelta.REPLACED)) != 0) {
+                changed.add(resource.getFullPath().toString());
+              }
+            }
+            return true;
+          });
+    } catch (CoreException e) {
+      JavaLanguageServerPlugin.logException("Can't process resource changes", e);
+      return;
+    }
+    if (changed.isEmpty() && removed.isEmpty() && projects.isEmpty()) {
+      return;
+    }
+    synchronized (this) {
+      // files of opened, closed or removed projects are found by a new scan
+      scanPending |= !projects.isEmpty();
+      dirty.addAll(changed);
+      for (String path : removed) {
+        dirty.remove(path);
+        remove(path);
+      }
+    }
+    job.schedule(DELAY);
+  }
+
+  @Override
+  public void elementChanged(ElementChangedEvent event) {
+    Set<String> projects = new HashSet<>();
+    for (IJavaElementDelta child : event.getDelta().getAffectedChildren()) {
+      if ((child.getFlags() & IJavaElementDelta.F_RESOLVED_CLASSPATH_CHANGED) != 0) {
+        projects.add(child.getElement().getElementName());
+      }
+    }
+    if (!projects.isEmpty()) {
+      synchronized (this) {
+        projectsToReindex.addAll(projects);
+      }
+      job.schedule(DELAY);
+    }
+  }
+
+  private static boolean isIndexed(IJavaElement element) throws JavaModelException {
+    IPackageFragmentRoot root =
+        (IPackageFragmentRoot) element.getAncestor(IJavaElement.PACKAGE_FRAGMENT_ROOT);
+    if (root == null || root.getKind() != IPackageFragmentRoot.K_SOURCE) {
+      return false;
+    }
+    switch (element.getElementType()) {
+      case IJavaElement.TYPE:
+      case IJavaElement.FIELD:
+      case IJavaElement.LOCAL_VARIABLE:
+      case IJavaElement.TYPE_PARAMETER:
+        return true;
+      case IJavaElement.METHOD:
+        // constructors are invoked by enum constants, constructor references and implicit super
+        // calls too, the search engine is needed to find those
+        IMethod method = (IMethod) element;
+        return !method.isConstructor()
+            && (Flags.isStatic(method.getFlags()) || Flags.isPrivate(method.getFlags()));
+      default:
+        return false;
+    }
+  }
+
+  private static IFile getFile(String path) {
+    IWorkspaceRoot root = ResourcesPlugin.getWorkspace().getRoot();
+    return root.getFile(root.getFullPath().append(path));
+  }
+
+  private static String getProjectName(String path) {
+    int end = path.indexOf('/', 1);
+    return end < 0 ? path.substring(1) : path.substring(1, end);
+  }
+
+  private List<Reference> getReferences(String key) {
+    List<Reference> references = new ArrayList<>();
+    if (snapshot != null) {
+      for (Reference reference : snapshot.find(key)) {
+        if (!shadowed.contains(reference.getFile())) {
+          references.add(reference);
+        }
+      }
+    }
+    for (IndexedFile file : overlay.values()) {
+      for (Reference reference : file.references) {
+        if (reference.getKey().equals(key)) {
+          references.add(reference);
+        }
+      }
+    }
+    return references;
+  }
+
+  private IndexedFile getEntry(String path) {
+    IndexedFile file = overlay.get(path);
+    if (file == null && !shadowed.contains(path)) {
+      file = snapshotFiles.get(path);
+    }
+    return file;
+  }
+
+  private Set<String> getIndexedPaths() {
+    Set<String> files = new HashSet<>(overlay.keySet());
+    for (String path : snapshotFiles.keySet()) {
+      if (!shadowed.contains(path)) {
+        files.add(path);
+      }
+    }
+    return files;
+  }
+
+  private void put(IndexedFile file) {
+    IndexedFile previous = getEntry(file.path);
+    if (snapshotFiles.containsKey(file.path)) {
+      shadowed.add(file.path);
+    }
+    overlay.put(file.path, file);
+    if (previous != null && !previous.declarations.equals(file.declarations)) {
+      for (String declaration : previous.declarations) {
+        for (Reference reference : getReferences(declaration)) {
+          if (!reference.getFile().equals(file.path)) {
+            dirty.add(reference.getFile());
+          }
+        }
+      }
+    }
+  }
+
+  private void remove(String path) {
+    if (snapshotFiles.containsKey(path)) {
+      shadowed.add(path);
+    }
+    overlay.remove(path);
+  }
+
+  private void setSnapshot(ReferenceIndexFile snapshot) {
+    this.snapshot = snapshot;
+    snapshotFiles.clear();
+    shadowed.clear();
+    if (snapshot != null) {
+      for (IndexedFile file : snapshot.getFiles()) {
+        snapshotFiles.put(file.path, file);
+      }
+    }
+  }
+
+  /**
+   * Writes the snapshot and the changes on top of it to a new snapshot. The new snapshot is written
+   * without holding the index lock, queries keep being answered from the current snapshot, which
+   * stays mapped while its file is replaced. Changes made during the write are kept on top of the
+   * new snapshot.
+   */
+  private void compact() {
+    Path target;
+    ReferenceIndexFile base;
+    Set<String> baseShadowed;
+    Map<String, IndexedFile> changes;
+    synchronized (this) {
+      if (location == null || (overlay.isEmpty() && shadowed.isEmpty())) {
+        return;
+      }
+      target = location;
+      base = snapshot;
+      baseShadowed = new HashSet<>(shadowed);
+      changes = new HashMap<>(overlay);
+    }
+
+    Map<String, IndexedFile> files = new LinkedHashMap<>();
+    if (base != null) {
+      for (IndexedFile file : base.readAll()) {
+        if (!baseShadowed.contains(file.path)) {
+          files.put(file.path, file);
+        }
+      }
+    }
+    files.putAll(changes);
+    ReferenceIndexFile compacted;
+    try {
+      ReferenceIndexFile.write(target, files.values());
+      compacted = ReferenceIndexFile.open(target);
+    } catch (IOException e) {
+      JavaLanguageServerPlugin.logException("Can't write reference index " + target, e);
+      return;
+    }
+
+    synchronized (this) {
+      if (snapshot != base || !target.equals(location)) {
+        return;
+      }
+      // files indexed or removed while the snapshot was written
+      Map<String, IndexedFile> newer = new HashMap<>();
+      overlay.forEach(
+          (path, file) -> {
+            if (changes.get(path) != file) {
+              newer.put(path, file);
+            }
+          });
+      Set<String> removed = new HashSet<>(shadowed);
+      removed.removeAll(baseShadowed);
+      removed.addAll(changes.keySet());
+      removed.removeAll(overlay.keySet());
+
+      setSnapshot(compacted);
+      overlay.clear();
+      overlay.putAll(newer);
+      for (String path : newer.keySet()) {
+        if (snapshotFiles.containsKey(path)) {
+          shadowed.add(path);
+        }
+      }
+      for (String path : removed) {
+        if (snapshotFiles.containsKey(path)) {
+          shadowed.add(path);
+        }
+      }
+    }
+  }
+
+  /** Compares the indexed files with the compilation units of the workspace. */
+  private void scan(IProgressMonitor monitor) throws JavaModelException {
+    Set<String> reindexed;
+    synchronized (this) {
+      scanPending = false;
+      reindexed = new HashSet<>(projectsToReindex);
+      projectsToReindex.clear();
+    }
+    Map<String, Long> stamps = new HashMap<>();
+    for (IJavaProject project :
+        JavaCore.create(ResourcesPlugin.getWorkspace().getRoot()).getJavaProjects()) {
+      if (!project.getProject().isOpen()) {
+        continue;
+      }
+      for (IPackageFragmentRoot root : project.getPackageFragmentRoots()) {
+        if (root.getKind() != IPackageFragmentRoot.K_SOURCE
+            || !project.equals(root.getJavaProject())) {
+          continue;
+        }
+        for (IJavaElement fragment : root.getChildren()) {
+          for (ICompilationUnit unit : ((IPackageFragment) fragment).getCompilationUnits()) {
+            if (monitor.isCanceled()) {
+              throw new OperationCanceledException();
+            }
+            IResource resource = unit.getResource();
+            if (resource != null) {
+              stamps.put(unit.getPath().toString(), resource.getLocalTimeStamp());
+            }
+          }
+        }
+      }
+    }
+
+    synchronized (this) {
+      for (String path : getIndexedPaths()) {
+        if (!stamps.containsKey(path)) {
+          remove(path);
+        }
+      }
+      for (Map.Entry<String, Long> entry : stamps.entrySet()) {
+        IndexedFile file = getEntry(entry.getKey());
+        if (file == null
+            || file.stamp != entry.getValue()
+            || reindexed.contains(getProjectName(entry.getKey()))) {
+          dirty.add(entry.getKey());
+        }
+      }
+    }
+  }
+
+  private void index(IProgressMonitor monitor) {
+    while (true) {
+      List<String> batch;
+      synchronized (this) {
+        batch = dirty.stream().limit(BATCH_SIZE).collect(Collectors.toList());
+        if (batch.isEmpty()) {
+          return;
+        }
+        dirty.removeAll(batch);
+        indexing.addAll(batch);
+      }
+      try {
+        for (IndexedFile file : parse(batch, monitor)) {
+          synchronized (this) {
+            put(file);
+          }
+        }
+      } finally {
+        synchronized (this) {
+          indexing.removeAll(batch);
+        }
+      }
+    }
+  }
+
+  /** Parses the given files, files which aren't compilation units anymore are removed. */
+  private List<IndexedFile> parse(List<String> paths, IProgressMonitor monitor) {
+    Map<IJavaProject, List<ICompilationUnit>> units = new LinkedHashMap<>();
+    Map<ICompilationUnit, Long> stamps = new HashMap<>();
+    for (String path : paths) {
+      IFile file = getFile(path);
+      ICompilationUnit unit = JavaCore.createCompilationUnitFrom(file);
+      if (unit == null || !file.exists() || !unit.getJavaProject().isOnClasspath(unit)) {
+        synchronized (this) {
+          remove(path);
+        }
+      } else if (!unit.hasUnsavedChanges()) {
+        // the unsaved changes are indexed once they are saved
+        units.computeIfAbsent(unit.getJavaProject(), project -> new ArrayList<>()).add(unit);
+        stamps.put(unit, file.getLocalTimeStamp());
+      }
+    }
+
+    List<IndexedFile> files = new ArrayList<>();
+    for (Map.Entry<IJavaProject, List<ICompilationUnit>> entry : units.entrySet()) {
+      ASTParser parser = ASTParser.newParser(IASTSharedValues.SHARED_AST_LEVEL);
+      parser.setProject(entry.getKey());
+      parser.setResolveBindings(true);
+      parser.setBindingsRecovery(true);
+      parser.createASTs(
+          entry.getValue().toArray(new ICompilationUnit[0]),
+          new String[0],
+          new ASTRequestor() {
+            @Override
+            public void acceptAST(ICompilationUnit source, CompilationUnit ast) {
+              files.add(ReferenceCollector.collect(source, ast, stamps.get(source)));
+            }
+          },
+          monitor);
+    }
+    return files;
+  }
+
+  private final class IndexJob extends Job {
+    private IndexJob() {
+      super("Indexing Java references");
+      setSystem(true);
+    }
+
+    @Override
+    protected IStatus run(IProgressMonitor monitor) {
+      SubMonitor progress = SubMonitor.convert(monitor, 2);
+      try {
+        boolean scan;
+        synchronized (ReferenceIndex.this) {
+          scan = scanPending || !projectsToReindex.isEmpty();
+        }
+        if (scan) {
+          scan(progress.split(1));
+        }
+        index(progress.split(1));
+        ready = true;
+        boolean compact;
+        synchronized (ReferenceIndex.this) {
+          compact = overlay.size() + shadowed.size() > COMPACTION_THRESHOLD;
+        }
+        if (compact) {
+          compact();
+        }
+        return Status.OK_STATUS;
+      } catch (OperationCanceledException e) {
+        return Status.CANCEL_STATUS;
+      } catch (JavaModelException e) {
+        JavaLanguageServerPlugin.logException("Can't index Java references", e);
+        return Status.OK_STATUS;
+      }
+    }
+  }
+}
@@ -0,0 +1,273 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.jdt.ls.extension.core.internal.index;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Immutable snapshot of the reference index, stored in a memory mapped file. The files and their
+ * declarations are read when the snapshot is opened, the references are looked up in the mapped
+ * file when queried.
+ *
+ * <p>Layout of the file, all numbers are big endian:
+ *
+ * <pre>
+ * header:     magic, version, file count, key count, keys offset, postings offset, strings offset
+ * files:      path, stamp (long), declaration count, declarations
+ * keys:       key, first posting, posting count - sorted by key
+ * postings:   file index, offset, length, enclosing element
+ * strings:    byte count, UTF-8 bytes
+ * </pre>
+ *
+ * Strings are stored once and referred to by their offset in the strings section.
+ */
+final class ReferenceIndexFile {
+  private static final int MAGIC = 0x43524658;
+  private static final int VERSION = 1;
+  private static final int HEADER_SIZE = 7 * Integer.BYTES;
+  private static final int KEY_SIZE = 3 * Integer.BYTES;
+  private static final int POSTING_SIZE = 4 * Integer.BYTES;
+
+  private final ByteBuffer buffer;
+  private final List<IndexedFile> files;
+  private final int keyCount;
+  private final int keysOffset;
+  private final int postingsOffset;
+  private final int stringsOffset;
+
+  private ReferenceIndexFile(ByteBuffer buffer) throws IOException {
+    this.buffer = buffer;
+    if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+      throw new IOException("Unsupported reference index format");
+    }
+    int fileCount = buffer.getInt(8);
+    keyCount = buffer.getInt(12);
+    keysOffset = buffer.getInt(16);
+    postingsOffset = buffer.getInt(20);
+    stringsOffset = buffer.getInt(24);
+
+    List<IndexedFile> files = new ArrayList<>(fileCount);
+    int position = HEADER_SIZE;
+    for (int i = 0; i < fileCount; i++) {
+      String path = getString(buffer.getInt(position));
+      long stamp = buffer.getLong(position + 4);
+      int declarationCount = buffer.getInt(position + 12);
+      position += 16;
+      Set<String> declarations = new LinkedHashSet<>();
+      for (int j = 0; j < declarationCount; j++, position += 4) {
+        declarations.add(getString(buffer.getInt(position)));
+      }
+      files.add(new IndexedFile(path, stamp, declarations, Collections.emptyList()));
+    }
+    this.files = Collections.unmodifiableList(files);
+  }
+
+  /**
+   * Maps the snapshot stored in the given file.
+   *
+   * @throws IOException if the file can't be read or has an unsupported format
+   */
+  static ReferenceIndexFile open(Path path) throws IOException {
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+      try {
+        return new ReferenceIndexFile(buffer);
+      } catch (IndexOutOfBoundsException e) {
+        throw new IOException("Truncated reference index " + path, e);
+      }
+    }
+  }
+
+  /**
+   * Writes a snapshot of the given files. The snapshot is written to a temporary file first, which
+   * then replaces the given file, so a reader never sees a partially written snapshot.
+   */
+  static void write(Path path, Collection<IndexedFile> files) throws IOException {
+    StringTable strings = new StringTable();
+    Map<String, Integer> fileIndexes = new HashMap<>();
+    TreeMap<String, List<Reference>> postings = new TreeMap<>();
+    int filesSize = 0;
+    int postingCount = 0;
+    for (IndexedFile file : files) {
+      fileIndexes.put(file.path, fileIndexes.size());
+      strings.add(file.path);
+      file.declarations.forEach(strings::add);
+      filesSize += 16 + 4 * file.declarations.size();
+      for (Reference reference : file.references) {
+        strings.add(reference.getKey());
+        strings.add(reference.getEnclosingElementHandle());
+        postings.computeIfAbsent(reference.getKey(), key -> new ArrayList<>()).add(reference);
+        postingCount++;
+      }
+    }
+    int keysOffset = HEADER_SIZE + filesSize;
+    int postingsOffset = keysOffset + KEY_SIZE * postings.size();
+    int stringsOffset = postingsOffset + POSTING_SIZE * postingCount;
+
+    Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+    Files.createDirectories(path.getParent());
+    try (DataOutputStream out =
+        new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+      out.writeInt(MAGIC);
+      out.writeInt(VERSION);
+      out.writeInt(files.size());
+      out.writeInt(postings.size());
+      out.writeInt(keysOffset);
+      out.writeInt(postingsOffset);
+      out.writeInt(stringsOffset);
+      for (IndexedFile file : files) {
+        out.writeInt(strings.offsetOf(file.path));
+        out.writeLong(file.stamp);
+        out.writeInt(file.declarations.size());
+        for (String declaration : file.declarations) {
+          out.writeInt(strings.offsetOf(declaration));
+        }
+      }
+      int first = 0;
+      for (Map.Entry<String, List<Reference>> entry : postings.entrySet()) {
+        out.writeInt(strings.offsetOf(entry.getKey()));
+        out.writeInt(first);
+        out.writeInt(entry.getValue().size());
+        first += entry.getValue().size();
+      }
+      for (List<Reference> references : postings.values()) {
+        for (Reference reference : references) {
+          out.writeInt(fileIndexes.get(reference.getFile()));
+          out.writeInt(reference.getOffset());
+          out.writeInt(reference.getLength());
+          out.writeInt(strings.offsetOf(reference.getEnclosingElementHandle()));
+        }
+      }
+      for (String string : strings.offsets.keySet()) {
+        byte[] bytes = string.getBytes(UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+      }
+    }
+    Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+  }
+
+  /** Returns the indexed files, without their references. */
+  List<IndexedFile> getFiles() {
+    return files;
+  }
+
+  /** Returns the references to the element with the given handle identifier. */
+  List<Reference> find(String key) {
+    int low = 0;
+    int high = keyCount - 1;
+    while (low <= high) {
+      int middle = (low + high) >>> 1;
+      int position = keysOffset + middle * KEY_SIZE;
+      int comparison = getString(buffer.getInt(position)).compareTo(key);
+      if (comparison < 0) {
+        low = middle + 1;
+      } else if (comparison > 0) {
+        high = middle - 1;
+      } else {
+        List<Reference> references = new ArrayList<>();
+        readPostings(key, buffer.getInt(position + 4), buffer.getInt(position + 8), references);
+        return references;
+      }
+    }
+    return Collections.emptyList();
+  }
+
+  /** Returns all the indexed files with their references. */
+  List<IndexedFile> readAll() {
+    Map<String, List<Reference>> references = new HashMap<>();
+    for (int i = 0; i < keyCount; i++) {
+      int position = keysOffset + i * KEY_SIZE;
+      List<Reference> postings = new ArrayList<>();
+      readPostings(
+          getString(buffer.getInt(position)),
+          buffer.getInt(position + 4),
+          buffer.getInt(position + 8),
+          postings);
+      for (Reference reference : postings) {
+        references.computeIfAbsent(reference.getFile(), file -> new ArrayList<>()).add(reference);
+      }
+    }
+    List<IndexedFile> result = new ArrayList<>(files.size());
+    for (IndexedFile file : files) {
+      result.add(
+          new IndexedFile(
+              file.path,
+              file.stamp,
+              file.declarations,
+              references.getOrDefault(file.path, Collections.emptyList())));
+    }
+    return result;
+  }
+
+  private void readPostings(String key, int first, int count, List<Reference> references) {
+    for (int i = first; i < first + count; i++) {
+      int position = postingsOffset + i * POSTING_SIZE;
+      references.add(
+          new Reference(
+              key,
+              files.get(buffer.getInt(position)).path,
+              buffer.getInt(position + 4),
+              buffer.getInt(position + 8),
+              getString(buffer.getInt(position + 12))));
+    }
+  }
+
+  private String getString(int offset) {
+    int position = stringsOffset + offset;
+    byte[] bytes = new byte[buffer.getInt(position)];
+    ByteBuffer string = buffer.duplicate();
+    string.position(position + Integer.BYTES);
+    string.get(bytes);
+    return new String(bytes, UTF_8);
+  }
+
+  /** Strings of a snapshot being written, each string is stored once. */
+  private static final class StringTable {
+    private final Map<String, Integer> offsets = new LinkedHashMap<>();
+    private int size;
+
+    private void add(String string) {
+      offsets.computeIfAbsent(
+          string,
+          s -> {
+            int offset = size;
+            size += Integer.BYTES + s.getBytes(UTF_8).length;
+            return offset;
+          });
+    }
+
+    private int offsetOf(String string) {
+      return offsets.get(string);
+    }
+  }
+}
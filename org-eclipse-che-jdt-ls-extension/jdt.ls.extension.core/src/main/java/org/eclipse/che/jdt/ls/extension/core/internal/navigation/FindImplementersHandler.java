@@ -12,11 +12,13 @@ package org.eclipse.che.jdt.ls.extension.core.internal.navigation;
 
 import static org.eclipse.che.jdt.ls.extension.core.internal.Utils.ensureNotCancelled;
 
-import com.google.gson.Gson;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import org.eclipse.che.jdt.ls.extension.api.dto.ImplementersResponse;
-import org.eclipse.che.jdt.ls.extension.core.internal.GsonUtils;
+import org.eclipse.che.jdt.ls.extension.core.internal.JavaModelUtil;
+import org.eclipse.che.jdt.ls.extension.core.internal.LabelCache;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.jdt.core.IJavaElement;
 import org.eclipse.jdt.core.IMethod;
@@ -40,13 +42,14 @@ import org.eclipse.lsp4j.TextDocumentPositionParams;
  * @author dbocharo
  */
 public class FindImplementersHandler {
-  private static final Gson gson = GsonUtils.getInstance();
-
   /**
    * Finds implementers for an element defined by position
    *
    * @param parameters first parameter must be of type {@link TextDocumentPositionParams}, which
-   *     defines a position of an element which search implementers for
+   *     defines a position of an element which search implementers for. The optional second
+   *     parameter defers the labels of the implementers, if {@code true}: the implementers are
+   *     named by their element names and the response carries their handles, see {@link
+   *     ResolveLabelsHandler}
    * @param pm a progress monitor
    * @return an object of type {@link ImplementersResponse}, which contains description of a
    *     searched element and implementers
@@ -54,12 +57,18 @@ public class FindImplementersHandler {
   @SuppressWarnings("restriction")
   public static ImplementersResponse getImplementers(List<Object> parameters, IProgressMonitor pm) {
     TextDocumentPositionParams param =
-        gson.fromJson(gson.toJson(parameters.get(0)), TextDocumentPositionParams.class);
+        JavaModelUtil.convertCommandParameter(parameters.get(0), TextDocumentPositionParams.class);
 
     ITypeRoot typeRoot = JDTUtils.resolveTypeRoot(param.getTextDocument().getUri());
 
     ImplementersResponse implementersResponse = new ImplementersResponse();
     List<SymbolInformation> implementers = new ArrayList<>();
+    Map<String, String> uris = new HashMap<>();
+    boolean deferLabels =
+        parameters.size() > 1
+            && Boolean.TRUE.equals(
+                JavaModelUtil.convertCommandParameter(parameters.get(1), Boolean.class));
+    List<String> handles = deferLabels ? new ArrayList<>() : null;
 
     ensureNotCancelled(pm);
 
@@ -74,34 +83,43 @@ public class FindImplementersHandler {
       if (elementToSearch != null) {
         implementersResponse.setSearchedElement(elementToSearch.getElementName());
         if (IJavaElement.TYPE == elementToSearch.getElementType()) {
-          findSubTypes(elementToSearch, implementers, pm);
+          findSubTypes(elementToSearch, implementers, handles, uris, pm);
         } else if (IJavaElement.METHOD == elementToSearch.getElementType()) {
-          findTypesWithSubMethods(elementToSearch, implementers, pm);
+          findTypesWithSubMethods(elementToSearch, implementers, handles, uris, pm);
         }
       }
     } catch (JavaModelException e) {
       throw new RuntimeException(e);
     }
     implementersResponse.setImplementers(implementers);
+    implementersResponse.setHandles(handles);
     return implementersResponse;
   }
 
   private static void findSubTypes(
-      IJavaElement element, List<SymbolInformation> implementers, IProgressMonitor pm)
+      IJavaElement element,
+      List<SymbolInformation> implementers,
+      List<String> handles,
+      Map<String, String> uris,
+      IProgressMonitor pm)
       throws JavaModelException {
     IType type = (IType) element;
     ITypeHierarchy typeHierarchy = type.newTypeHierarchy(pm);
     IType[] implTypes = typeHierarchy.getAllSubtypes(type);
 
     for (IType implType : implTypes) {
-      SymbolInformation dto = convertToSymbolInformation(implType);
+      SymbolInformation dto = convertToSymbolInformation(implType, handles, uris);
       implementers.add(dto);
     }
   }
 
   @SuppressWarnings("restriction")
   private static void findTypesWithSubMethods(
-      IJavaElement element, List<SymbolInformation> implementers, IProgressMonitor pm)
+      IJavaElement element,
+      List<SymbolInformation> implementers,
+      List<String> handles,
+      Map<String, String> uris,
+      IProgressMonitor pm)
       throws JavaModelException {
     IMethod selectedMethod = (IMethod) element;
     IType parentType = selectedMethod.getDeclaringType();
@@ -118,20 +136,28 @@ public class FindImplementersHandler {
       if (method == null) {
         continue;
       }
-      SymbolInformation openDeclaration = convertToSymbolInformation(method);
+      SymbolInformation openDeclaration = convertToSymbolInformation(method, handles, uris);
       implementers.add(openDeclaration);
     }
   }
 
+  /** @param handles collects the handles of the symbols if their labels are deferred, or null */
   @SuppressWarnings("restriction")
-  private static SymbolInformation convertToSymbolInformation(IJavaElement javaElement)
+  private static SymbolInformation convertToSymbolInformation(
+      IJavaElement javaElement, List<String> handles, Map<String, String> uris)
       throws JavaModelException {
     SymbolInformation symbolInformation = new SymbolInformation();
     symbolInformation.setKind(DocumentSymbolHandler.mapKind(javaElement));
-    symbolInformation.setName(
-        JavaElementLabels.getElementLabel(javaElement, JavaElementLabels.ALL_DEFAULT));
+    if (handles != null) {
+      symbolInformation.setName(javaElement.getElementName());
+      handles.add(javaElement.getHandleIdentifier());
+    } else {
+      symbolInformation.setName(
+          LabelCache.getElementLabel(javaElement, JavaElementLabels.ALL_DEFAULT));
+    }
     Location location = JDTUtils.toLocation(javaElement);
-    location.setUri(ResourceUtils.toClientUri(location.getUri()));
+    // implementers declared in the same file share the uri
+    location.setUri(uris.computeIfAbsent(location.getUri(), ResourceUtils::toClientUri));
     symbolInformation.setLocation(location);
     return symbolInformation;
   }
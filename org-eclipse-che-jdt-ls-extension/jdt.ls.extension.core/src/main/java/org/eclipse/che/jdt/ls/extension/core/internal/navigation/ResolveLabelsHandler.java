@@ -0,0 +1,54 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.jdt.ls.extension.core.internal.navigation;
+
+import static org.eclipse.che.jdt.ls.extension.core.internal.Utils.ensureNotCancelled;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.eclipse.che.jdt.ls.extension.api.dto.ResolveLabelsParameters;
+import org.eclipse.che.jdt.ls.extension.core.internal.JavaModelUtil;
+import org.eclipse.che.jdt.ls.extension.core.internal.LabelCache;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.ls.core.internal.hover.JavaElementLabels;
+
+/**
+ * Command to compose the labels of symbols sent with deferred labels, e.g. implementers. Clients
+ * resolve the labels of the symbols they actually display only.
+ */
+public class ResolveLabelsHandler {
+  /**
+   * Composes the labels of elements.
+   *
+   * @param parameters first parameter must be of type {@link ResolveLabelsParameters}
+   * @param pm a progress monitor
+   * @return the labels in the order of the handles. The label of an element which doesn't exist
+   *     anymore is {@code null}.
+   */
+  public static List<String> resolveLabels(List<Object> parameters, IProgressMonitor pm) {
+    ResolveLabelsParameters params =
+        JavaModelUtil.convertCommandParameter(parameters.get(0), ResolveLabelsParameters.class);
+    long flags =
+        params.getPostQualified()
+            ? JavaElementLabels.DEFAULT_POST_QUALIFIED
+            : JavaElementLabels.ALL_DEFAULT;
+    List<String> labels = new ArrayList<>(params.getHandles().size());
+    for (String handle : params.getHandles()) {
+      ensureNotCancelled(pm);
+      IJavaElement element = JavaCore.create(handle);
+      labels.add(
+          element != null && element.exists() ? LabelCache.getElementLabel(element, flags) : null);
+    }
+    return labels;
+  }
+}
@@ -24,12 +24,10 @@ import static org.eclipse.jdt.core.JavaCore.newSourceEntry;
 import static org.eclipse.jdt.core.JavaCore.newVariableEntry;
 
 import com.google.common.base.Preconditions;
-import com.google.gson.Gson;
 import java.util.ArrayList;
 import java.util.List;
 import org.eclipse.che.jdt.ls.extension.api.dto.ClasspathEntry;
 import org.eclipse.che.jdt.ls.extension.api.dto.UpdateClasspathParameters;
-import org.eclipse.che.jdt.ls.extension.core.internal.GsonUtils;
 import org.eclipse.che.jdt.ls.extension.core.internal.JavaModelUtil;
 import org.eclipse.core.runtime.IPath;
 import org.eclipse.core.runtime.IProgressMonitor;
@@ -43,8 +41,6 @@ import org.eclipse.jdt.core.JavaModelException;
  * @author Valeriy Svydenko
  */
 public class UpdateProjectClasspathCommand {
-  private static final Gson gson = GsonUtils.getInstance();
-
   /**
    * Updates .classpath in the given simple java project.
    *
@@ -57,7 +53,7 @@ public class UpdateProjectClasspathCommand {
     Preconditions.checkArgument(arguments.size() >= 1, "Information about .classpath is expected");
 
     UpdateClasspathParameters parameters =
-        gson.fromJson(gson.toJson(arguments.get(0)), UpdateClasspathParameters.class);
+        JavaModelUtil.convertCommandParameter(arguments.get(0), UpdateClasspathParameters.class);
 
     final String projectUri = parameters.getProjectUri();
     final List<ClasspathEntry> entries = parameters.getEntries();
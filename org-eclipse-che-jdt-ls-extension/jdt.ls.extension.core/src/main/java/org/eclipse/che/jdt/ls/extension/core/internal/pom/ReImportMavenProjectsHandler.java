@@ -12,7 +12,6 @@ package org.eclipse.che.jdt.ls.extension.core.internal.pom;
 
 import static org.eclipse.che.jdt.ls.extension.core.internal.Utils.ensureNotCancelled;
 
-import com.google.gson.Gson;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
@@ -23,7 +22,7 @@ import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 import org.eclipse.che.jdt.ls.extension.api.dto.ReImportMavenProjectsCommandParameters;
-import org.eclipse.che.jdt.ls.extension.core.internal.GsonUtils;
+import org.eclipse.che.jdt.ls.extension.core.internal.JavaModelUtil;
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IProject;
 import org.eclipse.core.runtime.IProgressMonitor;
@@ -44,8 +43,6 @@ import org.eclipse.jdt.ls.core.internal.preferences.PreferenceManager;
 public class ReImportMavenProjectsHandler {
   public static long REIMPORT_TIMEOUT = 60L;
 
-  private static final Gson gson = GsonUtils.getInstance();
-
   private static final PreferenceManager preferenceManager = new PreferenceManager();
   private static final ProjectsManager projectsManager = new ProjectsManager(preferenceManager);
   private static final IJobManager jobManager = Job.getJobManager();
@@ -73,8 +70,8 @@ public class ReImportMavenProjectsHandler {
         updatedProjectsPaths.clear();
 
         ReImportMavenProjectsCommandParameters parameters =
-            gson.fromJson(
-                gson.toJson(arguments.get(0)), ReImportMavenProjectsCommandParameters.class);
+            JavaModelUtil.convertCommandParameter(
+                arguments.get(0), ReImportMavenProjectsCommandParameters.class);
 
         ensureNotCancelled(progressMonitor);
         return new ArrayList<>(
@@ -58,7 +58,8 @@ public class AnnotationSearchRequestor extends SearchRequestor {
     }
   }
 
-  private boolean isAccessibleType(IType type) {
+  /** Tells whether the type is a concrete class which a test runner can instantiate. */
+  static boolean isAccessibleType(IType type) {
     try {
       if (isAccessibleClass(type) && !Flags.isAbstract(type.getFlags())) {
         return true;
@@ -107,9 +107,15 @@ public class JavaTestFinder {
     } catch (JavaModelException e) {
       return emptyList();
     }
-    return packageFragment == null
-        ? emptyList()
-        : findClassesInContainer(packageFragment, testMethodAnnotation, testClassAnnotation);
+    if (packageFragment == null) {
+      return emptyList();
+    }
+    try {
+      return TestIndex.getInstance()
+          .findTestClasses(packageFragment, testMethodAnnotation, testClassAnnotation);
+    } catch (JavaModelException e) {
+      return emptyList();
+    }
   }
 
   /**
@@ -129,7 +135,12 @@ public class JavaTestFinder {
       return emptyList();
     }
 
-    return findClassesInContainer(javaProject, testMethodAnnotation, testClassAnnotation);
+    try {
+      return TestIndex.getInstance()
+          .findTestClasses(javaProject, testMethodAnnotation, testClassAnnotation);
+    } catch (JavaModelException e) {
+      return emptyList();
+    }
   }
 
   /**
@@ -12,13 +12,12 @@ package org.eclipse.che.jdt.ls.extension.core.internal.testdetection;
 
 import static org.eclipse.che.jdt.ls.extension.core.internal.Utils.ensureNotCancelled;
 
-import com.google.gson.Gson;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import org.eclipse.che.jdt.ls.extension.api.dto.TestPosition;
 import org.eclipse.che.jdt.ls.extension.api.dto.TestPositionParameters;
-import org.eclipse.che.jdt.ls.extension.core.internal.GsonUtils;
+import org.eclipse.che.jdt.ls.extension.core.internal.JavaModelUtil;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.jdt.core.Flags;
 import org.eclipse.jdt.core.ICompilationUnit;
@@ -33,8 +32,6 @@ import org.eclipse.jdt.ls.core.internal.JavaLanguageServerPlugin;
 /** Handler for test detection events. */
 public class TestDetectionHandler {
 
-  private static final Gson gson = GsonUtils.getInstance();
-
   /**
    * Detects if the java class has tests.
    *
@@ -44,7 +41,7 @@ public class TestDetectionHandler {
    */
   public static List<TestPosition> detect(List<Object> arguments, IProgressMonitor pm) {
     TestPositionParameters parameters =
-        gson.fromJson(gson.toJson(arguments.get(0)), TestPositionParameters.class);
+        JavaModelUtil.convertCommandParameter(arguments.get(0), TestPositionParameters.class);
 
     String fileUri = parameters.getFileUri();
     String testAnnotation = parameters.getTestAnnotation();
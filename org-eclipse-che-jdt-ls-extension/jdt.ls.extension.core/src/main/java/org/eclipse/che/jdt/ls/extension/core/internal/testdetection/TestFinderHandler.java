@@ -17,17 +17,14 @@ import static org.eclipse.che.jdt.ls.extension.core.internal.testdetection.JavaT
 import static org.eclipse.che.jdt.ls.extension.core.internal.testdetection.JavaTestFinder.findTestMethodDeclaration;
 import static org.eclipse.jdt.ls.core.internal.JDTUtils.resolveCompilationUnit;
 
-import com.google.gson.Gson;
 import java.util.List;
 import org.eclipse.che.jdt.ls.extension.api.dto.TestFindParameters;
-import org.eclipse.che.jdt.ls.extension.core.internal.GsonUtils;
+import org.eclipse.che.jdt.ls.extension.core.internal.JavaModelUtil;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.jdt.core.ICompilationUnit;
 
 /** Class for finding test methods in the different areas. */
 public class TestFinderHandler {
-  private static final Gson gson = GsonUtils.getInstance();
-
   /**
    * Returns test class declaration by file uri.
    *
@@ -37,7 +34,7 @@ public class TestFinderHandler {
    */
   public static List<String> getClassFqn(List<Object> arguments, IProgressMonitor pm) {
     TestFindParameters parameters =
-        gson.fromJson(gson.toJson(arguments.get(0)), TestFindParameters.class);
+        JavaModelUtil.convertCommandParameter(arguments.get(0), TestFindParameters.class);
 
     String uriString = parameters.getSourceUri();
     String methodAnnotation = parameters.getTestMethodAnnotation();
@@ -59,7 +56,7 @@ public class TestFinderHandler {
    */
   public static List<String> getClassesFromFolder(List<Object> arguments, IProgressMonitor pm) {
     TestFindParameters parameters =
-        gson.fromJson(gson.toJson(arguments.get(0)), TestFindParameters.class);
+        JavaModelUtil.convertCommandParameter(arguments.get(0), TestFindParameters.class);
 
     String folderUri = parameters.getSourceUri();
     String testMethodAnnotation = parameters.getTestMethodAnnotation();
@@ -80,7 +77,7 @@ public class TestFinderHandler {
    */
   public static List<String> getClassesFromProject(List<Object> arguments, IProgressMonitor pm) {
     TestFindParameters parameters =
-        gson.fromJson(gson.toJson(arguments.get(0)), TestFindParameters.class);
+        JavaModelUtil.convertCommandParameter(arguments.get(0), TestFindParameters.class);
 
     String projectUri = parameters.getSourceUri();
     String testMethodAnnotation = parameters.getTestMethodAnnotation();
@@ -100,7 +97,7 @@ public class TestFinderHandler {
    */
   public static List<String> getTestByCursorPosition(List<Object> arguments, IProgressMonitor pm) {
     TestFindParameters parameters =
-        gson.fromJson(gson.toJson(arguments.get(0)), TestFindParameters.class);
+        JavaModelUtil.convertCommandParameter(arguments.get(0), TestFindParameters.class);
 
     String fileUri = parameters.getSourceUri();
     int cursorOffset = parameters.getCursorOffset();
@@ -120,7 +117,7 @@ public class TestFinderHandler {
    */
   public static List<String> getClassesFromSet(List<Object> arguments, IProgressMonitor pm) {
     TestFindParameters parameters =
-        gson.fromJson(gson.toJson(arguments.get(0)), TestFindParameters.class);
+        JavaModelUtil.convertCommandParameter(arguments.get(0), TestFindParameters.class);
 
     List<String> classes = parameters.getEntryClasses();
 
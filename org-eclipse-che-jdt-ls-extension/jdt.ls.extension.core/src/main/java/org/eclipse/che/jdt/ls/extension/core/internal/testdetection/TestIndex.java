@@ -0,0 +1,440 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.jdt.ls.extension.core.internal.testdetection;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.eclipse.jdt.core.ElementChangedEvent;
+import org.eclipse.jdt.core.IAnnotation;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IElementChangedListener;
+import org.eclipse.jdt.core.IImportDeclaration;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IJavaElementDelta;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.IMethod;
+import org.eclipse.jdt.core.IPackageFragment;
+import org.eclipse.jdt.core.IPackageFragmentRoot;
+import org.eclipse.jdt.core.IType;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.core.JavaModelException;
+import org.eclipse.jdt.core.Signature;
+
+/**
+ * In-memory index of the classes declared in the source folders of the projects. For every
+ * compilation unit it keeps the classes, their superclasses and the annotations of the classes and
+ * their methods, so the test classes of a project or a package are found without building a type
+ * hierarchy and searching for the annotation references.
+ *
+ * <p>A project is indexed on its first query. Element deltas mark the changed compilation units,
+ * which are indexed again on the next query. Changes of the classpath or the source folders drop
+ * the index of the project.
+ */
+public final class TestIndex implements IElementChangedListener {
+  private static final int CLASSPATH_FLAGS =
+      IJavaElementDelta.F_CLASSPATH_CHANGED
+          | IJavaElementDelta.F_RESOLVED_CLASSPATH_CHANGED
+          | IJavaElementDelta.F_OPENED
+          | IJavaElementDelta.F_CLOSED;
+
+  private static final TestIndex instance = new TestIndex();
+
+  // indexed projects by name
+  private final Map<String, Project> projects = new HashMap<>();
+
+  TestIndex() {}
+
+  /** Returns the index shared by the test finder commands. */
+  public static TestIndex getInstance() {
+    return instance;
+  }
+
+  /** Starts listening to changes of the Java model. */
+  public void install() {
+    JavaCore.addElementChangedListener(
+        this, ElementChangedEvent.POST_CHANGE | ElementChangedEvent.POST_RECONCILE);
+  }
+
+  /** Stops listening to changes and drops the index. */
+  public void uninstall() {
+    JavaCore.removeElementChangedListener(this);
+    clear();
+  }
+
+  /** Drops the index of all the projects. */
+  synchronized void clear() {
+    projects.clear();
+  }
+
+  /**
+   * Finds the test classes in the source folders of a project: the classes which reference the
+   * annotations on themselves or on their methods, and their subclasses.
+   *
+   * @param javaProject the project
+   * @param methodAnnotation java annotation which describes test method in the test framework
+   * @param classAnnotation java annotation which describes test class in the test framework, may be
+   *     {@code null}
+   * @return fully qualified names of the test classes
+   */
+  public List<String> findTestClasses(
+      IJavaProject javaProject, String methodAnnotation, String classAnnotation)
+      throws JavaModelException {
+    return findTestClasses(getUnits(javaProject), methodAnnotation, classAnnotation);
+  }
+
+  /**
+   * Finds the test classes of a package fragment, like {@link #findTestClasses(IJavaProject,
+   * String, String)}. Only subclasses declared in the package fragment are considered.
+   */
+  public List<String> findTestClasses(
+      IPackageFragment fragment, String methodAnnotation, String classAnnotation)
+      throws JavaModelException {
+    String handle = fragment.getHandleIdentifier();
+    List<Unit> units = new ArrayList<>();
+    for (Unit unit : getUnits(fragment.getJavaProject())) {
+      if (handle.equals(unit.fragment)) {
+        units.add(unit);
+      }
+    }
+    return findTestClasses(units, methodAnnotation, classAnnotation);
+  }
+
+  /** Returns the number of indexed compilation units. */
+  synchronized int size() {
+    int size = 0;
+    for (Project project : projects.values()) {
+      for (Unit unit : project.units.values()) {
+        if (unit != null) {
+          size++;
+        }
+      }
+    }
+    return size;
+  }
+
+  private static List<String> findTestClasses(
+      List<Unit> units, String methodAnnotation, String classAnnotation) {
+    Map<String, List<Type>> subclasses = new HashMap<>();
+    for (Unit unit : units) {
+      for (Type type : unit.types) {
+        if (type.superclass != null) {
+          subclasses.computeIfAbsent(type.superclass, key -> new ArrayList<>()).add(type);
+        }
+      }
+    }
+    Set<Type> found = new LinkedHashSet<>();
+    for (Unit unit : units) {
+      for (Type type : unit.types) {
+        if (unit.references(type, methodAnnotation)
+            || (classAnnotation != null
+                && !classAnnotation.isEmpty()
+                && unit.references(type, classAnnotation))) {
+          addTypeAndSubtypes(type, subclasses, found);
+        }
+      }
+    }
+    List<String> result = new ArrayList<>(found.size());
+    for (Type type : found) {
+      result.add(type.name);
+    }
+    return result;
+  }
+
+  /** Adds the type and its subclasses, like {@link AnnotationSearchRequestor}. */
+  private static void addTypeAndSubtypes(
+      Type type, Map<String, List<Type>> subclasses, Set<Type> found) {
+    if (!type.accessible) {
+      return;
+    }
+    if (found.add(type)) {
+      for (Type subclass : subclasses.getOrDefault(type.key, Collections.emptyList())) {
+        addTypeAndSubtypes(subclass, subclasses, found);
+      }
+    }
+  }
+
+  /**
+   * Returns the indexed compilation units of a project, indexes the new and changed ones. The Java
+   * model is read without holding the lock of the index.
+   */
+  private List<Unit> getUnits(IJavaProject javaProject) throws JavaModelException {
+    Project project;
+    boolean list;
+    synchronized (this) {
+      project = projects.computeIfAbsent(javaProject.getElementName(), name -> new Project());
+      list = !project.listed;
+      project.listed = true;
+    }
+    if (list) {
+      Set<String> handles;
+      try {
+        handles = listUnits(javaProject);
+      } catch (JavaModelException e) {
+        relist(javaProject.getElementName());
+        throw e;
+      }
+      synchronized (this) {
+        project.units.keySet().retainAll(handles);
+        project.stale.retainAll(handles);
+        for (String handle : handles) {
+          project.units.putIfAbsent(handle, null);
+        }
+      }
+    }
+    List<String> stale = new ArrayList<>();
+    synchronized (this) {
+      for (Map.Entry<String, Unit> entry : project.units.entrySet()) {
+        Unit unit = entry.getValue();
+        if (unit == null || unit.unresolved || project.stale.contains(entry.getKey())) {
+          stale.add(entry.getKey());
+        }
+      }
+      project.stale.removeAll(stale);
+    }
+    Map<String, Unit> indexed = new HashMap<>();
+    for (String handle : stale) {
+      IJavaElement element = JavaCore.create(handle);
+      if (element instanceof ICompilationUnit && element.exists()) {
+        indexed.put(handle, index((ICompilationUnit) element));
+      }
+    }
+    synchronized (this) {
+      for (Map.Entry<String, Unit> entry : indexed.entrySet()) {
+        if (project.units.containsKey(entry.getKey())) {
+          project.units.put(entry.getKey(), entry.getValue());
+        }
+      }
+      List<Unit> units = new ArrayList<>(project.units.size());
+      for (Unit unit : project.units.values()) {
+        if (unit != null) {
+          units.add(unit);
+        }
+      }
+      return units;
+    }
+  }
+
+  /** Returns the handles of the compilation units in the source folders of the project. */
+  private static Set<String> listUnits(IJavaProject javaProject) throws JavaModelException {
+    Set<String> handles = new LinkedHashSet<>();
+    for (IPackageFragmentRoot root : javaProject.getPackageFragmentRoots()) {
+      if (root.getKind() != IPackageFragmentRoot.K_SOURCE) {
+        continue;
+      }
+      for (IJavaElement child : root.getChildren()) {
+        for (ICompilationUnit unit : ((IPackageFragment) child).getCompilationUnits()) {
+          handles.add(unit.getHandleIdentifier());
+        }
+      }
+    }
+    return handles;
+  }
+
+  private static Unit index(ICompilationUnit compilationUnit) throws JavaModelException {
+    List<String> imports = new ArrayList<>();
+    for (IImportDeclaration declaration : compilationUnit.getImports()) {
+      imports.add(declaration.getElementName());
+    }
+    IJavaElement fragment = compilationUnit.getParent();
+    Unit unit = new Unit(fragment.getHandleIdentifier(), fragment.getElementName(), imports);
+    for (IType type : compilationUnit.getTypes()) {
+      index(type, unit);
+    }
+    return unit;
+  }
+
+  private static void index(IType type, Unit unit) throws JavaModelException {
+    Set<String> annotations = new HashSet<>();
+    addAnnotations(type.getAnnotations(), annotations);
+    for (IMethod method : type.getMethods()) {
+      addAnnotations(method.getAnnotations(), annotations);
+    }
+    String superclass = null;
+    String superclassName = type.getSuperclassName();
+    if (superclassName != null) {
+      String[][] resolved = type.resolveType(Signature.getTypeErasure(superclassName));
+      if (resolved != null && resolved.length == 1) {
+        superclass =
+            resolved[0][0].isEmpty() ? resolved[0][1] : resolved[0][0] + '.' + resolved[0][1];
+      } else {
+        // may resolve once the superclass is declared
+        unit.unresolved = true;
+      }
+    }
+    unit.types.add(
+        new Type(
+            type.getFullyQualifiedName(),
+            type.getFullyQualifiedName('.'),
+            superclass,
+            AnnotationSearchRequestor.isAccessibleType(type),
+            annotations));
+    for (IType member : type.getTypes()) {
+      index(member, unit);
+    }
+  }
+
+  private static void addAnnotations(IAnnotation[] annotations, Collection<String> names) {
+    for (IAnnotation annotation : annotations) {
+      names.add(annotation.getElementName());
+    }
+  }
+
+  @Override
+  public void elementChanged(ElementChangedEvent event) {
+    visit(event.getDelta());
+  }
+
+  private void visit(IJavaElementDelta delta) {
+    IJavaElement element = delta.getElement();
+    switch (element.getElementType()) {
+      case IJavaElement.JAVA_MODEL:
+        break;
+      case IJavaElement.JAVA_PROJECT:
+        if (delta.getKind() != IJavaElementDelta.CHANGED
+            || (delta.getFlags() & CLASSPATH_FLAGS) != 0) {
+          drop(element.getElementName());
+          return;
+        }
+        break;
+      case IJavaElement.PACKAGE_FRAGMENT_ROOT:
+        if (delta.getKind() != IJavaElementDelta.CHANGED
+            || (delta.getFlags()
+                    & (IJavaElementDelta.F_ADDED_TO_CLASSPATH
+                        | IJavaElementDelta.F_REMOVED_FROM_CLASSPATH))
+                != 0) {
+          drop(element.getJavaProject().getElementName());
+          return;
+        }
+        break;
+      case IJavaElement.PACKAGE_FRAGMENT:
+        if (delta.getKind() != IJavaElementDelta.CHANGED) {
+          relist(element.getJavaProject().getElementName());
+          return;
+        }
+        break;
+      case IJavaElement.COMPILATION_UNIT:
+        if (((ICompilationUnit) element).getOwner() == null) {
+          if (delta.getKind() == IJavaElementDelta.CHANGED) {
+            markStale(element.getJavaProject().getElementName(), element.getHandleIdentifier());
+          } else {
+            relist(element.getJavaProject().getElementName());
+          }
+        }
+        return;
+      default:
+        return;
+    }
+    for (IJavaElementDelta child : delta.getAffectedChildren()) {
+      visit(child);
+    }
+  }
+
+  private synchronized void drop(String projectName) {
+    projects.remove(projectName);
+  }
+
+  /** Lists the compilation units of the project again on the next query. */
+  private synchronized void relist(String projectName) {
+    Project project = projects.get(projectName);
+    if (project != null) {
+      project.listed = false;
+    }
+  }
+
+  private synchronized void markStale(String projectName, String handle) {
+    Project project = projects.get(projectName);
+    if (project != null && project.units.containsKey(handle)) {
+      project.stale.add(handle);
+    }
+  }
+
+  private static final class Project {
+    // indexed compilation units by handle, null until the unit is indexed
+    private final Map<String, Unit> units = new LinkedHashMap<>();
+    // handles of the compilation units changed since they were indexed
+    private final Set<String> stale = new HashSet<>();
+    private boolean listed;
+  }
+
+  private static final class Unit {
+    // handle of the package fragment
+    private final String fragment;
+    private final String packageName;
+    private final List<String> imports;
+    private final List<Type> types = new ArrayList<>();
+    // whether a superclass couldn't be resolved
+    private boolean unresolved;
+
+    private Unit(String fragment, String packageName, List<String> imports) {
+      this.fragment = fragment;
+      this.packageName = packageName;
+      this.imports = imports;
+    }
+
+    /**
+     * Tells whether the type or one of its methods is annotated with the annotation, referenced by
+     * the qualified name or by a simple name which is imported or declared in the same package.
+     */
+    private boolean references(Type type, String annotation) {
+      for (String name : type.annotations) {
+        if (name.equals(annotation)
+            || (annotation.endsWith('.' + name) && isImported(annotation, name))) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    private boolean isImported(String annotation, String name) {
+      String qualifier = annotation.substring(0, annotation.length() - name.length() - 1);
+      if (qualifier.equals(packageName)) {
+        return true;
+      }
+      for (String declaration : imports) {
+        if (declaration.equals(annotation)
+            || (declaration.endsWith(".*")
+                && declaration.length() == qualifier.length() + 2
+                && declaration.startsWith(qualifier))) {
+          return true;
+        }
+      }
+      return false;
+    }
+  }
+
+  private static final class Type {
+    // fully qualified name, as returned to the client
+    private final String name;
+    // fully qualified name with '.' separating member types, as superclasses are resolved
+    private final String key;
+    private final String superclass;
+    private final boolean accessible;
+    // simple or qualified names of the annotations of the type and its methods
+    private final Set<String> annotations;
+
+    private Type(
+        String name, String key, String superclass, boolean accessible, Set<String> annotations) {
+      this.name = name;
+      this.key = key;
+      this.superclass = superclass;
+      this.accessible = accessible;
+      this.annotations = annotations;
+    }
+  }
+}
@@ -65,6 +65,21 @@ public class JavaElementLabelComposer {
      */
     public abstract FlexibleBuilder append(String string);
 
+    /**
+     * Appends a range of the given string to the builder.
+     *
+     * @param string the string to append a range of
+     * @param start the index of the first character to append
+     * @param end the index after the last character to append
+     * @return a reference to this object
+     */
+    public FlexibleBuilder append(String string, int start, int end) {
+      for (int i = start; i < end; i++) {
+        append(string.charAt(i));
+      }
+      return this;
+    }
+
     /**
      * Returns the length of the the builder.
      *
@@ -92,6 +107,12 @@ public class JavaElementLabelComposer {
       return this;
     }
 
+    @Override
+    public FlexibleBuilder append(String string, int start, int end) {
+      builder.append(string, start, end);
+      return this;
+    }
+
     @Override
     public int length() {
       return builder.length();
@@ -712,50 +733,167 @@ public class JavaElementLabelComposer {
 
   protected void appendTypeSignatureLabel(
       IJavaElement enclosingElement, String typeSig, long flags) {
-    int sigKind = Signature.getTypeSignatureKind(typeSig);
-    switch (sigKind) {
-      case Signature.BASE_TYPE_SIGNATURE:
-        fBuilder.append(Signature.toString(typeSig));
-        break;
-      case Signature.ARRAY_TYPE_SIGNATURE:
-        appendTypeSignatureLabel(enclosingElement, Signature.getElementType(typeSig), flags);
-        for (int dim = Signature.getArrayCount(typeSig); dim > 0; dim--) {
+    appendTypeSignatureLabel(enclosingElement, typeSig, 0, flags);
+  }
+
+  /**
+   * Appends the label of the type signature starting at the given index of a signature. The
+   * signature is walked in place, type arguments and names are appended without creating
+   * intermediate strings.
+   *
+   * @param enclosingElement the enclosing element in which to resolve the signature
+   * @param sig the signature containing the type signature
+   * @param start the index of the type signature
+   * @param flags flags with render options
+   * @return the index after the type signature
+   */
+  private int appendTypeSignatureLabel(
+      IJavaElement enclosingElement, String sig, int start, long flags) {
+    char ch = sig.charAt(start);
+    switch (ch) {
+      case Signature.C_ARRAY:
+        int elementStart = start;
+        while (sig.charAt(elementStart) == Signature.C_ARRAY) {
+          elementStart++;
+        }
+        int end = appendTypeSignatureLabel(enclosingElement, sig, elementStart, flags);
+        for (int dim = elementStart - start; dim > 0; dim--) {
           fBuilder.append('[').append(']');
         }
-        break;
-      case Signature.CLASS_TYPE_SIGNATURE:
-        String baseType = getSimpleTypeName(enclosingElement, typeSig);
-        fBuilder.append(baseType);
+        return end;
+      case Signature.C_RESOLVED:
+      case Signature.C_UNRESOLVED:
+        return appendClassTypeSignatureLabel(enclosingElement, sig, start, flags);
+      case Signature.C_TYPE_VARIABLE:
+        int semicolon = sig.indexOf(Signature.C_SEMICOLON, start);
+        fBuilder.append(sig, start + 1, semicolon);
+        return semicolon + 1;
+      case Signature.C_STAR: // workaround for bug 85713
+        fBuilder.append('?');
+        return start + 1;
+      case Signature.C_EXTENDS:
+        fBuilder.append("? extends "); // $NON-NLS-1$
+        return appendTypeSignatureLabel(enclosingElement, sig, start + 1, flags);
+      case Signature.C_SUPER:
+        fBuilder.append("? super "); // $NON-NLS-1$
+        return appendTypeSignatureLabel(enclosingElement, sig, start + 1, flags);
+      case Signature.C_CAPTURE:
+        return appendTypeSignatureLabel(enclosingElement, sig, start + 1, flags);
+      case Signature.C_INTERSECTION:
+        int bound = appendTypeSignatureLabel(enclosingElement, sig, start + 1, flags);
+        while (bound < sig.length() && sig.charAt(bound) == Signature.C_COLON) {
+          fBuilder.append(" | "); // $NON-NLS-1$
+          bound = appendTypeSignatureLabel(enclosingElement, sig, bound + 1, flags);
+        }
+        return bound;
+      default:
+        String baseType = getBaseTypeName(ch);
+        if (baseType != null) {
+          fBuilder.append(baseType);
+        }
+        return start + 1;
+    }
+  }
 
-        String[] typeArguments = Signature.getTypeArguments(typeSig);
-        appendTypeArgumentSignaturesLabel(enclosingElement, typeArguments, flags);
-        break;
-      case Signature.TYPE_VARIABLE_SIGNATURE:
-        fBuilder.append(getSimpleTypeName(enclosingElement, typeSig));
+  /**
+   * Appends the simple name and the type arguments of the class type signature starting at the
+   * given index. Only the type arguments of the innermost type are rendered, like {@link
+   * Signature#getTypeArguments(String)} does.
+   */
+  private int appendClassTypeSignatureLabel(
+      IJavaElement enclosingElement, String sig, int start, long flags) {
+    boolean resolved = sig.charAt(start) == Signature.C_RESOLVED;
+    int nameStart = start + 1;
+    int nameEnd = -1;
+    int argumentsStart = -1;
+    // names Signature renders differently, e.g. anonymous types
+    boolean irregular = false;
+    int i = start + 1;
+    while (true) {
+      char ch = sig.charAt(i);
+      if (ch == Signature.C_SEMICOLON) {
         break;
-      case Signature.WILDCARD_TYPE_SIGNATURE:
-        char ch = typeSig.charAt(0);
-        if (ch == Signature.C_STAR) { // workaround for bug 85713
-          fBuilder.append('?');
-        } else {
-          if (ch == Signature.C_EXTENDS) {
-            fBuilder.append("? extends "); // $NON-NLS-1$
-            appendTypeSignatureLabel(enclosingElement, typeSig.substring(1), flags);
-          } else if (ch == Signature.C_SUPER) {
-            fBuilder.append("? super "); // $NON-NLS-1$
-            appendTypeSignatureLabel(enclosingElement, typeSig.substring(1), flags);
+      }
+      switch (ch) {
+        case Signature.C_GENERIC_START:
+          nameEnd = i;
+          argumentsStart = i;
+          i = skipTypeArguments(sig, i);
+          continue;
+        case Signature.C_DOT:
+          nameStart = i + 1;
+          nameEnd = -1;
+          argumentsStart = -1;
+          break;
+        case Signature.C_DOLLAR:
+          if (!resolved || Character.isDigit(sig.charAt(i + 1))) {
+            irregular = true;
           }
+          nameStart = i + 1;
+          break;
+        case '/':
+          irregular = true;
+          break;
+        default:
+          break;
+      }
+      i++;
+    }
+    int end = i + 1;
+    if (irregular) {
+      fBuilder.append(getSimpleTypeName(enclosingElement, sig.substring(start, end)));
+    } else {
+      fBuilder.append(sig, nameStart, nameEnd != -1 ? nameEnd : i);
+    }
+    if (argumentsStart != -1) {
+      fBuilder.append(getLT());
+      int argument = argumentsStart + 1;
+      while (sig.charAt(argument) != Signature.C_GENERIC_END) {
+        if (argument > argumentsStart + 1) {
+          fBuilder.append(JavaElementLabels.COMMA_STRING);
         }
-        break;
-      case Signature.CAPTURE_TYPE_SIGNATURE:
-        appendTypeSignatureLabel(enclosingElement, typeSig.substring(1), flags);
-        break;
-      case Signature.INTERSECTION_TYPE_SIGNATURE:
-        String[] typeBounds = Signature.getIntersectionTypeBounds(typeSig);
-        appendTypeBoundsSignaturesLabel(enclosingElement, typeBounds, flags);
-        break;
+        argument = appendTypeSignatureLabel(enclosingElement, sig, argument, flags);
+      }
+      fBuilder.append(getGT());
+    }
+    return end;
+  }
+
+  /** Returns the index after the type arguments starting at the given index. */
+  private static int skipTypeArguments(String sig, int start) {
+    int depth = 0;
+    for (int i = start; ; i++) {
+      char ch = sig.charAt(i);
+      if (ch == Signature.C_GENERIC_START) {
+        depth++;
+      } else if (ch == Signature.C_GENERIC_END && --depth == 0) {
+        return i + 1;
+      }
+    }
+  }
+
+  private static String getBaseTypeName(char ch) {
+    switch (ch) {
+      case Signature.C_BOOLEAN:
+        return "boolean"; // $NON-NLS-1$
+      case Signature.C_BYTE:
+        return "byte"; // $NON-NLS-1$
+      case Signature.C_CHAR:
+        return "char"; // $NON-NLS-1$
+      case Signature.C_DOUBLE:
+        return "double"; // $NON-NLS-1$
+      case Signature.C_FLOAT:
+        return "float"; // $NON-NLS-1$
+      case Signature.C_INT:
+        return "int"; // $NON-NLS-1$
+      case Signature.C_LONG:
+        return "long"; // $NON-NLS-1$
+      case Signature.C_SHORT:
+        return "short"; // $NON-NLS-1$
+      case Signature.C_VOID:
+        return "void"; // $NON-NLS-1$
       default:
-        // unknown
+        return null;
     }
   }
 
@@ -798,16 +936,6 @@ public class JavaElementLabelComposer {
     }
   }
 
-  private void appendTypeBoundsSignaturesLabel(
-      IJavaElement enclosingElement, String[] typeArgsSig, long flags) {
-    for (int i = 0; i < typeArgsSig.length; i++) {
-      if (i > 0) {
-        fBuilder.append(" | "); // $NON-NLS-1$
-      }
-      appendTypeSignatureLabel(enclosingElement, typeArgsSig[i], flags);
-    }
-  }
-
   /**
    * Appends labels for type parameters from a signature.
    *
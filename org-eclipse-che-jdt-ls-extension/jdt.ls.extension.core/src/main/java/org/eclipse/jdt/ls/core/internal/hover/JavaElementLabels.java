@@ -267,6 +267,13 @@ public final class JavaElementLabels {
   /** User-readable string for the default package name (e.g. "(default package)"). */
   public static final String DEFAULT_PACKAGE = "(default package)";
 
+  /** Capacity up to which the scratch buffer of a thread is reused. */
+  private static final int MAX_SCRATCH_CAPACITY = 1024;
+
+  /** Scratch buffer of each thread, <code>null</code> while a label is rendered into it. */
+  private static final ThreadLocal<StringBuilder> SCRATCH =
+      ThreadLocal.withInitial(() -> new StringBuilder(128));
+
   private JavaElementLabels() {}
 
   /**
@@ -293,10 +300,20 @@ public final class JavaElementLabels {
    * @return the label of the Java element
    */
   public static String getElementLabel(IJavaElement element, long flags) {
-    StringBuilder result = new StringBuilder();
-    getElementLabel(element, flags, result);
-    return org.eclipse.jdt.internal.core.manipulation.util.Strings.markJavaElementLabelLTR(
-        result.toString());
+    StringBuilder result = SCRATCH.get();
+    if (result == null) {
+      result = new StringBuilder();
+    } else {
+      SCRATCH.set(null);
+      result.setLength(0);
+    }
+    try {
+      getElementLabel(element, flags, result);
+      return org.eclipse.jdt.internal.core.manipulation.util.Strings.markJavaElementLabelLTR(
+          result.toString());
+    } finally {
+      SCRATCH.set(result.capacity() <= MAX_SCRATCH_CAPACITY ? result : new StringBuilder(128));
+    }
   }
 
   /**
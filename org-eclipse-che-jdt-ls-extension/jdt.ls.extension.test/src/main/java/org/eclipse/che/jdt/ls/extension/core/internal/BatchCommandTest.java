@@ -0,0 +1,77 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.jdt.ls.extension.core.internal;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import org.eclipse.che.jdt.ls.extension.api.Commands;
+import org.eclipse.che.jdt.ls.extension.api.dto.CommandRequest;
+import org.eclipse.che.jdt.ls.extension.api.dto.CommandResponse;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.junit.Before;
+import org.junit.Test;
+
+public class BatchCommandTest extends AbstractProjectsManagerBasedTest {
+  private IProject project;
+
+  @Before
+  public void setup() throws Exception {
+    importProjects("maven/testproject");
+    project = WorkspaceHelper.getProject("testproject");
+  }
+
+  @Test
+  public void shouldExecuteAllCommands() throws Exception {
+    String projectUri = getResourceUriAsString(project.getRawLocationURI());
+
+    List<CommandResponse> responses =
+        BatchCommand.execute(
+            asList(
+                new CommandRequest(Commands.GET_OUTPUT_DIR_COMMAND, singletonList(projectUri)),
+                new CommandRequest(Commands.RESOLVE_CLASSPATH_COMMAND, singletonList(projectUri))),
+            new NullProgressMonitor());
+
+    assertEquals(2, responses.size());
+    assertEquals(Commands.GET_OUTPUT_DIR_COMMAND, responses.get(0).getCommandId());
+    assertNull(responses.get(0).getError());
+    assertTrue(((String) responses.get(0).getResult()).endsWith("testproject/target/classes"));
+    assertEquals(Commands.RESOLVE_CLASSPATH_COMMAND, responses.get(1).getCommandId());
+    assertNull(responses.get(1).getError());
+    assertTrue(!((List<?>) responses.get(1).getResult()).isEmpty());
+  }
+
+  @Test
+  public void shouldReportErrorsPerCommand() throws Exception {
+    String projectUri = getResourceUriAsString(project.getRawLocationURI());
+
+    List<CommandResponse> responses =
+        BatchCommand.execute(
+            asList(
+                new CommandRequest("unknown.command", singletonList(projectUri)),
+                new CommandRequest(Commands.UPDATE_WORKSPACE, singletonList(projectUri)),
+                new CommandRequest(Commands.GET_OUTPUT_DIR_COMMAND, singletonList(projectUri))),
+            new NullProgressMonitor());
+
+    assertEquals(3, responses.size());
+    assertNotNull(responses.get(0).getError());
+    assertNull(responses.get(0).getResult());
+    assertNotNull(responses.get(1).getError());
+    assertNull(responses.get(2).getError());
+    assertNotNull(responses.get(2).getResult());
+  }
+}
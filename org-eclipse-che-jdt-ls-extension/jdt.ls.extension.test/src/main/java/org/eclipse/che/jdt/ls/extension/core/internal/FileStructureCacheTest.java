@@ -0,0 +1,105 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.jdt.ls.extension.core.internal;
+
+import static java.util.Collections.emptySet;
+import static java.util.Collections.singleton;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.eclipse.che.jdt.ls.extension.api.dto.ExtendedSymbolInformation;
+import org.junit.Before;
+import org.junit.Test;
+
+public class FileStructureCacheTest {
+  private static final String A = "=project/src<pkg{A.java";
+  private static final String B = "=project/src<pkg{B.java";
+
+  private FileStructureCache cache;
+
+  @Before
+  public void setUp() {
+    cache = new FileStructureCache(10);
+  }
+
+  @Test
+  public void testReturnsFileStructureOfSameStamp() {
+    List<ExtendedSymbolInformation> symbols = symbols(3);
+    cache.put(A, false, 1, cache.getVersion(), symbols, emptySet());
+
+    assertSame(symbols, cache.get(A, false, 1));
+    assertNull(cache.get(A, true, 1));
+    assertNull(cache.get(A, false, 2));
+    assertNull(cache.get(A, false, 1));
+    assertEquals(0, cache.getSymbols());
+  }
+
+  @Test
+  public void testInvalidatesFileStructuresShowingChangedType() {
+    cache.put(A, false, 1, cache.getVersion(), symbols(1), emptySet());
+    cache.put(A, true, 1, cache.getVersion(), symbols(2), singleton(B));
+    cache.put(B, false, 1, cache.getVersion(), symbols(1), emptySet());
+
+    cache.invalidate(B);
+
+    assertEquals(1, cache.get(A, false, 1).size());
+    assertNull(cache.get(A, true, 1));
+    assertNull(cache.get(B, false, 1));
+    assertEquals(1, cache.getSymbols());
+  }
+
+  @Test
+  public void testEvictsLeastRecentlyUsedWhenTooManySymbols() {
+    cache.put(A, false, 1, cache.getVersion(), symbols(4), emptySet());
+    cache.put(B, false, 1, cache.getVersion(), symbols(4), emptySet());
+    cache.get(A, false, 1);
+
+    cache.put(A, true, 1, cache.getVersion(), symbols(4), emptySet());
+
+    assertEquals(4, cache.get(A, false, 1).size());
+    assertNull(cache.get(B, false, 1));
+    assertEquals(8, cache.getSymbols());
+
+    cache.put(B, true, 1, cache.getVersion(), symbols(11), emptySet());
+    assertNull(cache.get(B, true, 1));
+  }
+
+  @Test
+  public void testDoesNotStoreFileStructureInvalidatedDuringRendering() {
+    long version = cache.getVersion();
+    cache.invalidate(B);
+
+    cache.put(A, false, 1, version, symbols(1), emptySet());
+
+    assertNull(cache.get(A, false, 1));
+  }
+
+  @Test
+  public void testCountsNestedSymbols() {
+    List<ExtendedSymbolInformation> symbols = symbols(1);
+    symbols.get(0).setChildren(symbols(2));
+
+    cache.put(A, false, 1, cache.getVersion(), symbols, emptySet());
+
+    assertEquals(3, cache.getSymbols());
+  }
+
+  private static List<ExtendedSymbolInformation> symbols(int count) {
+    List<ExtendedSymbolInformation> symbols = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      symbols.add(new ExtendedSymbolInformation(null, new ArrayList<>()));
+    }
+    return symbols;
+  }
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.jdt.ls.extension.core.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collections;
+import org.eclipse.che.jdt.ls.extension.api.dto.ExtendedSymbolInformation;
+import org.eclipse.che.jdt.ls.extension.api.dto.FileStructureDelta;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.IType;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.ls.core.internal.JDTUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class FileStructureDeltaTest extends AbstractProjectsManagerBasedTest {
+  private IType aClass;
+  private ICompilationUnit unit;
+  private FileStructureDeltas deltas;
+
+  @Before
+  public void setUp() throws Exception {
+    importProjects("maven/usages");
+    IJavaProject project = JavaCore.create(WorkspaceHelper.getProject("usages"));
+    aClass = project.findType("pkg1.AClass");
+    unit = aClass.getCompilationUnit();
+    unit.becomeWorkingCopy(null);
+    deltas = new FileStructureDeltas(4);
+    deltas.install();
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    deltas.uninstall();
+    unit.discardWorkingCopy();
+  }
+
+  @Test
+  public void testFirstRequestReturnsAllSymbols() throws Exception {
+    FileStructureDelta delta = deltas.compute(unit, null, new NullProgressMonitor());
+
+    assertNotNull(delta.getVersion());
+    assertEquals(1, delta.getSymbols().size());
+    ExtendedSymbolInformation type = delta.getSymbols().get(0);
+    assertEquals(aClass.getHandleIdentifier(), type.getId());
+    assertEquals(2, type.getChildren().size());
+  }
+
+  @Test
+  public void testAddedMethodIsSentAlone() throws Exception {
+    String version = deltas.compute(unit, null, new NullProgressMonitor()).getVersion();
+    String source = unit.getBuffer().getContents();
+    int offset = source.indexOf("public void doStuff");
+    unit.getBuffer().replace(offset, 0, "public void added() {}\n\n  ");
+    unit.reconcile(ICompilationUnit.NO_AST, false, null, null);
+
+    FileStructureDelta delta = deltas.compute(unit, version, new NullProgressMonitor());
+
+    assertNull(delta.getSymbols());
+    assertTrue(delta.getRemoved().isEmpty());
+    assertEquals(1, delta.getAdded().size());
+    ExtendedSymbolInformation added = delta.getAdded().get(0);
+    assertEquals(aClass.getMethod("added", new String[0]).getHandleIdentifier(), added.getId());
+    assertEquals(aClass.getHandleIdentifier(), added.getParentId());
+    // the method after the new one moved
+    assertEquals(1, delta.getChanged().size());
+    assertEquals(
+        aClass.getMethod("doStuff", new String[0]).getHandleIdentifier(),
+        delta.getChanged().get(0).getId());
+    assertNull(delta.getChanged().get(0).getChildren());
+    assertEquals(
+        JDTUtils.toLocation(aClass.getMethod("doStuff", new String[0])).getRange(),
+        delta.getChanged().get(0).getInfo().getLocation().getRange());
+  }
+
+  @Test
+  public void testRemovedMethodIsSentById() throws Exception {
+    String version = deltas.compute(unit, null, new NullProgressMonitor()).getVersion();
+    String source = unit.getBuffer().getContents();
+    int start = source.indexOf("public void doStuff");
+    int end = source.lastIndexOf('}', source.lastIndexOf('}') - 1) + 1;
+    unit.getBuffer().replace(start, end - start, "");
+    unit.reconcile(ICompilationUnit.NO_AST, false, null, null);
+
+    FileStructureDelta delta = deltas.compute(unit, version, new NullProgressMonitor());
+
+    assertNull(delta.getSymbols());
+    assertEquals(
+        Collections.singletonList(aClass.getMethod("doStuff", new String[0]).getHandleIdentifier()),
+        delta.getRemoved());
+    assertTrue(delta.getAdded().isEmpty());
+  }
+
+  @Test
+  public void testUnchangedDocumentHasEmptyDelta() throws Exception {
+    String version = deltas.compute(unit, null, new NullProgressMonitor()).getVersion();
+
+    FileStructureDelta delta = deltas.compute(unit, version, new NullProgressMonitor());
+
+    assertNull(delta.getSymbols());
+    assertTrue(delta.getRemoved().isEmpty());
+    assertTrue(delta.getAdded().isEmpty());
+    assertTrue(delta.getChanged().isEmpty());
+  }
+
+  @Test
+  public void testUnknownVersionGetsAllSymbols() throws Exception {
+    String version = deltas.compute(unit, null, new NullProgressMonitor()).getVersion();
+    deltas.compute(unit, version, new NullProgressMonitor());
+
+    FileStructureDelta delta = deltas.compute(unit, version, new NullProgressMonitor());
+
+    assertNotNull(delta.getSymbols());
+    assertEquals(1, deltas.size());
+  }
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.jdt.ls.extension.core.internal;
+
+import static java.util.Collections.singletonList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import org.eclipse.che.jdt.ls.extension.api.dto.ExtendedSymbolInformation;
+import org.eclipse.che.jdt.ls.extension.api.dto.FileStructureCommandParameters;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.jdt.core.IType;
+import org.eclipse.jdt.core.JavaCore;
+import org.junit.Before;
+import org.junit.Test;
+
+public class FileStructureDepthTest extends AbstractProjectsManagerBasedTest {
+  private String uri;
+  private IType aClass;
+
+  @Before
+  public void setUp() throws Exception {
+    importProjects("maven/usages");
+    IProject project = WorkspaceHelper.getProject("usages");
+    uri = project.findMember("src/main/java/pkg1/AClass.java").getLocationURI().toString();
+    aClass = JavaCore.create(project).findType("pkg1.AClass");
+  }
+
+  @Test
+  public void testAllLevelsAreRenderedWithoutDepth() throws Exception {
+    List<ExtendedSymbolInformation> symbols = fileStructure(0, false);
+
+    ExtendedSymbolInformation type = symbols.get(0);
+    assertNull(type.getId());
+    assertEquals(2, type.getChildren().size());
+  }
+
+  @Test
+  public void testUnexpandedSymbolHasId() throws Exception {
+    List<ExtendedSymbolInformation> symbols = fileStructure(1, false);
+
+    assertEquals(1, symbols.size());
+    ExtendedSymbolInformation type = symbols.get(0);
+    assertNotNull(type.getInfo());
+    assertNull(type.getChildren());
+    assertEquals(aClass.getHandleIdentifier(), type.getId());
+  }
+
+  @Test
+  public void testExpandRendersChildren() throws Exception {
+    List<ExtendedSymbolInformation> children = expand(aClass.getHandleIdentifier(), false);
+
+    assertEquals(2, children.size());
+    for (ExtendedSymbolInformation child : children) {
+      // methods without local types have nothing to expand
+      assertNull(child.getId());
+      assertTrue(child.getChildren().isEmpty());
+    }
+  }
+
+  @Test
+  public void testExpandShowsInheritedMembersOfTopLevelType() throws Exception {
+    List<ExtendedSymbolInformation> children = expand(aClass.getHandleIdentifier(), true);
+
+    assertTrue(children.size() > 2);
+  }
+
+  @Test
+  public void testExpandOfRemovedSymbolIsEmpty() throws Exception {
+    String removed = aClass.getMethod("removed", new String[0]).getHandleIdentifier();
+
+    assertTrue(expand(removed, false).isEmpty());
+  }
+
+  private List<ExtendedSymbolInformation> fileStructure(int depth, boolean showInherited) {
+    FileStructureCommandParameters params = new FileStructureCommandParameters(uri, showInherited);
+    params.setDepth(depth);
+    return FileStructureCommand.execute(singletonList(params), new NullProgressMonitor());
+  }
+
+  private List<ExtendedSymbolInformation> expand(String id, boolean showInherited) {
+    FileStructureCommandParameters params = new FileStructureCommandParameters(uri, showInherited);
+    params.setId(id);
+    params.setDepth(1);
+    return FileStructureCommand.expand(singletonList(params), new NullProgressMonitor());
+  }
+}
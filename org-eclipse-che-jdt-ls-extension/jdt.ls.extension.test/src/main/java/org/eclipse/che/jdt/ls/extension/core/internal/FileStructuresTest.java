@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.jdt.ls.extension.core.internal;
+
+import static java.util.Collections.singletonList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import org.eclipse.che.jdt.ls.extension.api.dto.ExtendedSymbolInformation;
+import org.eclipse.che.jdt.ls.extension.api.dto.FileStructureResult;
+import org.eclipse.che.jdt.ls.extension.api.dto.FileStructuresParameters;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class FileStructuresTest extends AbstractProjectsManagerBasedTest {
+  private ForkJoinPool pool;
+  private String aClass;
+  private String aMain;
+  private String pom;
+
+  @Before
+  public void setUp() throws Exception {
+    importProjects("maven/usages");
+    IProject project = WorkspaceHelper.getProject("usages");
+    aClass = uri(project, "src/main/java/pkg1/AClass.java");
+    aMain = uri(project, "src/main/java/pkg1/AMain.java");
+    pom = uri(project, "pom.xml");
+    pool = new ForkJoinPool(2);
+  }
+
+  @After
+  public void tearDown() {
+    pool.shutdown();
+  }
+
+  @Test
+  public void testFileStructuresAreReturnedInOrderOfUris() throws Exception {
+    List<String> uris = Arrays.asList(aMain, pom, aClass);
+    List<FileStructureResult> notifications = Collections.synchronizedList(new ArrayList<>());
+
+    Map<String, List<ExtendedSymbolInformation>> structures =
+        FileStructureCommand.executeAll(
+            singletonList(new FileStructuresParameters(uris, false)),
+            pool,
+            notifications::add,
+            new NullProgressMonitor());
+
+    assertEquals(uris, new ArrayList<>(structures.keySet()));
+    assertEquals("AClass", structures.get(aClass).get(0).getInfo().getName());
+    assertEquals(1, structures.get(aMain).size());
+    assertNull(structures.get(pom));
+    assertTrue(notifications.isEmpty());
+  }
+
+  @Test
+  public void testFileStructuresAreStreamedWithToken() throws Exception {
+    FileStructuresParameters params =
+        new FileStructuresParameters(Arrays.asList(aClass, aMain), false);
+    params.setToken("reopen");
+    List<FileStructureResult> notifications = Collections.synchronizedList(new ArrayList<>());
+
+    Map<String, List<ExtendedSymbolInformation>> structures =
+        FileStructureCommand.executeAll(
+            singletonList(params), pool, notifications::add, new NullProgressMonitor());
+
+    assertTrue(structures.isEmpty());
+    assertEquals(2, notifications.size());
+    Set<String> notified = new HashSet<>();
+    for (FileStructureResult notification : notifications) {
+      assertEquals("reopen", notification.getToken());
+      assertEquals(1, notification.getSymbols().size());
+      notified.add(notification.getUri());
+    }
+    assertEquals(new HashSet<>(Arrays.asList(aClass, aMain)), notified);
+  }
+
+  private static String uri(IProject project, String path) {
+    return project.findMember(path).getLocationURI().toString();
+  }
+}
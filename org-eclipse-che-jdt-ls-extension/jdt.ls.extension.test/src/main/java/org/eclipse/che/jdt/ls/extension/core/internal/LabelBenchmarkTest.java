@@ -0,0 +1,213 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.jdt.ls.extension.core.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import javax.management.ObjectName;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IMethod;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.core.Signature;
+import org.eclipse.jdt.ls.core.internal.hover.JavaElementLabelComposer;
+import org.eclipse.jdt.ls.core.internal.hover.JavaElementLabels;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Compares the labels of methods with generic signatures rendered into a pooled buffer by walking
+ * the signatures in place with the labels rendered into a new buffer through intermediate signature
+ * strings. The comparison of the bytes allocated per label by both only runs with {@code
+ * -Dche.benchmarks=true}.
+ */
+public class LabelBenchmarkTest extends AbstractProjectsManagerBasedTest {
+  private static final long FLAGS =
+      JavaElementLabels.ALL_DEFAULT | JavaElementLabels.M_APP_RETURNTYPE;
+  private static final int ITERATIONS = 20_000;
+
+  private IProject project;
+  private IMethod[] methods;
+
+  @Before
+  public void setUp() throws Exception {
+    importProjects("maven/usages");
+    project = WorkspaceHelper.getProject("usages");
+    String content =
+        "package pkg1;\n"
+            + "import java.util.*;\n"
+            + "import java.util.function.*;\n"
+            + "public class Generics<T extends Comparable<? super T>> {\n"
+            + "  public <K, V extends List<? extends T>> Map<K, List<V>> group(\n"
+            + "      Collection<? extends V> values, Function<? super V, ? extends K> key) {\n"
+            + "    return null;\n"
+            + "  }\n"
+            + "  public Map.Entry<String, Set<T>>[] entries(Map<String, ? super T> source) {\n"
+            + "    return null;\n"
+            + "  }\n"
+            + "  public <R> Optional<R> reduce(BiFunction<R, ? super T, R> f, R initial, T... xs) {\n"
+            + "    return null;\n"
+            + "  }\n"
+            + "}\n";
+    project
+        .getFile("src/main/java/pkg1/Generics.java")
+        .create(new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)), true, null);
+    waitForBackgroundJobs();
+    methods = JavaCore.create(project).findType("pkg1.Generics").getMethods();
+  }
+
+  @Test
+  public void testLabelsOfGenericMethods() throws Exception {
+    for (IMethod method : methods) {
+      assertEquals(
+          renderWithSignatureStrings(method), JavaElementLabels.getElementLabel(method, FLAGS));
+    }
+  }
+
+  @Test
+  public void testPooledLabelsAllocateLess() throws Exception {
+    Assume.assumeTrue(Boolean.getBoolean("che.benchmarks"));
+    ObjectName threading = new ObjectName(ManagementFactory.THREAD_MXBEAN_NAME);
+    Assume.assumeTrue(
+        ManagementFactory.getPlatformMBeanServer()
+            .isInstanceOf(threading, "com.sun.management.ThreadMXBean"));
+
+    long before = measure(threading, false);
+    long after = measure(threading, true);
+
+    assertTrue(
+        String.format(
+            "bytes per label of generic methods, signature strings: %d, in place: %d",
+            before, after),
+        after < before);
+  }
+
+  @Test
+  public void testLabelLongerThanScratchBuffer() throws Exception {
+    StringBuilder content = new StringBuilder("package pkg1;\nimport java.util.*;\n");
+    content.append("public class LongSignature {\n  public void many(");
+    for (int i = 0; i < 30; i++) {
+      content.append(i > 0 ? ", " : "").append("Map<String, List<Set<Integer>>> p").append(i);
+    }
+    content.append(") {}\n}\n");
+    project
+        .getFile("src/main/java/pkg1/LongSignature.java")
+        .create(
+            new ByteArrayInputStream(content.toString().getBytes(StandardCharsets.UTF_8)),
+            true,
+            null);
+    waitForBackgroundJobs();
+    IMethod method = JavaCore.create(project).findType("pkg1.LongSignature").getMethods()[0];
+
+    String label = JavaElementLabels.getElementLabel(method, FLAGS);
+
+    assertTrue("label length: " + label.length(), label.length() > 1024);
+    assertEquals(renderWithSignatureStrings(method), label);
+    assertEquals(
+        renderWithSignatureStrings(methods[0]),
+        JavaElementLabels.getElementLabel(methods[0], FLAGS));
+  }
+
+  private long measure(ObjectName threading, boolean pooled) throws Exception {
+    // warm up
+    render(pooled);
+    long start = allocatedBytes(threading);
+    render(pooled);
+    return (allocatedBytes(threading) - start) / (ITERATIONS * methods.length);
+  }
+
+  private void render(boolean pooled) {
+    for (int i = 0; i < ITERATIONS; i++) {
+      for (IMethod method : methods) {
+        if (pooled) {
+          JavaElementLabels.getElementLabel(method, FLAGS);
+        } else {
+          renderWithSignatureStrings(method);
+        }
+      }
+    }
+  }
+
+  private static long allocatedBytes(ObjectName threading) throws Exception {
+    return (Long)
+        ManagementFactory.getPlatformMBeanServer()
+            .invoke(
+                threading,
+                "getThreadAllocatedBytes",
+                new Object[] {Thread.currentThread().getId()},
+                new String[] {long.class.getName()});
+  }
+
+  private static String renderWithSignatureStrings(IJavaElement element) {
+    StringBuilder builder = new StringBuilder();
+    new SignatureStringComposer(builder).appendElementLabel(element, FLAGS);
+    return builder.toString();
+  }
+
+  /** Renders type signatures through the strings returned by {@link Signature}. */
+  private static class SignatureStringComposer extends JavaElementLabelComposer {
+    SignatureStringComposer(StringBuilder builder) {
+      super(builder);
+    }
+
+    @Override
+    protected void appendTypeSignatureLabel(
+        IJavaElement enclosingElement, String typeSig, long flags) {
+      switch (Signature.getTypeSignatureKind(typeSig)) {
+        case Signature.BASE_TYPE_SIGNATURE:
+          fBuilder.append(Signature.toString(typeSig));
+          break;
+        case Signature.ARRAY_TYPE_SIGNATURE:
+          appendTypeSignatureLabel(enclosingElement, Signature.getElementType(typeSig), flags);
+          for (int dim = Signature.getArrayCount(typeSig); dim > 0; dim--) {
+            fBuilder.append('[').append(']');
+          }
+          break;
+        case Signature.CLASS_TYPE_SIGNATURE:
+          fBuilder.append(getSimpleTypeName(enclosingElement, typeSig));
+          String[] typeArguments = Signature.getTypeArguments(typeSig);
+          if (typeArguments.length > 0) {
+            fBuilder.append(getLT());
+            for (int i = 0; i < typeArguments.length; i++) {
+              if (i > 0) {
+                fBuilder.append(JavaElementLabels.COMMA_STRING);
+              }
+              appendTypeSignatureLabel(enclosingElement, typeArguments[i], flags);
+            }
+            fBuilder.append(getGT());
+          }
+          break;
+        case Signature.TYPE_VARIABLE_SIGNATURE:
+          fBuilder.append(getSimpleTypeName(enclosingElement, typeSig));
+          break;
+        case Signature.WILDCARD_TYPE_SIGNATURE:
+          char ch = typeSig.charAt(0);
+          if (ch == Signature.C_STAR) {
+            fBuilder.append('?');
+          } else {
+            fBuilder.append(ch == Signature.C_EXTENDS ? "? extends " : "? super ");
+            appendTypeSignatureLabel(enclosingElement, typeSig.substring(1), flags);
+          }
+          break;
+        case Signature.CAPTURE_TYPE_SIGNATURE:
+          appendTypeSignatureLabel(enclosingElement, typeSig.substring(1), flags);
+          break;
+        default:
+          super.appendTypeSignatureLabel(enclosingElement, typeSig, flags);
+      }
+    }
+  }
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.jdt.ls.extension.core.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.eclipse.che.jdt.ls.extension.api.dto.CacheMetrics;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.IMethod;
+import org.eclipse.jdt.core.IType;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.ls.core.internal.hover.JavaElementLabels;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class LabelCacheTest extends AbstractProjectsManagerBasedTest {
+  private IJavaProject project;
+  private IType aClass;
+  private LabelCache cache;
+
+  @Before
+  public void setUp() throws Exception {
+    importProjects("maven/usages");
+    project = JavaCore.create(WorkspaceHelper.getProject("usages"));
+    aClass = project.findType("pkg1.AClass");
+    cache = new LabelCache(10);
+    cache.install();
+  }
+
+  @After
+  public void tearDown() {
+    cache.uninstall();
+  }
+
+  @Test
+  public void testLabelIsComputedOnce() throws Exception {
+    IMethod doStuff = aClass.getMethod("doStuff", new String[0]);
+
+    String label = cache.getLabel(doStuff, JavaElementLabels.ALL_DEFAULT);
+
+    assertSame(label, cache.getLabel(doStuff, JavaElementLabels.ALL_DEFAULT));
+    cache.getLabel(doStuff, JavaElementLabels.DEFAULT_POST_QUALIFIED);
+    CacheMetrics metrics = cache.getStatistics();
+    assertEquals(1, metrics.getHits());
+    assertEquals(2, metrics.getMisses());
+    assertEquals(2, metrics.getSize());
+  }
+
+  @Test
+  public void testChangedElementLabelIsDropped() throws Exception {
+    IMethod constructor = aClass.getMethod("AClass", new String[0]);
+    IMethod doStuff = aClass.getMethod("doStuff", new String[0]);
+    ICompilationUnit unit = aClass.getCompilationUnit();
+    unit.becomeWorkingCopy(null);
+    try {
+      cache.getLabel(constructor, JavaElementLabels.ALL_DEFAULT);
+      cache.getLabel(doStuff, JavaElementLabels.ALL_DEFAULT);
+      String source = unit.getBuffer().getContents();
+      int offset = source.indexOf("void doStuff");
+      unit.getBuffer().replace(offset, "void".length(), "String");
+      unit.reconcile(ICompilationUnit.NO_AST, false, null, null);
+
+      String label = cache.getLabel(doStuff, JavaElementLabels.ALL_DEFAULT);
+      cache.getLabel(constructor, JavaElementLabels.ALL_DEFAULT);
+
+      assertTrue(label, label.contains("String"));
+      CacheMetrics metrics = cache.getStatistics();
+      assertEquals(1, metrics.getInvalidations());
+      assertEquals(1, metrics.getHits());
+    } finally {
+      unit.discardWorkingCopy();
+    }
+  }
+
+  @Test
+  public void testLeastRecentlyUsedTypeRootIsEvicted() throws Exception {
+    LabelCache small = new LabelCache(1);
+
+    small.getLabel(aClass, JavaElementLabels.ALL_DEFAULT);
+    small.getLabel(project.findType("pkg1.AMain"), JavaElementLabels.ALL_DEFAULT);
+
+    CacheMetrics metrics = small.getStatistics();
+    assertEquals(1, metrics.getSize());
+    assertEquals(1, metrics.getEvictions());
+  }
+
+  @Test
+  public void testLabelsOfLibrariesAreCached() throws Exception {
+    IType object = project.findType("java.lang.Object");
+
+    cache.getLabel(object, JavaElementLabels.ALL_DEFAULT);
+    cache.getLabel(object, JavaElementLabels.ALL_DEFAULT);
+
+    assertEquals(1, cache.getStatistics().getHits());
+  }
+}
@@ -0,0 +1,161 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.jdt.ls.extension.core.internal;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParser;
+import java.lang.management.ManagementFactory;
+import java.util.function.Function;
+import org.eclipse.che.jdt.ls.extension.api.dto.FileStructureCommandParameters;
+import org.eclipse.che.jdt.ls.extension.api.dto.JavaCoreOptions;
+import org.eclipse.che.jdt.ls.extension.api.dto.TestFindParameters;
+import org.eclipse.lsp4j.Position;
+import org.eclipse.lsp4j.TextDocumentIdentifier;
+import org.eclipse.lsp4j.TextDocumentPositionParams;
+import org.junit.Test;
+
+/** Tests binding of command arguments and compares it with a JSON string round trip. */
+public class ParameterBindingTest {
+  private static final Gson gson = GsonUtils.getInstance();
+  private static final String URI = "file:///projects/test/src/main/java/org/eclipse/Foo.java";
+
+  @Test
+  public void testBindsMapTree() {
+    Object argument = parse(positionParams());
+
+    TextDocumentPositionParams params =
+        JavaModelUtil.convertCommandParameter(argument, TextDocumentPositionParams.class);
+
+    assertEquals(URI, params.getTextDocument().getUri());
+    assertEquals(12, params.getPosition().getLine());
+    assertEquals(7, params.getPosition().getCharacter());
+  }
+
+  @Test
+  public void testBindsJsonElement() {
+    Object argument = new JsonParser().parse(gson.toJson(fileStructureParams()));
+
+    FileStructureCommandParameters params =
+        JavaModelUtil.convertCommandParameter(argument, FileStructureCommandParameters.class);
+
+    assertEquals(URI, params.getUri());
+    assertTrue(params.getShowInherited());
+  }
+
+  @Test
+  public void testBindsListsAndMissingFields() {
+    Object argument =
+        parse(new TestFindParameters(URI, "org.junit.Test", null, 42, asList("a", "b")));
+
+    TestFindParameters params =
+        JavaModelUtil.convertCommandParameter(argument, TestFindParameters.class);
+
+    assertEquals(URI, params.getSourceUri());
+    assertEquals("org.junit.Test", params.getTestMethodAnnotation());
+    assertEquals(null, params.getTestClassAnnotation());
+    assertEquals(42, params.getCursorOffset());
+    assertEquals(asList("a", "b"), params.getEntryClasses());
+  }
+
+  @Test
+  public void testBindsDtoWithMapField() {
+    JavaCoreOptions options = new JavaCoreOptions();
+    options.getOptions().put("org.eclipse.jdt.core.compiler.source", "1.8");
+
+    JavaCoreOptions params =
+        JavaModelUtil.convertCommandParameter(parse(options), JavaCoreOptions.class);
+
+    assertEquals(options.getOptions(), params.getOptions());
+  }
+
+  @Test
+  public void testReturnsBoundArgument() {
+    TextDocumentPositionParams argument = positionParams();
+
+    assertSame(
+        argument,
+        JavaModelUtil.convertCommandParameter(argument, TextDocumentPositionParams.class));
+  }
+
+  /**
+   * Benchmark comparing the bytes allocated by the tree binding and by the former {@code
+   * fromJson(toJson(argument))} round trip, for the parameters of the most frequent commands. Only
+   * runs with {@code -Dche.benchmarks=true}.
+   */
+  @Test
+  public void testAllocatesLessThanJsonRoundTrip() {
+    assumeTrue(Boolean.getBoolean("che.benchmarks"));
+    assumeTrue(isAllocationMeasurable());
+
+    assertAllocatesLess(parse(positionParams()), TextDocumentPositionParams.class);
+    assertAllocatesLess(parse(fileStructureParams()), FileStructureCommandParameters.class);
+    assertAllocatesLess(
+        parse(new TestFindParameters(URI, "org.junit.Test", null, 42, asList("a", "b"))),
+        TestFindParameters.class);
+  }
+
+  private static <T> void assertAllocatesLess(Object argument, Class<T> clazz) {
+    long roundTrip = allocatedBytesPerCall(a -> gson.fromJson(gson.toJson(a), clazz), argument);
+    long binding =
+        allocatedBytesPerCall(a -> JavaModelUtil.convertCommandParameter(a, clazz), argument);
+
+    assertTrue(
+        String.format(
+            "%s: %d bytes/call with JSON round trip, %d bytes/call with tree binding",
+            clazz.getSimpleName(), roundTrip, binding),
+        binding < roundTrip);
+  }
+
+  private static long allocatedBytesPerCall(Function<Object, Object> binder, Object argument) {
+    int warmUp = 20_000;
+    int iterations = 20_000;
+    for (int i = 0; i < warmUp; i++) {
+      binder.apply(argument);
+    }
+    long before = allocatedBytes();
+    for (int i = 0; i < iterations; i++) {
+      binder.apply(argument);
+    }
+    return (allocatedBytes() - before) / iterations;
+  }
+
+  private static boolean isAllocationMeasurable() {
+    try {
+      return ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean
+          && allocatedBytes() >= 0;
+    } catch (LinkageError | UnsupportedOperationException e) {
+      return false;
+    }
+  }
+
+  private static long allocatedBytes() {
+    return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean())
+        .getThreadAllocatedBytes(Thread.currentThread().getId());
+  }
+
+  private static Object parse(Object dto) {
+    return gson.fromJson(gson.toJson(dto), Object.class);
+  }
+
+  private static TextDocumentPositionParams positionParams() {
+    return new TextDocumentPositionParams(new TextDocumentIdentifier(URI), new Position(12, 7));
+  }
+
+  private static FileStructureCommandParameters fileStructureParams() {
+    return new FileStructureCommandParameters(URI, true);
+  }
+}
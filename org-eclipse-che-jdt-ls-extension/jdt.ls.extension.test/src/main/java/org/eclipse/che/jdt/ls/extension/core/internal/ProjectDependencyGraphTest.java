@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.jdt.ls.extension.core.internal;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.JavaCore;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ProjectDependencyGraphTest extends AbstractProjectsManagerBasedTest {
+  private ProjectDependencyGraph graph;
+  private IJavaProject usages;
+  private IJavaProject library;
+  private IJavaProject webapp;
+
+  @Before
+  public void setUp() throws Exception {
+    importProjects(Arrays.asList("maven/usages", "maven/multimodule"));
+    usages = JavaCore.create(WorkspaceHelper.getProject("usages"));
+    library = JavaCore.create(WorkspaceHelper.getProject("my-lib"));
+    webapp = JavaCore.create(WorkspaceHelper.getProject("my-webapp"));
+    graph = new ProjectDependencyGraph();
+  }
+
+  @Test
+  public void testSourceIsReferencedByDeclaringAndDependentProjects() throws Exception {
+    IJavaElement type = library.findType("hello.SayHello");
+
+    assertEquals(names("my-lib", "my-webapp"), referencingProjects(type));
+  }
+
+  @Test
+  public void testSourceOfUnrelatedProjectIsNotSearched() throws Exception {
+    IJavaElement type = usages.findType("pkg1.AInterface");
+
+    assertEquals(names("usages"), referencingProjects(type));
+  }
+
+  @Test
+  public void testLibraryIsReferencedByProjectsHavingIt() throws Exception {
+    IJavaElement type = webapp.findType("org.springframework.web.servlet.ModelAndView");
+
+    assertEquals(names("my-webapp"), referencingProjects(type));
+  }
+
+  @Test
+  public void testJreElementIsReferencedByAllProjects() throws Exception {
+    IJavaElement type = webapp.findType("java.util.Map");
+
+    IJavaProject[] all =
+        JavaCore.create(usages.getProject().getWorkspace().getRoot()).getJavaProjects();
+
+    assertEquals(namesOf(all), namesOf(graph.getReferencingProjects(type, true)));
+  }
+
+  private Set<String> referencingProjects(IJavaElement element) throws Exception {
+    return namesOf(graph.getReferencingProjects(element, false));
+  }
+
+  private static Set<String> namesOf(IJavaProject[] projects) {
+    return Arrays.stream(projects)
+        .map(IJavaProject::getElementName)
+        .collect(Collectors.toCollection(TreeSet::new));
+  }
+
+  private static Set<String> names(String... names) {
+    return new TreeSet<>(Arrays.asList(names));
+  }
+}
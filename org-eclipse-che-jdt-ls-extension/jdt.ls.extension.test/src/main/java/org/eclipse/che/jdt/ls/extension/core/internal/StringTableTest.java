@@ -0,0 +1,113 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.jdt.ls.extension.core.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.google.gson.Gson;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.eclipse.che.jdt.ls.extension.api.RangeEncoding;
+import org.eclipse.che.jdt.ls.extension.api.StringTable;
+import org.eclipse.che.jdt.ls.extension.api.dto.LinearRange;
+import org.eclipse.che.jdt.ls.extension.api.dto.SearchResult;
+import org.eclipse.che.jdt.ls.extension.api.dto.UsagesResponse;
+import org.eclipse.lsp4j.SymbolKind;
+import org.junit.Test;
+
+public class StringTableTest {
+
+  @Test
+  public void testDistinctStringsAreStoredOnce() {
+    SearchResult type = node(SymbolKind.Class, "A", "file:///A.java");
+    SearchResult method = node(SymbolKind.Method, "a()", "file:///A.java");
+    SearchResult other = node(SymbolKind.Method, "A", null);
+    type.getChildren().add(method);
+    type.getChildren().add(other);
+
+    List<String> strings = StringTable.pack(Arrays.asList(type));
+
+    assertEquals(Arrays.asList("file:///A.java", "A", "a()"), strings);
+    assertNull(type.getUri());
+    assertNull(type.getName());
+    assertEquals(Integer.valueOf(0), method.getUriIndex());
+    assertEquals(Integer.valueOf(2), method.getNameIndex());
+    assertNull(other.getUriIndex());
+    assertEquals(Integer.valueOf(1), other.getNameIndex());
+  }
+
+  @Test
+  public void testPackAndUnpack() {
+    SearchResult type = node(SymbolKind.Class, "A", "file:///A.java");
+    type.getChildren().add(node(SymbolKind.Method, "a()", "file:///A.java"));
+    List<SearchResult> results = Arrays.asList(type);
+
+    StringTable.unpack(results, StringTable.pack(results));
+
+    assertEquals("A", type.getName());
+    assertEquals("file:///A.java", type.getUri());
+    assertNull(type.getUriIndex());
+    assertEquals("a()", type.getChildren().get(0).getName());
+    assertEquals("file:///A.java", type.getChildren().get(0).getUri());
+  }
+
+  /**
+   * Measures the size of the JSON of a search with 2 000 methods in 200 files, each method with
+   * three matches.
+   */
+  @Test
+  public void testStringTableMakesPayloadSmaller() {
+    Gson gson = new Gson();
+    UsagesResponse response = new UsagesResponse("String", SymbolKind.Class, createResults());
+    RangeEncoding.pack(response.getSearchResults());
+    int packed = gson.toJson(response).length();
+
+    response.setStrings(StringTable.pack(response.getSearchResults()));
+    int compact = gson.toJson(response).length();
+
+    assertTrue(
+        String.format(
+            "usages payload: %d chars with packed matches, %d chars with string table, %.1f%%",
+            packed, compact, 100.0 * compact / packed),
+        compact * 10 < packed * 7);
+  }
+
+  private static List<SearchResult> createResults() {
+    SearchResult pkg =
+        node(SymbolKind.Package, "org.eclipse.che.sample", "file:///projects/app/src/main/java");
+    for (int i = 0; i < 200; i++) {
+      String uri = "file:///projects/app/src/main/java/org/eclipse/che/sample/Type" + i + ".java";
+      SearchResult type = node(SymbolKind.Class, "org.eclipse.che.sample.Type" + i, uri);
+      for (int j = 0; j < 10; j++) {
+        SearchResult method = node(SymbolKind.Method, "method" + j + "(String)", uri);
+        for (int k = 0; k < 3; k++) {
+          method.getMatches().add(new LinearRange(1000 * j + 20 * k, 6));
+        }
+        type.getChildren().add(method);
+      }
+      pkg.getChildren().add(type);
+    }
+    return new ArrayList<>(Arrays.asList(pkg));
+  }
+
+  private static SearchResult node(SymbolKind kind, String name, String uri) {
+    SearchResult result = new SearchResult();
+    result.setKind(kind);
+    result.setName(name);
+    result.setUri(uri);
+    result.setChildren(new ArrayList<>());
+    result.setMatches(new ArrayList<>());
+    return result;
+  }
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.jdt.ls.extension.core.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.eclipse.che.jdt.ls.extension.api.dto.ExtendedSymbolInformation;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.IType;
+import org.eclipse.jdt.core.ITypeHierarchy;
+import org.eclipse.jdt.core.JavaCore;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class SupertypeHierarchyCacheTest extends AbstractProjectsManagerBasedTest {
+  private IJavaProject project;
+  private IType aClass;
+  private SupertypeHierarchyCache cache;
+
+  @Before
+  public void setUp() throws Exception {
+    importProjects("maven/usages");
+    project = JavaCore.create(WorkspaceHelper.getProject("usages"));
+    aClass = project.findType("pkg1.AClass");
+    cache = new SupertypeHierarchyCache(2, 2);
+    cache.install();
+  }
+
+  @After
+  public void tearDown() {
+    cache.uninstall();
+  }
+
+  @Test
+  public void testHierarchyIsComputedOnce() throws Exception {
+    ITypeHierarchy hierarchy = cache.getHierarchy(aClass, null);
+
+    assertSame(hierarchy, cache.getHierarchy(aClass, null));
+    assertEquals(2, hierarchy.getAllSupertypes(aClass).length);
+  }
+
+  @Test
+  public void testChangedSupertypeDropsHierarchy() throws Exception {
+    ITypeHierarchy hierarchy = cache.getHierarchy(aClass, null);
+    ICompilationUnit unit = project.findType("pkg1.AInterface").getCompilationUnit();
+    unit.becomeWorkingCopy(null);
+    try {
+      String source = unit.getBuffer().getContents();
+      int offset = source.indexOf('{');
+      unit.getBuffer().replace(offset, 0, "extends java.io.Serializable ");
+      unit.reconcile(ICompilationUnit.NO_AST, false, null, null);
+
+      ITypeHierarchy changed = cache.getHierarchy(aClass, null);
+
+      assertNotSame(hierarchy, changed);
+      assertEquals(3, changed.getAllSupertypes(aClass).length);
+    } finally {
+      unit.discardWorkingCopy();
+    }
+  }
+
+  @Test
+  public void testEvictsLeastRecentlyUsedHierarchy() throws Exception {
+    cache.getHierarchy(aClass, null);
+    cache.getHierarchy(project.findType("pkg1.AMain"), null);
+    cache.getHierarchy(aClass, null);
+
+    cache.getHierarchy(project.findType("pkg1.AInterface"), null);
+
+    assertEquals(2, cache.getHierarchies());
+  }
+
+  @Test
+  public void testOnlyMembersOfLibraryTypesAreStored() throws Exception {
+    IType object = project.findType("java.lang.Object");
+    List<ExtendedSymbolInformation> members = new ArrayList<>();
+
+    cache.putMembers(object, cache.getVersion(), members);
+    cache.putMembers(aClass, cache.getVersion(), new ArrayList<>());
+
+    assertSame(members, cache.getMembers(object));
+    assertNull(cache.getMembers(aClass));
+  }
+
+  @Test
+  public void testMembersRenderedBeforeClearAreNotStored() throws Exception {
+    IType object = project.findType("java.lang.Object");
+    long version = cache.getVersion();
+    cache.clear();
+
+    cache.putMembers(object, version, new ArrayList<>());
+
+    assertNull(cache.getMembers(object));
+  }
+}
@@ -0,0 +1,187 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.jdt.ls.extension.core.internal;
+
+import static java.util.Collections.singletonList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import org.eclipse.che.jdt.ls.extension.api.dto.SearchResult;
+import org.eclipse.che.jdt.ls.extension.api.dto.UsagesResponse;
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IFolder;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.lsp4j.Position;
+import org.eclipse.lsp4j.TextDocumentIdentifier;
+import org.eclipse.lsp4j.TextDocumentPositionParams;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Compares the sequential and the parallel usages search on the usages and multimodule projects,
+ * scaled up with generated sources, for every parallelism up to the number of available processors.
+ * Only runs with {@code -Dche.benchmarks=true}.
+ */
+public class UsagesBenchmarkTest extends AbstractProjectsManagerBasedTest {
+  private static final int PACKAGES = 10;
+  private static final int CLASSES_PER_PACKAGE = 20;
+
+  private IProject controllerProject;
+
+  @Before
+  public void setUp() throws Exception {
+    Assume.assumeTrue(Boolean.getBoolean("che.benchmarks"));
+    importProjects(Arrays.asList("maven/usages", "maven/multimodule"));
+    for (IProject project : WorkspaceHelper.getAllProjects()) {
+      if (project.getFolder("src/main/java").exists()) {
+        generateSources(project);
+      }
+    }
+    waitForBackgroundJobs();
+    controllerProject = WorkspaceHelper.getProject("my-webapp");
+  }
+
+  @Test
+  public void testParallelSearchFindsSameUsages() throws Exception {
+    // java.util.Map in an import of GreetingController, searched in sources, libraries and JRE
+    TextDocumentPositionParams parameter =
+        createParameter(
+            controllerProject, "src/main/java/helloworld/GreetingController.java", 6, 17);
+
+    List<String> expected = search(parameter, 1);
+    assertTrue(expected.size() > PACKAGES * CLASSES_PER_PACKAGE);
+
+    long sequential = measure(parameter, 1);
+    StringBuilder timings =
+        new StringBuilder(String.format("usages of Map, parallelism 1: %d ms", sequential));
+    long best = sequential;
+    int processors = Runtime.getRuntime().availableProcessors();
+    for (int parallelism = 2; parallelism <= processors; parallelism *= 2) {
+      assertEquals(timings.toString(), expected, search(parameter, parallelism));
+      long parallel = measure(parameter, parallelism);
+      timings.append(
+          String.format(
+              ", parallelism %d: %d ms, speedup %.2f",
+              parallelism, parallel, (double) sequential / parallel));
+      best = Math.min(best, parallel);
+    }
+    assertTrue(timings.toString(), best <= sequential);
+  }
+
+  @Test
+  public void testRepeatedSearchAfterChange() throws Exception {
+    TextDocumentPositionParams parameter =
+        createParameter(
+            controllerProject, "src/main/java/helloworld/GreetingController.java", 6, 17);
+    List<String> expected = search(parameter, 1);
+    long full = measure(parameter, 1);
+
+    IFile changed = controllerProject.getFile("src/main/java/generated0/Generated0.java");
+    long best = Long.MAX_VALUE;
+    for (int i = 0; i < 3; i++) {
+      changed.setContents(changed.getContents(), true, false, null);
+      long start = System.nanoTime();
+      assertEquals(
+          expected,
+          collectMatches(
+              UsagesCommand.execute(singletonList(parameter), new NullProgressMonitor())));
+      best = Math.min(best, System.nanoTime() - start);
+    }
+    assertTrue(
+        String.format(
+            "usages of Map, full search: %d ms, repeated after a change: %d ms",
+            full, best / 1_000_000),
+        best / 1_000_000 <= full);
+  }
+
+  /** Searches without the matches of previous searches. */
+  private List<String> search(TextDocumentPositionParams parameter, int parallelism) {
+    UsagesCommand.usagesCache.clear();
+    ForkJoinPool pool = new ForkJoinPool(parallelism);
+    try {
+      return collectMatches(
+          UsagesCommand.execute(singletonList(parameter), pool, new NullProgressMonitor()));
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  private long measure(TextDocumentPositionParams parameter, int parallelism) {
+    long best = Long.MAX_VALUE;
+    for (int i = 0; i < 3; i++) {
+      long start = System.nanoTime();
+      search(parameter, parallelism);
+      best = Math.min(best, System.nanoTime() - start);
+    }
+    return best / 1_000_000;
+  }
+
+  private List<String> collectMatches(List<UsagesResponse> responses) {
+    List<String> matches = new ArrayList<>();
+    collectMatches(responses.get(0).getSearchResults(), matches);
+    Collections.sort(matches);
+    return matches;
+  }
+
+  private void collectMatches(List<SearchResult> results, List<String> matches) {
+    for (SearchResult result : results) {
+      result.getMatches().forEach(match -> matches.add(result.getUri() + "@" + match.getOffset()));
+      collectMatches(result.getChildren(), matches);
+    }
+  }
+
+  private void generateSources(IProject project) throws Exception {
+    IFolder sources = project.getFolder("src/main/java");
+    for (int p = 0; p < PACKAGES; p++) {
+      String packageName = "generated" + p;
+      IFolder folder = sources.getFolder(packageName);
+      folder.create(true, true, null);
+      for (int c = 0; c < CLASSES_PER_PACKAGE; c++) {
+        String className = "Generated" + c;
+        String content =
+            "package "
+                + packageName
+                + ";\n"
+                + "import java.util.HashMap;\n"
+                + "import java.util.Map;\n"
+                + "public class "
+                + className
+                + " {\n"
+                + "  private final Map<String, Object> values = new HashMap<>();\n"
+                + "  public Map<String, Object> copy(Map<String, Object> source) {\n"
+                + "    Map<String, Object> result = new HashMap<>(source);\n"
+                + "    result.putAll(values);\n"
+                + "    return result;\n"
+                + "  }\n"
+                + "}\n";
+        folder
+            .getFile(className + ".java")
+            .create(new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)), true, null);
+      }
+    }
+  }
+
+  private TextDocumentPositionParams createParameter(
+      IProject project, String workspacePath, int line, int character) {
+    return new TextDocumentPositionParams(
+        new TextDocumentIdentifier(project.findMember(workspacePath).getLocationURI().toString()),
+        new Position(line, character));
+  }
+}
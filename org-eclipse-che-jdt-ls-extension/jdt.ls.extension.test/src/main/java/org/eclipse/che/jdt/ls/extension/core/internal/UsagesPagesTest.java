@@ -0,0 +1,150 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.jdt.ls.extension.core.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.eclipse.che.jdt.ls.extension.api.dto.LinearRange;
+import org.eclipse.che.jdt.ls.extension.api.dto.SearchResult;
+import org.eclipse.che.jdt.ls.extension.api.dto.UsagesResponse;
+import org.eclipse.lsp4j.SymbolKind;
+import org.junit.Before;
+import org.junit.Test;
+
+public class UsagesPagesTest {
+  private final AtomicLong time = new AtomicLong();
+  private UsagesPages pages;
+
+  @Before
+  public void setUp() {
+    pages = new UsagesPages(2, TimeUnit.SECONDS.toNanos(10), time::get);
+  }
+
+  @Test
+  public void testSmallResultIsNotPaginated() {
+    UsagesResponse response = response();
+
+    UsagesResponse page = pages.firstPage(response, 5);
+
+    assertSame(response, page);
+    assertNull(page.getCursor());
+    assertEquals(5, page.getTotalMatches());
+    assertEquals(0, pages.size());
+  }
+
+  @Test
+  public void testPagesContainMatchesWithTheirParents() {
+    UsagesResponse first = pages.firstPage(response(), 2);
+    assertEquals(Arrays.asList(range(1), range(2)), matches(first));
+    assertEquals(5, first.getTotalMatches());
+    assertEquals("pkg", first.getSearchResults().get(0).getName());
+    assertEquals("A", first.getSearchResults().get(0).getChildren().get(0).getName());
+    assertEquals(1, first.getSearchResults().get(0).getChildren().size());
+
+    UsagesResponse second = pages.page(first.getCursor(), null);
+    assertEquals(Arrays.asList(range(3), range(4)), matches(second));
+    assertEquals("B", second.getSearchResults().get(0).getChildren().get(0).getName());
+
+    UsagesResponse last = pages.page(second.getCursor(), null);
+    assertEquals(Arrays.asList(range(5)), matches(last));
+    assertNull(last.getCursor());
+    assertEquals("searched", last.getSearchedElement());
+  }
+
+  @Test
+  public void testPageCanBeRequestedAgainWithOtherSize() {
+    UsagesResponse first = pages.firstPage(response(), 2);
+    pages.page(first.getCursor(), null);
+
+    UsagesResponse again = pages.page(first.getCursor(), 3);
+
+    assertEquals(Arrays.asList(range(3), range(4), range(5)), matches(again));
+    assertNull(again.getCursor());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testResultsExpire() {
+    UsagesResponse first = pages.firstPage(response(), 2);
+    time.addAndGet(TimeUnit.SECONDS.toNanos(11));
+
+    pages.page(first.getCursor(), null);
+  }
+
+  @Test
+  public void testLeastRecentlyUsedResultsAreDropped() {
+    UsagesResponse first = pages.firstPage(response(), 1);
+    UsagesResponse second = pages.firstPage(response(), 1);
+    pages.page(first.getCursor(), null);
+
+    pages.firstPage(response(), 1);
+
+    assertEquals(2, pages.size());
+    assertNotNull(pages.page(first.getCursor(), null));
+    try {
+      pages.page(second.getCursor(), null);
+      fail("Results of the second search should be dropped");
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+  }
+
+  /** Package {@code pkg} with type {@code A} having matches 1 and 2, type {@code B} 3 to 5. */
+  private static UsagesResponse response() {
+    SearchResult a = node(SymbolKind.Class, "A", 1, 2);
+    SearchResult b = node(SymbolKind.Class, "B", 3, 4);
+    b.getChildren().add(node(SymbolKind.Method, "b()", 5));
+    SearchResult pkg = node(SymbolKind.Package, "pkg");
+    pkg.getChildren().add(a);
+    pkg.getChildren().add(b);
+    return new UsagesResponse("searched", SymbolKind.Class, new ArrayList<>(Arrays.asList(pkg)));
+  }
+
+  private static SearchResult node(SymbolKind kind, String name, int... matches) {
+    SearchResult result = new SearchResult();
+    result.setKind(kind);
+    result.setName(name);
+    result.setUri("file:///" + name);
+    result.setChildren(new ArrayList<>());
+    result.setMatches(new ArrayList<>());
+    for (int match : matches) {
+      result.getMatches().add(range(match));
+    }
+    return result;
+  }
+
+  private static LinearRange range(int offset) {
+    return new LinearRange(offset, 1);
+  }
+
+  private static List<LinearRange> matches(UsagesResponse response) {
+    List<LinearRange> matches = new ArrayList<>();
+    for (SearchResult result : response.getSearchResults()) {
+      collect(result, matches);
+    }
+    return matches;
+  }
+
+  private static void collect(SearchResult result, List<LinearRange> matches) {
+    matches.addAll(result.getMatches());
+    for (SearchResult child : result.getChildren()) {
+      collect(child, matches);
+    }
+  }
+}
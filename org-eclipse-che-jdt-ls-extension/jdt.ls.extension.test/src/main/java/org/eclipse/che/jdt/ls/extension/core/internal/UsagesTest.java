@@ -11,16 +11,27 @@
 package org.eclipse.che.jdt.ls.extension.core.internal;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
+import com.google.gson.JsonPrimitive;
+import java.io.ByteArrayInputStream;
 import java.net.URI;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.function.BiConsumer;
 import java.util.function.Function;
 import org.eclipse.che.jdt.ls.extension.api.dto.LinearRange;
 import org.eclipse.che.jdt.ls.extension.api.dto.SearchResult;
+import org.eclipse.che.jdt.ls.extension.api.dto.UsagesCount;
+import org.eclipse.che.jdt.ls.extension.api.dto.UsagesCountParameters;
+import org.eclipse.che.jdt.ls.extension.api.dto.UsagesPartialResult;
 import org.eclipse.che.jdt.ls.extension.api.dto.UsagesResponse;
+import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IProject;
 import org.eclipse.core.runtime.NullProgressMonitor;
 import org.eclipse.lsp4j.Position;
@@ -86,6 +97,163 @@ public class UsagesTest extends AbstractProjectsManagerBasedTest {
         usages.getSearchResults(), "TestMethod.class", "TestMethod", 250, 14, Assert::assertTrue);
   }
 
+  @Test
+  public void testCountUsages() {
+    String uri = project.findMember("src/main/java/pkg1/AClass.java").getLocationURI().toString();
+    UsagesCountParameters parameters =
+        new UsagesCountParameters(uri, Arrays.asList(new Position(3, 12), new Position(1, 0)));
+
+    List<UsagesCount> counts =
+        UsagesCommand.count(Collections.singletonList(parameters), new NullProgressMonitor());
+
+    assertEquals(2, counts.size());
+    assertEquals(new Position(3, 12), counts.get(0).getPosition());
+    assertEquals(1, counts.get(0).getCount());
+    assertEquals(Integer.valueOf(1), counts.get(0).getProjects().get("usages"));
+    assertEquals(0, counts.get(1).getCount());
+  }
+
+  @Test
+  public void testPaginatedUsages() {
+    TextDocumentPositionParams parameter = createParameter("src/test/java/pkg1/ATest.java", 6, 5);
+    List<LinearRange> all =
+        collectMatches(
+            UsagesCommand.execute(Collections.singletonList(parameter), new NullProgressMonitor())
+                .get(0)
+                .getSearchResults());
+
+    UsagesResponse page =
+        UsagesCommand.execute(Arrays.asList(parameter, 1), new NullProgressMonitor()).get(0);
+    assertEquals("Test", page.getSearchedElement());
+    assertEquals(all.size(), page.getTotalMatches());
+    List<LinearRange> paged = new ArrayList<>(collectMatches(page.getSearchResults()));
+    while (page.getCursor() != null) {
+      page =
+          UsagesCommand.nextPage(
+                  Collections.singletonList(page.getCursor()), new NullProgressMonitor())
+              .get(0);
+      assertEquals(1, collectMatches(page.getSearchResults()).size());
+      paged.addAll(collectMatches(page.getSearchResults()));
+    }
+    assertEquals(all.size(), paged.size());
+    assertEquals(new HashSet<>(all), new HashSet<>(paged));
+  }
+
+  @Test
+  public void testRepeatedSearchFindsChangedFiles() throws Exception {
+    TextDocumentPositionParams parameter = createParameter("src/test/java/pkg1/ATest.java", 6, 5);
+    List<LinearRange> matches = searchMatches(parameter);
+
+    IFile file = project.getFile("src/test/java/pkg1/BTest.java");
+    String content = "package pkg1;\n\npublic class BTest {\n  @org.junit.Test\n  void b() {}\n}\n";
+    file.create(new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)), true, null);
+    List<LinearRange> withNewFile = searchMatches(parameter);
+    assertEquals(matches.size() + 1, withNewFile.size());
+    assertTrue(withNewFile.contains(new LinearRange(content.indexOf("org.junit.Test"), 14)));
+
+    file.delete(true, null);
+    assertEquals(new HashSet<>(matches), new HashSet<>(searchMatches(parameter)));
+  }
+
+  @Test
+  public void testRepeatedSearchAfterOverloadIsAdded() throws Exception {
+    IFile printer = project.getFile("src/main/java/pkg1/Printer.java");
+    String declaration =
+        "package pkg1;\npublic class Printer {\n  public void print(long value) {}\n";
+    printer.create(
+        new ByteArrayInputStream((declaration + "}\n").getBytes(StandardCharsets.UTF_8)),
+        true,
+        null);
+    String caller =
+        "package pkg1;\npublic class Caller {\n  void call() {\n    new Printer().print(1);\n  }\n}\n";
+    project
+        .getFile("src/main/java/pkg1/Caller.java")
+        .create(new ByteArrayInputStream(caller.getBytes(StandardCharsets.UTF_8)), true, null);
+    TextDocumentPositionParams parameter =
+        createParameter("src/main/java/pkg1/Printer.java", 2, 15);
+    List<LinearRange> matches = searchMatches(parameter);
+    assertEquals(1, matches.size());
+    assertEquals(caller.indexOf("print(1)"), matches.get(0).getOffset());
+
+    String overloaded = declaration + "  public void print(int value) {}\n}\n";
+    printer.setContents(
+        new ByteArrayInputStream(overloaded.getBytes(StandardCharsets.UTF_8)), true, false, null);
+
+    assertEquals(Collections.emptyList(), searchMatches(parameter));
+  }
+
+  @Test
+  public void testRepeatedSearchAfterOverloadIsAddedInOtherFile() throws Exception {
+    String declaration =
+        "package pkg1;\npublic class Printer {\n  public void print(long value) {}\n}\n";
+    project
+        .getFile("src/main/java/pkg1/Printer.java")
+        .create(new ByteArrayInputStream(declaration.getBytes(StandardCharsets.UTF_8)), true, null);
+    IFile subclass = project.getFile("src/main/java/pkg1/SubPrinter.java");
+    String subclassDeclaration = "package pkg1;\npublic class SubPrinter extends Printer {\n";
+    subclass.create(
+        new ByteArrayInputStream((subclassDeclaration + "}\n").getBytes(StandardCharsets.UTF_8)),
+        true,
+        null);
+    String caller =
+        "package pkg1;\npublic class Caller {\n  void call() {\n    new SubPrinter().print(1);\n  }\n}\n";
+    project
+        .getFile("src/main/java/pkg1/Caller.java")
+        .create(new ByteArrayInputStream(caller.getBytes(StandardCharsets.UTF_8)), true, null);
+    TextDocumentPositionParams parameter =
+        createParameter("src/main/java/pkg1/Printer.java", 2, 15);
+    List<LinearRange> matches = searchMatches(parameter);
+    assertEquals(1, matches.size());
+    assertEquals(caller.indexOf("print(1)"), matches.get(0).getOffset());
+
+    // the call in the unchanged caller binds to the new overload
+    String overloaded = subclassDeclaration + "  public void print(int value) {}\n}\n";
+    subclass.setContents(
+        new ByteArrayInputStream(overloaded.getBytes(StandardCharsets.UTF_8)), true, false, null);
+
+    assertEquals(Collections.emptyList(), searchMatches(parameter));
+  }
+
+  @Test
+  public void testStreamUsages() {
+    TextDocumentPositionParams parameter = createParameter("src/test/java/pkg1/ATest.java", 6, 5);
+    List<UsagesPartialResult> notifications = new ArrayList<>();
+    UsagesPartialResult summary =
+        UsagesCommand.executeStreaming(
+            Arrays.asList(parameter, "search-1"), notifications::add, new NullProgressMonitor());
+
+    assertTrue(summary.isDone());
+    assertFalse(summary.isCanceled());
+    assertEquals("Test", summary.getSearchedElement());
+    assertEquals(summary, notifications.get(notifications.size() - 1));
+
+    List<LinearRange> streamed = new ArrayList<>();
+    for (UsagesPartialResult notification : notifications) {
+      assertEquals("search-1", notification.getToken());
+      streamed.addAll(collectMatches(notification.getSearchResults()));
+    }
+    UsagesResponse usages =
+        UsagesCommand.execute(Collections.singletonList(parameter), new NullProgressMonitor())
+            .get(0);
+    assertEquals(collectMatches(usages.getSearchResults()).size(), streamed.size());
+    assertEquals(streamed.size(), summary.getMatches());
+  }
+
+  @Test
+  public void testStreamUsagesWithNumericToken() {
+    TextDocumentPositionParams parameter = createParameter("src/test/java/pkg1/ATest.java", 6, 5);
+    for (Object token : Arrays.asList(new JsonPrimitive(7), 7.0, 7)) {
+      List<UsagesPartialResult> notifications = new ArrayList<>();
+      UsagesCommand.executeStreaming(
+          Arrays.asList(parameter, token), notifications::add, new NullProgressMonitor());
+
+      assertFalse(notifications.isEmpty());
+      for (UsagesPartialResult notification : notifications) {
+        assertEquals("7", notification.getToken());
+      }
+    }
+  }
+
   private void findResult(
       List<SearchResult> searchResults,
       String path,
@@ -113,6 +281,13 @@ public class UsagesTest extends AbstractProjectsManagerBasedTest {
     ifFound.accept("No matches in " + path, false);
   }
 
+  private List<LinearRange> searchMatches(TextDocumentPositionParams parameter) {
+    return collectMatches(
+        UsagesCommand.execute(Collections.singletonList(parameter), new NullProgressMonitor())
+            .get(0)
+            .getSearchResults());
+  }
+
   private TextDocumentPositionParams createParameter(
       String workspacePath, int line, int character) {
     URI locationURI = project.findMember(workspacePath).getLocationURI();
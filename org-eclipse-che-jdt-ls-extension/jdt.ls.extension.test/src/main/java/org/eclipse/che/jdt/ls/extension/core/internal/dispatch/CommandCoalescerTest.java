@@ -0,0 +1,190 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.jdt.ls.extension.core.internal.dispatch;
+
+import static java.util.Collections.singletonList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.eclipse.che.jdt.ls.extension.core.internal.dispatch.CommandScheduler.Lane;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class CommandCoalescerTest {
+  private CommandScheduler scheduler;
+  private CommandCoalescer coalescer;
+  private ExecutorService callers;
+  private CountDownLatch release;
+  private AtomicInteger executions;
+
+  @Before
+  public void setUp() {
+    scheduler = new CommandScheduler(4, 16, 1, 1);
+    coalescer = new CommandCoalescer(scheduler);
+    callers = Executors.newCachedThreadPool();
+    release = new CountDownLatch(1);
+    executions = new AtomicInteger();
+  }
+
+  @After
+  public void tearDown() {
+    release.countDown();
+    callers.shutdownNow();
+    scheduler.shutdown();
+  }
+
+  @Test(timeout = 10000)
+  public void testIdenticalCommandsShareComputation() throws Exception {
+    Future<Object> first = call("file:///a.java", new NullProgressMonitor());
+    Future<Object> second = call("file:///a.java", new NullProgressMonitor());
+    waitForCoalesced(1);
+    release.countDown();
+
+    assertEquals("result1", first.get());
+    assertEquals("result1", second.get());
+    assertEquals(1, executions.get());
+  }
+
+  @Test(timeout = 10000)
+  public void testDifferentArgumentsAreNotCoalesced() throws Exception {
+    release.countDown();
+
+    Future<Object> first = call("file:///a.java", new NullProgressMonitor());
+    Future<Object> second = call("file:///b.java", new NullProgressMonitor());
+
+    first.get();
+    second.get();
+    assertEquals(2, executions.get());
+    assertEquals(0, coalescer.getCoalesced());
+  }
+
+  @Test(timeout = 10000)
+  public void testComputationContinuesWhileSomeoneWaits() throws Exception {
+    NullProgressMonitor cancelled = new NullProgressMonitor();
+    Future<Object> first = call("file:///a.java", cancelled);
+    Future<Object> second = call("file:///a.java", new NullProgressMonitor());
+    waitForCoalesced(1);
+
+    cancelled.setCanceled(true);
+    assertCancelled(first);
+    release.countDown();
+
+    assertEquals("result1", second.get());
+  }
+
+  @Test(timeout = 10000)
+  public void testComputationIsCancelledWhenEveryoneCancelled() throws Exception {
+    NullProgressMonitor firstMonitor = new NullProgressMonitor();
+    NullProgressMonitor secondMonitor = new NullProgressMonitor();
+    Future<Object> first = call("file:///a.java", firstMonitor);
+    Future<Object> second = call("file:///a.java", secondMonitor);
+    waitForCoalesced(1);
+
+    firstMonitor.setCanceled(true);
+    secondMonitor.setCanceled(true);
+
+    assertCancelled(first);
+    assertCancelled(second);
+    assertEquals(0, coalescer.getInFlight());
+
+    release.countDown();
+    assertEquals("result2", call("file:///a.java", new NullProgressMonitor()).get());
+  }
+
+  @Test(timeout = 10000)
+  public void testProgressIsReportedToCaller() throws Exception {
+    List<String> reported = new ArrayList<>();
+    NullProgressMonitor caller =
+        new NullProgressMonitor() {
+          @Override
+          public void beginTask(String name, int totalWork) {
+            reported.add(name + " " + totalWork);
+          }
+
+          @Override
+          public void subTask(String name) {
+            reported.add(name);
+          }
+
+          @Override
+          public void worked(int work) {
+            reported.add(String.valueOf(work));
+          }
+        };
+
+    Object result =
+        coalescer.execute(
+            Lane.INTERACTIVE,
+            new CommandKey("filestructure", singletonList("file:///a.java")),
+            monitor -> {
+              monitor.beginTask("outline", 2);
+              monitor.subTask("members");
+              monitor.worked(1);
+              return "done";
+            },
+            caller);
+
+    assertEquals("done", result);
+    assertEquals(Arrays.asList("outline 2", "members", "1"), reported);
+  }
+
+  private Future<Object> call(String uri, IProgressMonitor monitor) {
+    CommandKey key = new CommandKey("filestructure", singletonList(uri));
+    Callable<Object> callable =
+        () -> coalescer.execute(Lane.INTERACTIVE, key, this::compute, monitor);
+    return callers.submit(callable);
+  }
+
+  private Object compute(IProgressMonitor monitor) {
+    int execution = executions.incrementAndGet();
+    try {
+      while (!release.await(10, TimeUnit.MILLISECONDS)) {
+        if (monitor.isCanceled()) {
+          throw new OperationCanceledException();
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    return "result" + execution;
+  }
+
+  private void waitForCoalesced(long expected) throws InterruptedException {
+    while (coalescer.getCoalesced() < expected) {
+      Thread.sleep(5);
+    }
+  }
+
+  private static void assertCancelled(Future<Object> future) throws InterruptedException {
+    try {
+      future.get();
+      fail("Command should be cancelled");
+    } catch (ExecutionException e) {
+      assertTrue(e.getCause() instanceof OperationCanceledException);
+    }
+  }
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.jdt.ls.extension.core.internal.dispatch;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+import org.eclipse.che.jdt.ls.extension.api.dto.CommandMetrics;
+import org.eclipse.che.jdt.ls.extension.api.dto.MetricsReport;
+import org.eclipse.che.jdt.ls.extension.core.internal.dispatch.CommandMetricsCollector.Outcome;
+import org.junit.Test;
+
+public class CommandMetricsCollectorTest {
+
+  @Test
+  public void testCountsOutcomes() {
+    CommandMetricsCollector collector = new CommandMetricsCollector();
+    collector.record("b", Outcome.SUCCESS, millis(1));
+    collector.record("a", Outcome.SUCCESS, millis(1));
+    collector.record("a", Outcome.ERROR, millis(1));
+    collector.record("a", Outcome.CANCEL, millis(1));
+
+    MetricsReport report = collector.getReport();
+
+    assertEquals(2, report.getCommands().size());
+    CommandMetrics a = report.getCommands().get(0);
+    assertEquals("a", a.getCommandId());
+    assertEquals(3, a.getCalls());
+    assertEquals(1, a.getErrors());
+    assertEquals(1, a.getCancels());
+    assertEquals("b", report.getCommands().get(1).getCommandId());
+  }
+
+  @Test
+  public void testPercentiles() {
+    CommandMetricsCollector collector = new CommandMetricsCollector();
+    for (int i = 1; i <= 100; i++) {
+      collector.record("cmd", Outcome.SUCCESS, millis(i));
+    }
+
+    CommandMetrics metrics = collector.getReport().getCommands().get(0);
+
+    assertInRange(50, metrics.getLatencyP50());
+    assertInRange(95, metrics.getLatencyP95());
+    assertInRange(99, metrics.getLatencyP99());
+    assertEquals(100, metrics.getLatencyMax(), 0.001);
+    assertEquals(50.5, metrics.getLatencyMean(), 0.001);
+  }
+
+  @Test
+  public void testBucketBoundaries() {
+    for (long value = 0; value < 1 << 20; value++) {
+      int index = LatencyHistogram.indexOf(value);
+      assertTrue(value <= LatencyHistogram.upperBoundOf(index));
+      if (index > 0) {
+        assertTrue(value > LatencyHistogram.upperBoundOf(index - 1));
+      }
+    }
+  }
+
+  private static void assertInRange(double expected, double actual) {
+    assertTrue(actual + " < " + expected, actual >= expected);
+    assertTrue(actual + " is too far from " + expected, actual <= expected * 1.125);
+  }
+
+  private static long millis(long value) {
+    return TimeUnit.MILLISECONDS.toNanos(value);
+  }
+}
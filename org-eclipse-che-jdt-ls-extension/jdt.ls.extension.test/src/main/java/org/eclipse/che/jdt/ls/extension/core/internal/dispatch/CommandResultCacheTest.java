@@ -0,0 +1,104 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.jdt.ls.extension.core.internal.dispatch;
+
+import static java.util.Collections.singletonList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.eclipse.che.jdt.ls.extension.api.dto.CacheMetrics;
+import org.eclipse.core.runtime.Path;
+import org.junit.Before;
+import org.junit.Test;
+
+public class CommandResultCacheTest {
+  private static final CacheScope DOCUMENT_A = CacheScope.document(new Path("/project/A.java"));
+  private static final CacheScope DOCUMENT_B = CacheScope.document(new Path("/project/B.java"));
+
+  private CommandResultCache cache;
+
+  @Before
+  public void setUp() {
+    cache = new CommandResultCache(2);
+  }
+
+  @Test
+  public void testReturnsCachedResult() {
+    CommandKey key = key("a");
+    cache.compute(key, DOCUMENT_A, () -> "result");
+
+    assertEquals("result", cache.get(key));
+    assertEquals("result", cache.compute(key, DOCUMENT_A, () -> "other"));
+
+    CacheMetrics metrics = cache.getStatistics();
+    assertEquals(2, metrics.getHits());
+    assertEquals(1, metrics.getMisses());
+  }
+
+  @Test
+  public void testEvictsLeastRecentlyUsedResult() {
+    cache.compute(key("a"), DOCUMENT_A, () -> "a");
+    cache.compute(key("b"), DOCUMENT_A, () -> "b");
+    cache.get(key("a"));
+    cache.compute(key("c"), DOCUMENT_A, () -> "c");
+
+    assertEquals("a", cache.get(key("a")));
+    assertNull(cache.get(key("b")));
+    assertEquals("c", cache.get(key("c")));
+    assertEquals(1, cache.getStatistics().getEvictions());
+  }
+
+  @Test
+  public void testInvalidatesChangedDocumentOnly() {
+    cache.compute(key("a"), DOCUMENT_A, () -> "a");
+    cache.compute(key("b"), DOCUMENT_B, () -> "b");
+
+    cache.invalidateDocument(new Path("/project/A.java"));
+
+    assertNull(cache.get(key("a")));
+    assertEquals("b", cache.get(key("b")));
+  }
+
+  @Test
+  public void testSourceChangeDoesNotInvalidateClasspathResults() {
+    cache.compute(key("workspace"), CacheScope.workspace(), () -> "workspace");
+    cache.compute(key("classpath"), CacheScope.classpath(), () -> "classpath");
+
+    cache.invalidateSources();
+
+    assertNull(cache.get(key("workspace")));
+    assertEquals("classpath", cache.get(key("classpath")));
+
+    cache.invalidateClasspath();
+
+    assertNull(cache.get(key("classpath")));
+    assertEquals(0, cache.getStatistics().getSize());
+  }
+
+  @Test
+  public void testDoesNotStoreResultInvalidatedDuringComputation() {
+    Object result =
+        cache.compute(
+            key("a"),
+            DOCUMENT_A,
+            () -> {
+              cache.invalidateDocument(new Path("/project/A.java"));
+              return "stale";
+            });
+
+    assertEquals("stale", result);
+    assertNull(cache.get(key("a")));
+  }
+
+  private static CommandKey key(String uri) {
+    return new CommandKey("filestructure", singletonList(uri));
+  }
+}
@@ -0,0 +1,208 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.jdt.ls.extension.core.internal.dispatch;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import org.eclipse.che.jdt.ls.extension.api.dto.LaneMetrics;
+import org.eclipse.che.jdt.ls.extension.core.internal.dispatch.CommandScheduler.Lane;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class CommandSchedulerTest {
+  private CommandScheduler scheduler;
+  private CountDownLatch release;
+
+  @Before
+  public void setUp() {
+    scheduler = new CommandScheduler(1, 4, 1, 1);
+    release = new CountDownLatch(1);
+  }
+
+  @After
+  public void tearDown() {
+    release.countDown();
+    scheduler.shutdown();
+  }
+
+  @Test(timeout = 10000)
+  public void testInteractiveCommandDoesNotWaitForBulkOne() throws Exception {
+    scheduler.submit(Lane.BULK, pm -> block(), new NullProgressMonitor());
+
+    String result = scheduler.execute(Lane.INTERACTIVE, pm -> "done", new NullProgressMonitor());
+
+    assertEquals("done", result);
+  }
+
+  @Test(timeout = 10000)
+  public void testRejectsCommandsWhenQueueIsFull() throws Exception {
+    scheduler.submit(Lane.BULK, pm -> block(), new NullProgressMonitor());
+    scheduler.submit(Lane.BULK, pm -> "queued", new NullProgressMonitor());
+
+    try {
+      scheduler.submit(Lane.BULK, pm -> "rejected", new NullProgressMonitor());
+      fail("Command should be rejected");
+    } catch (RejectedExecutionException e) {
+      // expected
+    }
+
+    LaneMetrics bulk = getStatistics("bulk");
+    assertEquals(1, bulk.getRejected());
+    assertEquals(1, bulk.getQueueDepth());
+    assertEquals(1, bulk.getQueueCapacity());
+  }
+
+  @Test(timeout = 10000)
+  public void testCancellationIsPropagatedToCommand() throws Exception {
+    NullProgressMonitor caller = new NullProgressMonitor();
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch cancelled = new CountDownLatch(1);
+    new Thread(
+            () -> {
+              try {
+                started.await();
+              } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+              }
+              caller.setCanceled(true);
+            })
+        .start();
+
+    try {
+      scheduler.execute(
+          Lane.INTERACTIVE,
+          pm -> {
+            started.countDown();
+            while (!pm.isCanceled()) {
+              Thread.yield();
+            }
+            cancelled.countDown();
+            return null;
+          },
+          caller);
+      fail("Command should be cancelled");
+    } catch (OperationCanceledException e) {
+      // expected
+    }
+    assertTrue(cancelled.await(5, TimeUnit.SECONDS));
+  }
+
+  @Test(timeout = 10000)
+  public void testProgressIsReportedToCaller() throws Exception {
+    List<String> reported = new ArrayList<>();
+    NullProgressMonitor caller =
+        new NullProgressMonitor() {
+          @Override
+          public void beginTask(String name, int totalWork) {
+            reported.add(name + " " + totalWork);
+          }
+
+          @Override
+          public void subTask(String name) {
+            reported.add(name);
+          }
+
+          @Override
+          public void worked(int work) {
+            reported.add(String.valueOf(work));
+          }
+        };
+
+    scheduler.execute(
+        Lane.INTERACTIVE,
+        pm -> {
+          pm.beginTask("search", 2);
+          pm.subTask("project");
+          pm.worked(1);
+          pm.setCanceled(true);
+          return null;
+        },
+        caller);
+
+    assertEquals(Arrays.asList("search 2", "project", "1"), reported);
+    assertFalse(caller.isCanceled());
+  }
+
+  @Test(timeout = 10000)
+  public void testExecutesCommandsAfterShutdown() throws Exception {
+    scheduler.submit(Lane.BULK, pm -> block(), new NullProgressMonitor());
+
+    scheduler.shutdown();
+
+    assertEquals("done", scheduler.execute(Lane.BULK, pm -> "done", new NullProgressMonitor()));
+  }
+
+  @Test(timeout = 10000)
+  public void testRethrowsCommandFailure() throws Exception {
+    try {
+      scheduler.execute(
+          Lane.INTERACTIVE,
+          pm -> {
+            throw new IllegalArgumentException("broken");
+          },
+          new NullProgressMonitor());
+      fail("Command failure should be rethrown");
+    } catch (IllegalArgumentException e) {
+      assertEquals("broken", e.getMessage());
+    }
+  }
+
+  @Test(timeout = 10000)
+  public void testRecordsWaitTime() throws Exception {
+    Future<Object> blocking =
+        scheduler.submit(Lane.INTERACTIVE, pm -> block(), new NullProgressMonitor());
+    Future<String> queued =
+        scheduler.submit(Lane.INTERACTIVE, pm -> "done", new NullProgressMonitor());
+    Thread.sleep(20);
+    release.countDown();
+    blocking.get();
+    queued.get();
+    // the pool counts a task as completed only after its result is set
+    while (getStatistics("interactive").getCompleted() < 2) {
+      Thread.sleep(1);
+    }
+
+    LaneMetrics interactive = getStatistics("interactive");
+    assertEquals(2, interactive.getCompleted());
+    assertTrue(interactive.getWaitMax() >= 20);
+  }
+
+  private Object block() {
+    try {
+      release.await();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    return null;
+  }
+
+  private LaneMetrics getStatistics(String lane) {
+    return scheduler
+        .getStatistics()
+        .stream()
+        .filter(metrics -> lane.equals(metrics.getLane()))
+        .findFirst()
+        .get();
+  }
+}
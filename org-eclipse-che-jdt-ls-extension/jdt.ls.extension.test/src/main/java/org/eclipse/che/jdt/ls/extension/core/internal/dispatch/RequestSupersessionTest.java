@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.jdt.ls.extension.core.internal.dispatch;
+
+import static java.util.Collections.singletonList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.eclipse.che.jdt.ls.extension.api.Commands;
+import org.eclipse.che.jdt.ls.extension.api.dto.FileStructureCommandParameters;
+import org.eclipse.che.jdt.ls.extension.core.internal.CheDelegateCommandHandler;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.junit.Test;
+
+public class RequestSupersessionTest {
+  private static final String URI = "file:///project/A.java";
+
+  @Test
+  public void testNewerRequestCancelsOlderOne() {
+    RequestSupersession supersession = new RequestSupersession();
+
+    IProgressMonitor older = supersession.begin("filestructure", URI, new NullProgressMonitor());
+    IProgressMonitor newer = supersession.begin("filestructure", URI, new NullProgressMonitor());
+
+    assertTrue(older.isCanceled());
+    assertFalse(newer.isCanceled());
+    assertEquals(1, supersession.getSuperseded());
+  }
+
+  @Test
+  public void testRequestsForOtherDocumentsOrCommandsAreKept() {
+    RequestSupersession supersession = new RequestSupersession();
+
+    IProgressMonitor first = supersession.begin("filestructure", URI, new NullProgressMonitor());
+    supersession.begin("filestructure", "file:///project/B.java", new NullProgressMonitor());
+    supersession.begin("detectTest", URI, new NullProgressMonitor());
+
+    assertFalse(first.isCanceled());
+    assertEquals(0, supersession.getSuperseded());
+  }
+
+  @Test
+  public void testOutlinesWithAndWithoutInheritedMembersAreKept() {
+    RequestSupersession supersession = new RequestSupersession();
+    String declared = getOutlineDocument(false);
+    String inherited = getOutlineDocument(true);
+
+    IProgressMonitor first =
+        supersession.begin("filestructure", declared, new NullProgressMonitor());
+    supersession.begin("filestructure", inherited, new NullProgressMonitor());
+
+    assertFalse(first.isCanceled());
+    supersession.begin("filestructure", getOutlineDocument(false), new NullProgressMonitor());
+    assertTrue(first.isCanceled());
+  }
+
+  @Test
+  public void testFinishedRequestIsNotSuperseded() {
+    RequestSupersession supersession = new RequestSupersession();
+
+    IProgressMonitor finished = supersession.begin("filestructure", URI, new NullProgressMonitor());
+    supersession.end("filestructure", URI, finished);
+    supersession.begin("filestructure", URI, new NullProgressMonitor());
+
+    assertFalse(finished.isCanceled());
+    assertEquals(0, supersession.getSuperseded());
+  }
+
+  @Test
+  public void testCallerCancellationIsReported() {
+    RequestSupersession supersession = new RequestSupersession();
+    NullProgressMonitor caller = new NullProgressMonitor();
+
+    IProgressMonitor monitor = supersession.begin("filestructure", URI, caller);
+    caller.setCanceled(true);
+
+    assertTrue(monitor.isCanceled());
+  }
+
+  private static String getOutlineDocument(boolean showInherited) {
+    return CheDelegateCommandHandler.getSupersededDocument(
+        Commands.FILE_STRUCTURE_COMMAND,
+        singletonList(new FileStructureCommandParameters(URI, showInherited)));
+  }
+}
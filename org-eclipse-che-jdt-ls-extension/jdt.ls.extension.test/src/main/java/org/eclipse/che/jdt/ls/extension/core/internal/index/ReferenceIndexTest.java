@@ -0,0 +1,212 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.jdt.ls.extension.core.internal.index;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import org.eclipse.che.jdt.ls.extension.core.internal.AbstractProjectsManagerBasedTest;
+import org.eclipse.che.jdt.ls.extension.core.internal.WorkspaceHelper;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.IMethod;
+import org.eclipse.jdt.core.IType;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.core.search.IJavaSearchConstants;
+import org.eclipse.jdt.core.search.SearchEngine;
+import org.eclipse.jdt.core.search.SearchMatch;
+import org.eclipse.jdt.core.search.SearchParticipant;
+import org.eclipse.jdt.core.search.SearchPattern;
+import org.eclipse.jdt.core.search.SearchRequestor;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ReferenceIndexTest extends AbstractProjectsManagerBasedTest {
+  private IJavaProject project;
+  private IType aClass;
+  private Path location;
+  private ReferenceIndex index;
+
+  @Before
+  public void setUp() throws Exception {
+    importProjects("maven/usages");
+    project = JavaCore.create(WorkspaceHelper.getProject("usages"));
+    aClass = project.findType("pkg1.AClass");
+    location = Files.createTempDirectory("index").resolve("references.index");
+    index = new ReferenceIndex();
+    index.install(location);
+    index.join();
+  }
+
+  @After
+  public void tearDown() {
+    index.uninstall();
+  }
+
+  @Test
+  public void testFindTypeReference() throws Exception {
+    ReferenceIndex.Lookup lookup = find(project.findType("pkg1.AInterface"));
+
+    assertEquals(1, lookup.getReferences().size());
+    Reference reference = lookup.getReferences().get(0);
+    assertEquals("/usages/src/main/java/pkg1/AClass.java", reference.getFile());
+    assertEquals(46, reference.getOffset());
+    assertEquals(10, reference.getLength());
+    assertEquals(aClass, reference.getEnclosingElement());
+    assertTrue(lookup.getStaleUnits().isEmpty());
+  }
+
+  @Test
+  public void testVirtualMethodIsNotAnswered() throws Exception {
+    IMethod doStuff = aClass.getMethod("doStuff", new String[0]);
+
+    assertNull(index.find(doStuff, new IJavaProject[] {project}));
+  }
+
+  @Test
+  public void testConstructorIsNotAnswered() throws Exception {
+    IMethod constructor = aClass.getMethod("AClass", new String[0]);
+
+    assertNull(index.find(constructor, new IJavaProject[] {project}));
+  }
+
+  @Test
+  public void testReferencesMatchSearchEngine() throws Exception {
+    createFile(
+        "Counter.java",
+        "package pkg1;\n"
+            + "public class Counter {\n"
+            + "  public static final int START = 0;\n"
+            + "  private int value = START;\n"
+            + "  public Counter() {}\n"
+            + "  public static Counter create() {\n"
+            + "    return new Counter();\n"
+            + "  }\n"
+            + "  int next() {\n"
+            + "    return ++value;\n"
+            + "  }\n"
+            + "}\n");
+    createFile(
+        "CounterUser.java",
+        "package pkg1;\n"
+            + "public class CounterUser {\n"
+            + "  Counter counter = Counter.create();\n"
+            + "  int start = Counter.START;\n"
+            + "  Counter[] counters = {new Counter(), pkg1.Counter.create()};\n"
+            + "  int read(Counter c) {\n"
+            + "    return c.next() + Counter.START + create().next();\n"
+            + "  }\n"
+            + "  private static Counter create() {\n"
+            + "    return new Counter() {};\n"
+            + "  }\n"
+            + "}\n");
+    index.join();
+    IType counter = project.findType("pkg1.Counter");
+    IType user = project.findType("pkg1.CounterUser");
+
+    for (IJavaElement element :
+        Arrays.asList(
+            counter,
+            counter.getField("START"),
+            counter.getMethod("create", new String[0]),
+            user.getMethod("create", new String[0]))) {
+      Set<String> indexed = new HashSet<>();
+      for (Reference reference : find(element).getReferences()) {
+        indexed.add(
+            reference.getFile() + "@" + reference.getOffset() + ":" + reference.getLength());
+      }
+      assertEquals(element.getElementName(), search(element), indexed);
+    }
+    assertNull(
+        index.find(counter.getMethod("Counter", new String[0]), new IJavaProject[] {project}));
+  }
+
+  @Test
+  public void testUnsavedFileIsStale() throws Exception {
+    ICompilationUnit main = project.findType("pkg1.AMain").getCompilationUnit();
+    main.becomeWorkingCopy(null);
+    try {
+      main.getBuffer().append("\n");
+
+      ReferenceIndex.Lookup lookup = find(aClass);
+
+      assertTrue(lookup.getReferences().isEmpty());
+      assertEquals(Collections.singletonList(main), lookup.getStaleUnits());
+    } finally {
+      main.discardWorkingCopy();
+    }
+  }
+
+  @Test
+  public void testIndexIsStored() throws Exception {
+    index.uninstall();
+
+    ReferenceIndexFile file = ReferenceIndexFile.open(location);
+    assertEquals(1, file.find(aClass.getHandleIdentifier()).size());
+    assertTrue(
+        file.getFiles()
+            .stream()
+            .anyMatch(f -> f.path.equals("/usages/src/main/java/pkg1/AMain.java")));
+
+    index = new ReferenceIndex();
+    index.install(location);
+    index.join();
+    assertEquals(1, find(project.findType("pkg1.AInterface")).getReferences().size());
+  }
+
+  private Set<String> search(IJavaElement element) throws Exception {
+    Set<String> matches = new HashSet<>();
+    new SearchEngine()
+        .search(
+            SearchPattern.createPattern(element, IJavaSearchConstants.REFERENCES),
+            new SearchParticipant[] {SearchEngine.getDefaultSearchParticipant()},
+            SearchEngine.createJavaSearchScope(new IJavaElement[] {project}),
+            new SearchRequestor() {
+              @Override
+              public void acceptSearchMatch(SearchMatch match) {
+                matches.add(
+                    match.getResource().getFullPath()
+                        + "@"
+                        + match.getOffset()
+                        + ":"
+                        + match.getLength());
+              }
+            },
+            new NullProgressMonitor());
+    return matches;
+  }
+
+  private void createFile(String name, String content) throws Exception {
+    project
+        .getProject()
+        .getFile("src/main/java/pkg1/" + name)
+        .create(new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)), true, null);
+  }
+
+  private ReferenceIndex.Lookup find(IJavaElement element) throws Exception {
+    ReferenceIndex.Lookup lookup = index.find(element, new IJavaProject[] {project});
+    assertNotNull(lookup);
+    return lookup;
+  }
+}
@@ -17,7 +17,11 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
 
 import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import org.eclipse.che.jdt.ls.extension.api.dto.ImplementersResponse;
+import org.eclipse.che.jdt.ls.extension.api.dto.ResolveLabelsParameters;
 import org.eclipse.che.jdt.ls.extension.core.internal.AbstractProjectsManagerBasedTest;
 import org.eclipse.che.jdt.ls.extension.core.internal.WorkspaceHelper;
 import org.eclipse.core.resources.IProject;
@@ -62,6 +66,25 @@ public class FindImplementersHandlerTest extends AbstractProjectsManagerBasedTes
     assertEquals("ChildClass", impls.getImplementers().get(1).getName());
   }
 
+  @Test
+  public void testDeferredLabelsAreResolvedByHandle() {
+    String fileURI = createFileUri("src/main/java/org/eclipse/che/examples/ParentClass.java");
+    TextDocumentPositionParams params =
+        new TextDocumentPositionParams(new TextDocumentIdentifier(fileURI), new Position(14, 24));
+    ImplementersResponse impls =
+        getImplementers(Arrays.asList(params, true), new NullProgressMonitor());
+    assertEquals(1, impls.getImplementers().size());
+    assertEquals("simpleMethod", impls.getImplementers().get(0).getName());
+    assertEquals(1, impls.getHandles().size());
+
+    List<String> handles = new ArrayList<>(impls.getHandles());
+    handles.add(handles.get(0).replace("simpleMethod", "removedMethod"));
+    List<String> labels =
+        ResolveLabelsHandler.resolveLabels(
+            singletonList(new ResolveLabelsParameters(handles)), new NullProgressMonitor());
+    assertEquals(Arrays.asList("simpleMethod(int)", null), labels);
+  }
+
   @Test
   public void testFindClassMethodImplementers() {
     String fileURI = createFileUri("src/main/java/org/eclipse/che/examples/ParentClass.java");
@@ -70,6 +93,7 @@ public class FindImplementersHandlerTest extends AbstractProjectsManagerBasedTes
     ImplementersResponse impls = getImplementers(singletonList(params), new NullProgressMonitor());
     assertEquals(1, impls.getImplementers().size());
     assertEquals("simpleMethod(int)", impls.getImplementers().get(0).getName());
+    assertNull(impls.getHandles());
   }
 
   @Test
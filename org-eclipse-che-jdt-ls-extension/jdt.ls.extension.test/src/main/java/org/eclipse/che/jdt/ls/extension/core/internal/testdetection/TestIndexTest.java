@@ -0,0 +1,141 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.jdt.ls.extension.core.internal.testdetection;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.List;
+import org.eclipse.che.jdt.ls.extension.core.internal.AbstractProjectsManagerBasedTest;
+import org.eclipse.che.jdt.ls.extension.core.internal.WorkspaceHelper;
+import org.eclipse.core.resources.IFile;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.IPackageFragment;
+import org.eclipse.jdt.core.JavaCore;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TestIndexTest extends AbstractProjectsManagerBasedTest {
+  private static final String TEST_METHOD_ANNOTATION = "org.junit.Test";
+  private static final String TEST_CLASS_ANNOTATION = "org.junit.runner.RunWith";
+  private static final String PACKAGE = "src/test/java/org/eclipse/che/examples/";
+
+  private IJavaProject project;
+  private TestIndex index;
+
+  @Before
+  public void setUp() throws Exception {
+    importProjects("maven/testproject");
+    project = JavaCore.create(WorkspaceHelper.getProject("testproject"));
+    index = new TestIndex();
+    index.install();
+  }
+
+  @After
+  public void tearDown() {
+    index.uninstall();
+  }
+
+  @Test
+  public void testClassesAreFoundInTheProject() throws Exception {
+    List<String> result = findTestClasses();
+
+    assertEquals(
+        new HashSet<>(
+            asList(
+                "org.eclipse.che.examples.AppOneTest",
+                "org.eclipse.che.examples.Junit4TestSuite",
+                "org.eclipse.che.examples.AppAnotherTest")),
+        new HashSet<>(result));
+    int size = index.size();
+    assertTrue(size > 3);
+
+    assertEquals(result, findTestClasses());
+    assertEquals(size, index.size());
+  }
+
+  @Test
+  public void testAddedSubclassIsFound() throws Exception {
+    findTestClasses();
+
+    createFile(
+        "AppOneSubTest.java",
+        "package org.eclipse.che.examples;\npublic class AppOneSubTest extends AppOneTest {}\n");
+
+    assertTrue(findTestClasses().contains("org.eclipse.che.examples.AppOneSubTest"));
+  }
+
+  @Test
+  public void testChangedClassIsIndexedAgain() throws Exception {
+    IFile file = createFile("AppThirdTest.java", testClass(true));
+    assertTrue(findTestClasses().contains("org.eclipse.che.examples.AppThirdTest"));
+
+    file.setContents(
+        new ByteArrayInputStream(testClass(false).getBytes(StandardCharsets.UTF_8)),
+        true,
+        false,
+        null);
+
+    assertFalse(findTestClasses().contains("org.eclipse.che.examples.AppThirdTest"));
+  }
+
+  @Test
+  public void testClassesOfPackageOnly() throws Exception {
+    IPackageFragment main =
+        project.findPackageFragment(
+            project.getProject().getFolder("src/main/java/org/eclipse/che/examples").getFullPath());
+
+    assertTrue(
+        index.findTestClasses(main, TEST_METHOD_ANNOTATION, TEST_CLASS_ANNOTATION).isEmpty());
+  }
+
+  @Test
+  public void testAnnotationOfSamePackageIsFoundWithoutImport() throws Exception {
+    createFile("Check.java", "package org.eclipse.che.examples;\npublic @interface Check {}\n");
+    createFile(
+        "AppCheckTest.java",
+        "package org.eclipse.che.examples;\n"
+            + "public class AppCheckTest {\n"
+            + "  @Check\n"
+            + "  public void check() {}\n"
+            + "}\n");
+
+    assertTrue(
+        index
+            .findTestClasses(project, "org.eclipse.che.examples.Check", TEST_CLASS_ANNOTATION)
+            .contains("org.eclipse.che.examples.AppCheckTest"));
+  }
+
+  private List<String> findTestClasses() throws Exception {
+    return index.findTestClasses(project, TEST_METHOD_ANNOTATION, TEST_CLASS_ANNOTATION);
+  }
+
+  private IFile createFile(String name, String content) throws Exception {
+    IFile file = project.getProject().getFile(PACKAGE + name);
+    file.create(new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)), true, null);
+    return file;
+  }
+
+  private static String testClass(boolean annotated) {
+    return "package org.eclipse.che.examples;\n"
+        + "import org.junit.Test;\n"
+        + "public class AppThirdTest {\n"
+        + (annotated ? "  @Test\n" : "")
+        + "  public void third() {}\n"
+        + "}\n";
+  }
+}